@@ -0,0 +1,112 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.entity.Discount;
+import backend_service.shop.entity.Order;
+import backend_service.shop.entity.OrderDetail;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.Role;
+import backend_service.shop.entity.User;
+import backend_service.shop.entity.UserHasRole;
+import backend_service.shop.util.DiscountStatus;
+import backend_service.shop.util.DiscountType;
+import backend_service.shop.util.OrderStatus;
+import backend_service.shop.util.PaymentMethod;
+import backend_service.shop.util.UserStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Entities shared by the benchmarks, built in memory without a database
+ */
+final class BenchmarkFixtures {
+
+    static final String USERNAME = "bench.user";
+    static final long USER_ID = 42L;
+
+    // 256-bit key, base64
+    static final String ACCESS_KEY = "Ymd4b1ZQS2Z0c2h2Q1l3Q2hqRkR2b3pNbE1RcmVQa3JxSHp0c2R2Vw==";
+    static final String REFRESH_KEY = "cmVmcmVzaC1rZXktZm9yLWJlbmNobWFya3Mtb25seS0wMTIzNDU2Nzg5";
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user() {
+        User user = User.builder()
+                .username(USERNAME)
+                .email(USERNAME + "@example.com")
+                .userStatus(UserStatus.ACTIVE)
+                .build();
+        user.setId(USER_ID);
+        user.setRoles(Set.of(UserHasRole.builder()
+                .user(user)
+                .role(Role.builder().name("USER").build())
+                .build()));
+        return user;
+    }
+
+    static Discount discount(DiscountType type, String value) {
+        Discount discount = Discount.builder()
+                .code("BENCH10")
+                .discountType(type)
+                .value(new BigDecimal(value))
+                .status(DiscountStatus.ACTIVE)
+                .startDate(LocalDateTime.now().minusDays(1))
+                .endDate(LocalDateTime.now().plusDays(30))
+                .build();
+        discount.setId(7L);
+        return discount;
+    }
+
+    /**
+     * @param lines number of order lines
+     * @return order with its details and a percentage discount applied
+     */
+    static Order order(int lines) {
+        User user = user();
+        Order order = Order.builder()
+                .user(user)
+                .note("Giao giờ hành chính")
+                .shippingAddress("12 Nguyễn Trãi, Quận 1, TP.HCM")
+                .paymentMethod(PaymentMethod.COD)
+                .status(OrderStatus.PENDING)
+                .discount(discount(DiscountType.PERCENTAGE, "10"))
+                .build();
+        order.setId(1000L);
+
+        List<OrderDetail> details = new ArrayList<>(lines);
+        BigDecimal total = BigDecimal.ZERO;
+        int quantity = 0;
+        for (int i = 0; i < lines; i++) {
+            Product product = Product.builder()
+                    .name("Sản phẩm " + i)
+                    .price(BigDecimal.valueOf(100_000L + i * 1_000L))
+                    .build();
+            product.setId((long) i + 1);
+
+            int qty = 1 + i % 3;
+            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(qty));
+            OrderDetail detail = OrderDetail.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(qty)
+                    .unitPrice(product.getPrice())
+                    .totalPrice(lineTotal)
+                    .build();
+            detail.setId((long) i + 1);
+            details.add(detail);
+            total = total.add(lineTotal);
+            quantity += qty;
+        }
+
+        BigDecimal discountAmount = total.divide(BigDecimal.TEN);
+        order.setOrderDetails(details);
+        order.setTotalPrice(total);
+        order.setTotalQuantity(quantity);
+        order.setDiscountAmount(discountAmount);
+        order.setFinalPrice(total.subtract(discountAmount));
+        return order;
+    }
+}
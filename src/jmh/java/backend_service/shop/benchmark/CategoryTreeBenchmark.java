@@ -0,0 +1,67 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.cache.CategoryNode;
+import backend_service.shop.cache.CategoryTreeCache;
+import backend_service.shop.cache.CategoryTreeSnapshot;
+import backend_service.shop.dto.response.CategoryResponse;
+import backend_service.shop.dto.response.CategoryTreeResponse;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.service.impl.CategoryServiceImpl;
+import backend_service.shop.util.CategoryStatus;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category tree: building the snapshot from the flat rows (what a refresh costs)
+ * and the reads served from it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryTreeBenchmark {
+
+    private static final int CHILDREN_PER_NODE = 8;
+
+    @Param({"1000", "10000"})
+    public int nodes;
+
+    private List<CategoryNode> rows;
+    private CategoryServiceImpl categoryService;
+    private Long deepestId;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>(nodes);
+        for (long id = 1; id <= nodes; id++) {
+            // Cây đầy đủ bậc 8: id 1 là gốc, cha của id n là (n - 2) / 8 + 1
+            Long parentId = id == 1 ? null : (id - 2) / CHILDREN_PER_NODE + 1;
+            rows.add(new CategoryNode(id, "Danh mục " + id, parentId, CategoryStatus.ACTIVE));
+        }
+        deepestId = (long) nodes;
+
+        CategoryRepository categoryRepository = RepositoryStub.of(CategoryRepository.class)
+                .on("findAllNodes", args -> rows)
+                .build();
+        categoryService = new CategoryServiceImpl(categoryRepository, new CategoryTreeCache(categoryRepository), null);
+    }
+
+    @Benchmark
+    public CategoryTreeSnapshot buildSnapshot() {
+        return CategoryTreeSnapshot.build(rows);
+    }
+
+    @Benchmark
+    public List<CategoryTreeResponse> getAllCategoryTree() {
+        return categoryService.getAllCategoryTree();
+    }
+
+    @Benchmark
+    public List<CategoryResponse> getCategoryPath() {
+        return categoryService.getCategoryPath(deepestId);
+    }
+}
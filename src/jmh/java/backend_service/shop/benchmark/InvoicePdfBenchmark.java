@@ -0,0 +1,36 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.entity.Order;
+import backend_service.shop.helper.InvoicePdfGenerator;
+import org.openjdk.jmh.annotations.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF rendering done by the invoice worker for each order.
+ * The file is written under the working directory (target/jmh when run through the benchmark profile).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoicePdfBenchmark {
+
+    @Param({"5", "50"})
+    public int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.order(lines);
+    }
+
+    @Benchmark
+    public File generateInvoicePdf() throws IOException {
+        return InvoicePdfGenerator.generateInvoicePdf(order);
+    }
+}
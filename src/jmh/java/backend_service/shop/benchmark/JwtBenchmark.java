@@ -0,0 +1,65 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.entity.User;
+import backend_service.shop.service.AuthService.TokenClaims;
+import backend_service.shop.service.impl.JwtServiceImpl;
+import backend_service.shop.util.TokenType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification as done by PreFilter on every request, with and without the verified-claims cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    @Param({"true", "false"})
+    public boolean claimsCache;
+
+    private JwtServiceImpl jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService(claimsCache ? 10_000 : 0);
+        user = BenchmarkFixtures.user();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public TokenClaims parseToken() {
+        return jwtService.parseToken(token, TokenType.ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return jwtService.isValid(token, TokenType.ACCESS_TOKEN, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    /**
+     * @param claimsCacheMaxSize 0 disables the verified-claims cache
+     */
+    static JwtServiceImpl newJwtService(long claimsCacheMaxSize) {
+        JwtServiceImpl jwtService = new JwtServiceImpl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "expiryHour", 1L);
+        ReflectionTestUtils.setField(jwtService, "expiryDay", 14L);
+        ReflectionTestUtils.setField(jwtService, "accessKey", BenchmarkFixtures.ACCESS_KEY);
+        ReflectionTestUtils.setField(jwtService, "refreshKey", BenchmarkFixtures.REFRESH_KEY);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", claimsCacheMaxSize);
+        jwtService.init();
+        return jwtService;
+    }
+}
@@ -0,0 +1,185 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.dto.request.OrderDetailRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
+import backend_service.shop.dto.response.OrderResponse;
+import backend_service.shop.entity.Category;
+import backend_service.shop.entity.Order;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.User;
+import backend_service.shop.metrics.DataSourceMetricsPostProcessor;
+import backend_service.shop.metrics.ShopMetrics;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.OrderRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.service.DiscountService;
+import backend_service.shop.service.InvoiceService;
+import backend_service.shop.service.OrderService;
+import backend_service.shop.service.impl.InventoryServiceImpl;
+import backend_service.shop.service.impl.OrderServiceImpl;
+import backend_service.shop.service.impl.ProductSalesServiceImpl;
+import backend_service.shop.util.CategoryStatus;
+import backend_service.shop.util.PaymentMethod;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import backend_service.shop.util.UserStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * createOrder end to end against an in-memory H2 (MySQL mode), so the latency includes every
+ * JDBC round trip. Run it for each line count: the time per order should grow with the lines
+ * (rows written in batches), never with one statement per line.
+ * JDBC statements per order are printed after each iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class OrderCreateBenchmark {
+
+    // Đủ tồn kho cho mọi lần gọi trong một fork
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductSalesServiceImpl productSalesService;
+    private MeterRegistry meterRegistry;
+    private OrderRequestDTO request;
+    private long statementsBefore;
+    private long ordersBefore;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkContext.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:order-create;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        // application.yml bật INFO cho root, log mỗi đơn làm nhiễu số đo
+                        "--logging.level.root=WARN");
+        orderService = context.getBean(OrderService.class);
+        productSalesService = context.getBean(ProductSalesServiceImpl.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder()
+                .name("Benchmark")
+                .status(CategoryStatus.ACTIVE)
+                .build());
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .username(BenchmarkFixtures.USERNAME)
+                .email(BenchmarkFixtures.USERNAME + "@example.com")
+                .userStatus(UserStatus.ACTIVE)
+                .build());
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<OrderDetailRequestDTO> details = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Sản phẩm " + i)
+                    .price(BigDecimal.valueOf(100_000L + i * 1_000L))
+                    .stockQuantity(STOCK)
+                    .status(ProductStatus.ACTIVE)
+                    .tag(ProductTag.NORMAL)
+                    .category(category)
+                    .build());
+            details.add(OrderDetailRequestDTO.builder()
+                    .productId(product.getId())
+                    .quantity(1)
+                    .build());
+        }
+
+        request = OrderRequestDTO.builder()
+                .userId(user.getId())
+                .shippingAddress("12 Nguyễn Trãi, Quận 1, TP.HCM")
+                .paymentMethod(PaymentMethod.COD)
+                .orderDetails(details)
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        statementsBefore = statements();
+        ordersBefore = context.getBean(OrderRepository.class).count();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        long orders = context.getBean(OrderRepository.class).count() - ordersBefore;
+        // count() ở trên cũng là một câu lệnh
+        long perOrder = orders == 0 ? 0 : (statements() - statementsBefore - 1) / orders;
+        System.out.printf("%n%d lines: %d JDBC statements per order%n", lines, perOrder);
+        // Không có scheduler trong context này: tự xả delta doanh số để hàng đợi không phình ra
+        productSalesService.flush();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return orderService.createOrder(request);
+    }
+
+    private long statements() {
+        return meterRegistry.find("shop.jdbc.statements").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    /**
+     * JPA + JdbcTemplate on H2 with only the beans createOrder goes through; invoice and
+     * discount are stubbed (no discount code, the invoice is rendered after commit).
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class, JdbcTemplateAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({OrderServiceImpl.class, InventoryServiceImpl.class, ProductSalesServiceImpl.class, ShopMetrics.class,
+            SimpleMeterRegistry.class, DataSourceMetricsPostProcessor.class})
+    static class BenchmarkContext {
+
+        @Bean
+        InvoiceService invoiceService() {
+            return RepositoryStub.of(InvoiceService.class)
+                    .on("scheduleInvoiceForOrder", args -> null)
+                    .build();
+        }
+
+        @Bean
+        DiscountService discountService() {
+            return RepositoryStub.of(DiscountService.class).build();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.cache.DiscountRule;
+import backend_service.shop.dto.response.OrderResponse;
+import backend_service.shop.entity.Order;
+import backend_service.shop.repository.OrderRepository;
+import backend_service.shop.service.impl.OrderServiceImpl;
+import backend_service.shop.util.DiscountType;
+import org.openjdk.jmh.annotations.*;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order -> OrderResponse mapping (through getOrderById with a stubbed repository)
+ * and the BigDecimal math applied to an order total by a discount code
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private OrderServiceImpl orderService;
+    private Long orderId;
+    private DiscountRule percentage;
+    private DiscountRule fixed;
+    private BigDecimal totalPrice;
+
+    @Setup
+    public void setUp() {
+        Order order = BenchmarkFixtures.order(lines);
+        orderId = order.getId();
+        totalPrice = order.getTotalPrice();
+
+        OrderRepository orderRepository = RepositoryStub.of(OrderRepository.class)
+                .on("findWithDetailsById", args -> Optional.of(order))
+                .build();
+        // Các dependency còn lại không được gọi trên đường đọc
+        orderService = new OrderServiceImpl(orderRepository, null, null, null, null, null, null, null, null, null, null, null);
+
+        percentage = DiscountRule.of(BenchmarkFixtures.discount(DiscountType.PERCENTAGE, "12.5"));
+        fixed = DiscountRule.of(BenchmarkFixtures.discount(DiscountType.FIXED, "50000"));
+    }
+
+    @Benchmark
+    public OrderResponse convertToResponse() {
+        return orderService.getOrderById(orderId);
+    }
+
+    @Benchmark
+    public BigDecimal percentageDiscount() {
+        return percentage.amountFor(totalPrice);
+    }
+
+    @Benchmark
+    public BigDecimal fixedDiscount() {
+        return fixed.amountFor(totalPrice);
+    }
+}
@@ -0,0 +1,86 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.cache.UserAuthCache;
+import backend_service.shop.config.PreFilter;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.repository.UserStatusView;
+import backend_service.shop.service.AuthService.BlacklistedTokenService;
+import backend_service.shop.service.AuthService.CustomUserDetailsService;
+import backend_service.shop.service.impl.JwtServiceImpl;
+import backend_service.shop.util.UserStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * Authentication of one request through PreFilter: blacklist check, token verification and principal lookup.
+ * statelessPrincipal=false loads the User entity on every request (stubbed here, so DB time is excluded).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean statelessPrincipal;
+
+    private PreFilter preFilter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        UserStatusView statusView = new UserStatusView() {
+            @Override
+            public Long getId() {
+                return BenchmarkFixtures.USER_ID;
+            }
+
+            @Override
+            public String getUsername() {
+                return BenchmarkFixtures.USERNAME;
+            }
+
+            @Override
+            public UserStatus getUserStatus() {
+                return UserStatus.ACTIVE;
+            }
+        };
+        UserRepository userRepository = RepositoryStub.of(UserRepository.class)
+                .on("findStatusViewByUsername", args -> Optional.of(statusView))
+                .on("findRoleNamesByUserId", args -> List.of("USER"))
+                .on("findByUsername", args -> Optional.of(BenchmarkFixtures.user()))
+                .build();
+        BlacklistedTokenService blacklistedTokenService = RepositoryStub.of(BlacklistedTokenService.class)
+                .on("isBlacklisted", args -> false)
+                .build();
+
+        JwtServiceImpl jwtService = JwtBenchmark.newJwtService(10_000);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        preFilter = new PreFilter(new CustomUserDetailsService(userRepository), jwtService, blacklistedTokenService,
+                new UserAuthCache(userRepository, meterRegistry, 60, 10_000), statelessPrincipal);
+        authorization = "Bearer " + jwtService.generateToken(BenchmarkFixtures.user());
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.addHeader(AUTHORIZATION, authorization);
+        try {
+            preFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
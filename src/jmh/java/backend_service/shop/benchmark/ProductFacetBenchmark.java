@@ -0,0 +1,89 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.search.ProductFacetIndex;
+import backend_service.shop.search.ProductFacetQuery;
+import backend_service.shop.search.ProductFacetResult;
+import backend_service.shop.search.ProductFacets;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import org.openjdk.jmh.annotations.*;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Faceted filtering over a synthetic catalog of 50 categories in 5 groups: no filter (counts over
+ * the whole catalog), one group with the stock filter, and every facet filtered at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductFacetBenchmark {
+
+    private static final int GROUPS = 5;
+    private static final int CATEGORIES_PER_GROUP = 10;
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private ProductFacetIndex index;
+    private ProductFacetQuery unfiltered;
+    private ProductFacetQuery group;
+    private ProductFacetQuery everyFacet;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductFacetIndex(new BigDecimal[]{BigDecimal.valueOf(100_000), BigDecimal.valueOf(300_000),
+                BigDecimal.valueOf(500_000), BigDecimal.valueOf(1_000_000)});
+        for (long id = 1; id <= products; id++) {
+            index.put(new ProductFacets(id, (long) random.nextInt(GROUPS * CATEGORIES_PER_GROUP),
+                    random.nextInt(10) == 0 ? ProductStatus.INACTIVE : ProductStatus.ACTIVE,
+                    ProductTag.values()[random.nextInt(ProductTag.values().length)],
+                    BigDecimal.valueOf(50_000L + random.nextInt(2_000) * 1_000L), null,
+                    random.nextInt(5) == 0 ? 0 : random.nextInt(100) + 1));
+        }
+
+        Map<Long, Set<Long>> groups = new LinkedHashMap<>();
+        for (long g = 0; g < GROUPS; g++) {
+            groups.put(g, categories(g));
+        }
+        Map<Long, Set<Long>> inGroup = new LinkedHashMap<>();
+        categories(0).forEach(category -> inGroup.put(category, Set.of(category)));
+
+        unfiltered = new ProductFacetQuery(null, groups, null, null, null, null, 0, 20);
+        group = new ProductFacetQuery(categories(0), inGroup, null, null, null, true, 0, 20);
+        everyFacet = new ProductFacetQuery(categories(0), inGroup, Set.of(ProductStatus.ACTIVE),
+                Set.of(ProductTag.HOT, ProductTag.NEW), Set.of(1, 2), true, 40, 20);
+    }
+
+    private static Set<Long> categories(long group) {
+        Set<Long> ids = new HashSet<>();
+        for (long c = 0; c < CATEGORIES_PER_GROUP; c++) {
+            ids.add(group * CATEGORIES_PER_GROUP + c);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public ProductFacetResult unfiltered() {
+        return index.search(unfiltered);
+    }
+
+    @Benchmark
+    public ProductFacetResult categoryGroupInStock() {
+        return index.search(group);
+    }
+
+    @Benchmark
+    public ProductFacetResult everyFacetFiltered() {
+        return index.search(everyFacet);
+    }
+}
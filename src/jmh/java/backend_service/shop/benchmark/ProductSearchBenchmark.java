@@ -0,0 +1,87 @@
+package backend_service.shop.benchmark;
+
+import backend_service.shop.search.ProductDocument;
+import backend_service.shop.search.ProductSearchIndex;
+import backend_service.shop.search.ProductSearchQuery;
+import backend_service.shop.search.ProductSearchResult;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import org.openjdk.jmh.annotations.*;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product search over a synthetic catalog: a common and a rare multi-word query, a typeahead
+ * prefix and a filtered query. Names are drawn from a small Vietnamese vocabulary so common
+ * words match a large share of the catalog, the worst case for the scan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] TYPES = {"Áo thun", "Áo sơ mi", "Quần jean", "Quần short", "Váy", "Giày thể thao",
+            "Dép", "Túi xách", "Balo", "Đồng hồ", "Mũ lưỡi trai", "Khăn choàng", "Thắt lưng", "Kính mát", "Ví da"};
+    private static final String[] TRAITS = {"nam", "nữ", "trẻ em", "cao cấp", "giá rẻ", "cotton", "chống nước",
+            "thông minh", "cổ điển", "thời trang", "mùa hè", "mùa đông", "du lịch", "công sở", "thể thao"};
+    private static final String[] COLORS = {"đen", "trắng", "đỏ", "xanh", "vàng", "xám", "nâu", "hồng", "tím", "cam"};
+    private static final String[] CATEGORIES = {"Thời trang nam", "Thời trang nữ", "Phụ kiện", "Giày dép", "Đồ trẻ em"};
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private ProductSearchQuery common;
+    private ProductSearchQuery rare;
+    private ProductSearchQuery typeahead;
+    private ProductSearchQuery filtered;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductSearchIndex(64, 1000);
+        for (long id = 1; id <= products; id++) {
+            String name = pick(random, TYPES) + " " + pick(random, TRAITS) + " " + pick(random, COLORS) + " " + id;
+            String shortDescription = pick(random, TRAITS) + ", " + pick(random, TRAITS) + ", màu " + pick(random, COLORS);
+            BigDecimal price = BigDecimal.valueOf(50_000L + random.nextInt(2_000) * 1_000L);
+            index.put(new ProductDocument(id, name, shortDescription, null, "SP-" + id, price, null, null,
+                    random.nextInt(10) == 0 ? ProductStatus.INACTIVE : ProductStatus.ACTIVE,
+                    ProductTag.values()[random.nextInt(ProductTag.values().length)],
+                    (long) random.nextInt(CATEGORIES.length), pick(random, CATEGORIES)));
+        }
+
+        common = new ProductSearchQuery("ao thun den", false, null, null, null, null, 0, 20);
+        rare = new ProductSearchQuery("dong ho thong minh tim", false, null, null, null, null, 0, 20);
+        typeahead = new ProductSearchQuery("giay the th", true, ProductStatus.ACTIVE, null, null, null, 0, 10);
+        filtered = new ProductSearchQuery("balo chong nuoc", false, ProductStatus.ACTIVE, ProductTag.HOT,
+                BigDecimal.valueOf(200_000), BigDecimal.valueOf(800_000), 0, 20);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    @Benchmark
+    public ProductSearchResult commonWords() {
+        return index.search(common);
+    }
+
+    @Benchmark
+    public ProductSearchResult rareCombination() {
+        return index.search(rare);
+    }
+
+    @Benchmark
+    public ProductSearchResult typeaheadPrefix() {
+        return index.search(typeahead);
+    }
+
+    @Benchmark
+    public ProductSearchResult filteredQuery() {
+        return index.search(filtered);
+    }
+}
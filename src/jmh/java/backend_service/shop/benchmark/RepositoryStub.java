@@ -0,0 +1,49 @@
+package backend_service.shop.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-in for a Spring Data repository: each stubbed method is answered by name,
+ * any other call fails so a benchmark never measures a path it did not set up.
+ *
+ * @param <R> repository interface
+ */
+final class RepositoryStub<R> {
+
+    private final Class<R> type;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private RepositoryStub(Class<R> type) {
+        this.type = type;
+    }
+
+    static <R> RepositoryStub<R> of(Class<R> type) {
+        return new RepositoryStub<>(type);
+    }
+
+    RepositoryStub<R> on(String method, Function<Object[], Object> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    R build() {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            }
+            return answer.apply(args);
+        });
+        return type.cast(proxy);
+    }
+}
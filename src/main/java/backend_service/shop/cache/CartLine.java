@@ -0,0 +1,24 @@
+package backend_service.shop.cache;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a cart held by {@link CartStore}.
+ *
+ * @param id          id of the tbl_cart_detail row, null until the line has been flushed
+ * @param productId
+ * @param productName
+ * @param quantity
+ * @param unitPrice   price snapshot taken when the product was added
+ * @param totalPrice  quantity * unitPrice
+ */
+public record CartLine(Long id, Long productId, String productName, int quantity, BigDecimal unitPrice, BigDecimal totalPrice) {
+
+    public CartLine withQuantity(int quantity) {
+        return new CartLine(id, productId, productName, quantity, unitPrice, unitPrice.multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    public CartLine withId(Long id) {
+        return new CartLine(id, productId, productName, quantity, unitPrice, totalPrice);
+    }
+}
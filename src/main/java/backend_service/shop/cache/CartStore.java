@@ -0,0 +1,482 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.entity.Cart;
+import backend_service.shop.entity.Product;
+import backend_service.shop.exception.InvalidDataException;
+import backend_service.shop.exception.ResourceNotFoundException;
+import backend_service.shop.repository.CartDetailRepository;
+import backend_service.shop.repository.CartFlush;
+import backend_service.shop.repository.CartLineKey;
+import backend_service.shop.repository.CartRepository;
+import backend_service.shop.util.PriceUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Server-side cart store. Carts are loaded on first use and then read and mutated in memory
+ * under a striped lock; changes are coalesced and written back to tbl_cart / tbl_cart_detail
+ * in batches every cart.store.flush-interval-ms and once more on shutdown.
+ * <p>
+ * A cart should be served by a single instance (sticky sessions), a crash loses at most one
+ * flush interval of cart changes. A misrouted request cannot duplicate lines: rows are upserted
+ * on (cart_id, product_id) and the cart totals are recomputed from the rows.
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartDetailRepository cartDetailRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Lock[] stripes;
+    private final long idleTtlMs;
+
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> cartIdByUserId = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+
+    public CartStore(CartRepository cartRepository,
+                     CartDetailRepository cartDetailRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${cart.store.stripes:64}") int stripes,
+                     @Value("${cart.store.idle-ttl-ms:1800000}") long idleTtlMs) {
+        this.cartRepository = cartRepository;
+        this.cartDetailRepository = cartDetailRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName("CartStore.flush");
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.idleTtlMs = idleTtlMs;
+    }
+
+    public CartView get(Long cartId) {
+        return withCart(cartId, CartState::view);
+    }
+
+    public CartView getByUserId(Long userId) {
+        Long cartId = cartIdByUserId.get(userId);
+        if (cartId == null) {
+            cartId = cartRepository.findByUserId(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found for userId: " + userId))
+                    .getId();
+        }
+        return get(cartId);
+    }
+
+    /**
+     * Add the product to the cart, or increase the quantity of its line; the quantity must be positive
+     *
+     * @return the line after the change
+     */
+    public CartLine add(Long cartId, Product product, int quantity) {
+        if (quantity <= 0) {
+            // Dòng âm đi tiếp vào checkout sẽ cộng ngược tồn kho
+            throw new InvalidDataException("Quantity must be positive for productId=" + product.getId());
+        }
+        return withCart(cartId, cart -> {
+            CartLine line = cart.lines.get(product.getId());
+            BigDecimal unitPrice = PriceUtil.effectivePrice(product);
+            CartLine updated = line != null
+                    ? line.withQuantity(line.quantity() + quantity)
+                    : new CartLine(null, product.getId(), product.getName(), quantity, unitPrice,
+                    unitPrice.multiply(BigDecimal.valueOf(quantity)));
+            cart.put(updated);
+            return updated;
+        });
+    }
+
+    /**
+     * Set the quantity of a line, a quantity <= 0 removes it
+     *
+     * @return the line after the change, null when it was removed
+     */
+    public CartLine setQuantity(Long cartId, Long productId, int quantity) {
+        return withCart(cartId, cart -> {
+            CartLine line = cart.lines.get(productId);
+            if (line == null) {
+                throw new ResourceNotFoundException("Product " + productId + " is not in cart " + cartId);
+            }
+            if (quantity <= 0) {
+                cart.remove(productId);
+                return null;
+            }
+            CartLine updated = line.withQuantity(quantity);
+            cart.put(updated);
+            return updated;
+        });
+    }
+
+    public void remove(Long cartId, Long productId) {
+        withCart(cartId, cart -> {
+            if (cart.remove(productId) == null) {
+                throw new ResourceNotFoundException("Product " + productId + " is not in cart " + cartId);
+            }
+            return null;
+        });
+    }
+
+    public void clear(Long cartId) {
+        withCart(cartId, cart -> {
+            new ArrayList<>(cart.lines.keySet()).forEach(cart::remove);
+            return null;
+        });
+    }
+
+    /**
+     * Run a checkout of the cart while holding its lock, so no mutation or flush of this cart
+     * interleaves with it. The action must commit its own transaction; when it returns the
+     * cart is emptied, when it throws the cart is left untouched.
+     *
+     * @param cartId
+     * @param action receives the current content of the cart
+     * @return the result of the action
+     */
+    public <T> T checkout(Long cartId, Function<CartView, T> action) {
+        return withCart(cartId, cart -> {
+            T result = action.apply(cart.view());
+            cart.checkedOut();
+            return result;
+        });
+    }
+
+    /**
+     * Recompute the totals of the cart from its lines
+     *
+     * @return true when the totals had drifted and were repaired
+     */
+    public boolean recalculate(Long cartId) {
+        return withCart(cartId, CartState::recalculate);
+    }
+
+    /**
+     * Recompute the totals of every loaded cart and repair the ones that drifted
+     *
+     * @return ids of the repaired carts
+     */
+    public List<Long> repairTotals() {
+        List<Long> repaired = new ArrayList<>();
+        for (Long cartId : new ArrayList<>(carts.keySet())) {
+            Boolean drifted = locked(cartId, cart -> {
+                boolean result = cart.recalculate();
+                if (result) {
+                    dirty.add(cartId);
+                }
+                return result;
+            });
+            if (Boolean.TRUE.equals(drifted)) {
+                repaired.add(cartId);
+            }
+        }
+        return repaired;
+    }
+
+    public boolean isLoaded(Long cartId) {
+        return carts.containsKey(cartId);
+    }
+
+    /**
+     * Drop the cart and its pending changes, used when the cart itself is deleted
+     */
+    public void evict(Long cartId) {
+        synchronized (flushLock) {
+            Lock lock = stripe(cartId);
+            lock.lock();
+            try {
+                CartState cart = carts.remove(cartId);
+                if (cart != null) {
+                    cartIdByUserId.remove(cart.userId);
+                }
+                dirty.remove(cartId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushDirty();
+            evictIdle();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (flushLock) {
+            flushDirty();
+            if (!dirty.isEmpty()) {
+                log.error("Cart store shut down with {} unflushed carts", dirty.size());
+            }
+        }
+    }
+
+    private void flushDirty() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<CartFlush> flushes = new ArrayList<>();
+        for (Long cartId : new ArrayList<>(dirty)) {
+            // Bỏ cờ trước khi chụp, thay đổi đến sau đó sẽ bật lại cờ cho lần flush kế tiếp
+            dirty.remove(cartId);
+            CartFlush flush = locked(cartId, CartState::drain);
+            if (flush != null) {
+                flushes.add(flush);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> cartDetailRepository.writeBehind(flushes));
+        } catch (RuntimeException e) {
+            log.error("Cart flush failed, {} carts will be retried", flushes.size(), e);
+            flushes.forEach(flush -> locked(flush.cartId(), cart -> {
+                cart.restore(flush);
+                dirty.add(flush.cartId());
+                return null;
+            }));
+            return;
+        }
+
+        assignIds(flushes);
+        log.debug("Flushed {} carts, took={}ms", flushes.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Read back the ids of the rows just inserted so later changes of those lines become updates
+     */
+    private void assignIds(List<CartFlush> flushes) {
+        List<Long> cartIds = flushes.stream()
+                .filter(flush -> !flush.inserts().isEmpty())
+                .map(CartFlush::cartId)
+                .toList();
+        if (cartIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<CartLineKey>> keysByCart = new HashMap<>();
+        cartDetailRepository.findLineKeys(cartIds)
+                .forEach(key -> keysByCart.computeIfAbsent(key.cartId(), id -> new ArrayList<>()).add(key));
+        keysByCart.forEach((cartId, keys) -> locked(cartId, cart -> {
+            keys.forEach(cart::assignId);
+            return null;
+        }));
+    }
+
+    private void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - idleTtlMs;
+        for (CartState candidate : carts.values()) {
+            if (candidate.lastAccess >= idleBefore || dirty.contains(candidate.cartId)) {
+                continue;
+            }
+            locked(candidate.cartId, cart -> {
+                if (cart.lastAccess < idleBefore && !dirty.contains(cart.cartId) && !cart.hasPendingChanges()) {
+                    carts.remove(cart.cartId);
+                    cartIdByUserId.remove(cart.userId);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Run the action on the cart under its stripe lock, loading the cart first if needed
+     */
+    private <T> T withCart(Long cartId, Function<CartState, T> action) {
+        Lock lock = stripe(cartId);
+        lock.lock();
+        try {
+            CartState cart = carts.get(cartId);
+            if (cart == null) {
+                cart = load(cartId);
+                carts.put(cartId, cart);
+            }
+            cart.lastAccess = System.currentTimeMillis();
+            T result = action.apply(cart);
+            if (cart.hasPendingChanges()) {
+                dirty.add(cartId);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run the action on a cart that is already loaded, skip it when it has been evicted
+     */
+    private <T> T locked(Long cartId, Function<CartState, T> action) {
+        Lock lock = stripe(cartId);
+        lock.lock();
+        try {
+            CartState cart = carts.get(cartId);
+            return cart != null ? action.apply(cart) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CartState load(Long cartId) {
+        Cart cart = cartRepository.findById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with ID: " + cartId));
+
+        CartState state = new CartState(cartId, cart.getUser().getId());
+        cartDetailRepository.findWithProductByCartId(cartId).forEach(detail -> state.lines.put(
+                detail.getProduct().getId(),
+                new CartLine(detail.getId(), detail.getProduct().getId(), detail.getProduct().getName(),
+                        detail.getQuantity(), detail.getUnitPrice(), detail.getTotalPrice())));
+        state.recalculate();
+        state.totalsChanged = false;
+        cartIdByUserId.put(state.userId, cartId);
+        return state;
+    }
+
+    private Lock stripe(Long cartId) {
+        return stripes[Math.floorMod(cartId.hashCode(), stripes.length)];
+    }
+
+    /**
+     * Mutable state of one cart, only touched while holding its stripe lock
+     */
+    private static final class CartState {
+
+        private final Long cartId;
+        private final Long userId;
+
+        // productId -> line, giữ thứ tự thêm vào giỏ
+        private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+
+        // Thay đổi chưa flush, theo productId
+        private final Set<Long> changed = new HashSet<>();
+        private final Set<Long> removed = new HashSet<>();
+        private boolean totalsChanged;
+
+        private int totalQuantity;
+        private BigDecimal totalPrice = BigDecimal.ZERO;
+        private long lastAccess;
+
+        private CartState(Long cartId, Long userId) {
+            this.cartId = cartId;
+            this.userId = userId;
+        }
+
+        private void put(CartLine line) {
+            CartLine previous = lines.put(line.productId(), line);
+            changed.add(line.productId());
+            if (previous != null) {
+                applyDelta(-previous.quantity(), previous.totalPrice().negate());
+            }
+            applyDelta(line.quantity(), line.totalPrice());
+        }
+
+        private CartLine remove(Long productId) {
+            CartLine line = lines.remove(productId);
+            if (line != null) {
+                changed.remove(productId);
+                // Luôn xóa theo productId, kể cả dòng chưa có id vì insert của nó có thể đang được flush
+                removed.add(productId);
+                applyDelta(-line.quantity(), line.totalPrice().negate());
+            }
+            return line;
+        }
+
+        /**
+         * The checkout already deleted the rows; the products are still queued for deletion
+         * to catch rows an in-flight flush may insert after that delete
+         */
+        private void checkedOut() {
+            removed.addAll(lines.keySet());
+            lines.clear();
+            changed.clear();
+            totalQuantity = 0;
+            totalPrice = BigDecimal.ZERO;
+            totalsChanged = true;
+        }
+
+        /**
+         * Totals follow each mutation by delta, a click costs O(1) whatever the cart size
+         */
+        private void applyDelta(int quantity, BigDecimal price) {
+            totalQuantity += quantity;
+            totalPrice = totalPrice.add(price);
+            totalsChanged = true;
+        }
+
+        /**
+         * Full recomputation from the lines, used on load and by the consistency check
+         *
+         * @return true when the totals had drifted from the lines
+         */
+        private boolean recalculate() {
+            int quantity = lines.values().stream().mapToInt(CartLine::quantity).sum();
+            BigDecimal price = lines.values().stream().map(CartLine::totalPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+            boolean drifted = quantity != totalQuantity || price.compareTo(totalPrice) != 0;
+            totalQuantity = quantity;
+            totalPrice = price;
+            totalsChanged |= drifted;
+            return drifted;
+        }
+
+        private boolean hasPendingChanges() {
+            return totalsChanged || !changed.isEmpty() || !removed.isEmpty();
+        }
+
+        private CartFlush drain() {
+            if (!hasPendingChanges()) {
+                return null;
+            }
+
+            List<CartLine> inserts = new ArrayList<>();
+            List<CartLine> updates = new ArrayList<>();
+            for (Long productId : changed) {
+                CartLine line = lines.get(productId);
+                (line.id() == null ? inserts : updates).add(line);
+            }
+            CartFlush flush = new CartFlush(cartId, inserts, updates, List.copyOf(removed));
+            changed.clear();
+            removed.clear();
+            totalsChanged = false;
+            return flush;
+        }
+
+        private void restore(CartFlush flush) {
+            removed.addAll(flush.removedProductIds());
+            flush.inserts().forEach(line -> restoreChange(line.productId()));
+            flush.updates().forEach(line -> restoreChange(line.productId()));
+            totalsChanged = true;
+        }
+
+        private void restoreChange(Long productId) {
+            if (lines.containsKey(productId)) {
+                changed.add(productId);
+            }
+        }
+
+        private void assignId(CartLineKey key) {
+            CartLine line = lines.get(key.productId());
+            // Dòng đã bị xóa (và có thể thêm lại) sau lần chụp thì không nhận id của row cũ
+            if (line != null && line.id() == null && !removed.contains(key.productId())) {
+                lines.put(key.productId(), line.withId(key.detailId()));
+            }
+        }
+
+        private CartView view() {
+            return new CartView(cartId, userId, totalQuantity, totalPrice, List.copyOf(lines.values()));
+        }
+    }
+}
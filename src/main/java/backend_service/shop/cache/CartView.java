@@ -0,0 +1,10 @@
+package backend_service.shop.cache;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Read-only copy of a cart taken from {@link CartStore}.
+ */
+public record CartView(Long cartId, Long userId, int totalQuantity, BigDecimal totalPrice, List<CartLine> lines) {
+}
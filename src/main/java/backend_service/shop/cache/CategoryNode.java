@@ -0,0 +1,14 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.util.CategoryStatus;
+
+/**
+ * Flat row of tbl_category as held by {@link CategoryTreeSnapshot}.
+ *
+ * @param id
+ * @param name
+ * @param parentId null for a root category
+ * @param status
+ */
+public record CategoryNode(Long id, String name, Long parentId, CategoryStatus status) {
+}
@@ -0,0 +1,89 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.datasource.ReplicaRouting;
+import backend_service.shop.event.CategoryChangedEvent;
+import backend_service.shop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CategoryTreeSnapshot}. Local writes are applied to the snapshot
+ * after commit; a periodic full reload picks up writes made on other instances. Writes
+ * committed while a reload reads the table are applied again to the loaded snapshot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+
+    private final AtomicReference<CategoryTreeSnapshot> current = new AtomicReference<>();
+    private final Object reloadLock = new Object();
+    private final Object changeLock = new Object();
+
+    // Khác null trong lúc reload: thay đổi commit trong lúc đó, áp lại lên snapshot mới trước khi thay
+    private List<CategoryChangedEvent> changedDuringReload;
+
+    public CategoryTreeSnapshot get() {
+        CategoryTreeSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${category.tree.refresh-interval-ms:300000}",
+            initialDelayString = "${category.tree.refresh-interval-ms:300000}")
+    public void refresh() {
+        reload();
+    }
+
+    private CategoryTreeSnapshot reload() {
+        synchronized (reloadLock) {
+            long start = System.currentTimeMillis();
+            synchronized (changeLock) {
+                changedDuringReload = new ArrayList<>();
+            }
+
+            // Đọc từ primary: replica trễ có thể trả lại category cũ đè lên thay đổi vừa áp từ event
+            CategoryTreeSnapshot snapshot = CategoryTreeSnapshot.build(ReplicaRouting.onPrimary(categoryRepository::findAllNodes));
+
+            int replayed;
+            synchronized (changeLock) {
+                for (CategoryChangedEvent event : changedDuringReload) {
+                    snapshot = apply(snapshot, event);
+                }
+                replayed = changedDuringReload.size();
+                changedDuringReload = null;
+                current.set(snapshot);
+            }
+            log.info("Loaded category tree, size={}, replayed={}, took={}ms",
+                    snapshot.size(), replayed, System.currentTimeMillis() - start);
+            return snapshot;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        synchronized (changeLock) {
+            if (changedDuringReload != null) {
+                changedDuringReload.add(event);
+            }
+            CategoryTreeSnapshot snapshot = current.get();
+            if (snapshot != null) {
+                current.set(apply(snapshot, event));
+            }
+        }
+    }
+
+    private static CategoryTreeSnapshot apply(CategoryTreeSnapshot snapshot, CategoryChangedEvent event) {
+        return event.deleted() ? snapshot.without(event.categoryId()) : snapshot.with(event.node());
+    }
+}
@@ -0,0 +1,146 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.dto.response.CategoryTreeResponse;
+import java.util.*;
+
+/**
+ * Immutable view of the whole category tree, built from one flat list of rows.
+ * Changes never modify a snapshot; they produce a new one that replaces the old reference.
+ */
+public final class CategoryTreeSnapshot {
+
+    public static final CategoryTreeSnapshot EMPTY = build(List.of());
+
+    private final Map<Long, CategoryNode> nodes;
+    private final Map<Long, List<Long>> childIds;
+    private final List<Long> rootIds;
+    private final List<CategoryTreeResponse> roots;
+
+    private CategoryTreeSnapshot(Map<Long, CategoryNode> nodes) {
+        this.nodes = nodes;
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> rootIds = new ArrayList<>();
+        for (CategoryNode node : nodes.values()) {
+            // Node có parent không tồn tại (dữ liệu lỗi) được coi là root để không bị mất khỏi cây
+            if (node.parentId() == null || !nodes.containsKey(node.parentId())) {
+                rootIds.add(node.id());
+            } else {
+                children.computeIfAbsent(node.parentId(), k -> new ArrayList<>()).add(node.id());
+            }
+        }
+        children.values().forEach(Collections::sort);
+        Collections.sort(rootIds);
+        children.replaceAll((k, v) -> List.copyOf(v));
+        this.childIds = Map.copyOf(children);
+        this.rootIds = List.copyOf(rootIds);
+
+        Map<Long, CategoryTreeResponse> built = new HashMap<>(nodes.size() * 2);
+        this.roots = this.rootIds.stream().map(id -> toTree(id, built)).toList();
+    }
+
+    public static CategoryTreeSnapshot build(Collection<CategoryNode> rows) {
+        Map<Long, CategoryNode> nodes = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> nodes.put(row.id(), row));
+        return new CategoryTreeSnapshot(Collections.unmodifiableMap(nodes));
+    }
+
+    /**
+     * @param node created or updated category
+     * @return new snapshot containing the node
+     */
+    public CategoryTreeSnapshot with(CategoryNode node) {
+        Map<Long, CategoryNode> copy = new HashMap<>(nodes);
+        copy.put(node.id(), node);
+        return new CategoryTreeSnapshot(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Children are removed together with their parent (cascade on Category.children)
+     *
+     * @param id deleted category
+     * @return new snapshot without the category and its subtree
+     */
+    public CategoryTreeSnapshot without(Long id) {
+        if (!nodes.containsKey(id)) {
+            return this;
+        }
+        Map<Long, CategoryNode> copy = new HashMap<>(nodes);
+        subtreeIds(id).forEach(copy::remove);
+        return new CategoryTreeSnapshot(Collections.unmodifiableMap(copy));
+    }
+
+    public List<CategoryTreeResponse> roots() {
+        return roots;
+    }
+
+    public Optional<CategoryNode> get(Long id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    /**
+     * @param id
+     * @return nodes from the root down to the category itself, empty if the category is unknown
+     */
+    public List<CategoryNode> parentChain(Long id) {
+        LinkedList<CategoryNode> chain = new LinkedList<>();
+        CategoryNode node = nodes.get(id);
+        while (node != null && chain.size() <= nodes.size()) {
+            chain.addFirst(node);
+            node = node.parentId() != null ? nodes.get(node.parentId()) : null;
+        }
+        return List.copyOf(chain);
+    }
+
+    /**
+     * @param id null for the root categories
+     * @return direct children of the category, by id
+     */
+    public List<CategoryNode> children(Long id) {
+        return (id == null ? rootIds : childIds.getOrDefault(id, List.of())).stream()
+                .map(nodes::get)
+                .toList();
+    }
+
+    /**
+     * @param id
+     * @return the category and all of its descendants, empty if the category is unknown
+     */
+    public Set<Long> subtreeIds(Long id) {
+        if (!nodes.containsKey(id)) {
+            return Set.of();
+        }
+        Set<Long> result = new HashSet<>();
+        Deque<Long> stack = new ArrayDeque<>();
+        stack.push(id);
+        while (!stack.isEmpty()) {
+            Long current = stack.pop();
+            if (result.add(current)) {
+                childIds.getOrDefault(current, List.of()).forEach(stack::push);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    private CategoryTreeResponse toTree(Long id, Map<Long, CategoryTreeResponse> built) {
+        CategoryTreeResponse cached = built.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        CategoryNode node = nodes.get(id);
+        List<CategoryTreeResponse> children = childIds.getOrDefault(id, List.of()).stream()
+                .map(childId -> toTree(childId, built))
+                .toList();
+        CategoryTreeResponse tree = CategoryTreeResponse.builder()
+                .id(node.id())
+                .name(node.name())
+                .children(children)
+                .build();
+        built.put(id, tree);
+        return tree;
+    }
+}
@@ -0,0 +1,155 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.datasource.ReplicaRouting;
+import backend_service.shop.event.DiscountChangedEvent;
+import backend_service.shop.repository.DiscountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory catalog of the discounts that are active or upcoming, keyed by normalized code.
+ * Local writes are applied after commit, a periodic full reload picks up writes made on other
+ * instances, and the activation sweep moves rules across their window boundaries. Writes
+ * committed while a reload reads the table are applied again to the loaded catalog.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiscountCatalog {
+
+    private final DiscountRepository discountRepository;
+
+    private final AtomicReference<Catalog> current = new AtomicReference<>();
+    private final Object reloadLock = new Object();
+    private final Object changeLock = new Object();
+
+    // Khác null trong lúc reload: thay đổi commit trong lúc đó, áp lại lên catalog mới trước khi thay
+    private List<DiscountChangedEvent> changedDuringReload;
+
+    public Optional<DiscountRule> find(String code) {
+        Catalog catalog = current.get();
+        if (catalog == null) {
+            catalog = reload();
+        }
+        return Optional.ofNullable(catalog.byCode().get(DiscountRule.normalize(code)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${discount.catalog.refresh-interval-ms:60000}",
+            initialDelayString = "${discount.catalog.refresh-interval-ms:60000}")
+    public void refresh() {
+        reload();
+    }
+
+    private Catalog reload() {
+        synchronized (reloadLock) {
+            long start = System.currentTimeMillis();
+            synchronized (changeLock) {
+                changedDuringReload = new ArrayList<>();
+            }
+
+            // Đọc từ primary: replica trễ có thể trả lại discount cũ đè lên thay đổi vừa áp từ event
+            Catalog catalog = Catalog.build(ReplicaRouting.onPrimary(() ->
+                            discountRepository.findByEndDateIsNullOrEndDateGreaterThanEqual(LocalDateTime.now()))
+                    .stream()
+                    .map(DiscountRule::of)
+                    .toList(), start);
+
+            int replayed;
+            synchronized (changeLock) {
+                long now = System.currentTimeMillis();
+                for (DiscountChangedEvent event : changedDuringReload) {
+                    catalog = apply(catalog, event, now);
+                }
+                replayed = changedDuringReload.size();
+                changedDuringReload = null;
+                current.set(catalog);
+            }
+            log.info("Loaded discount catalog, size={}, replayed={}, took={}ms",
+                    catalog.byCode().size(), replayed, System.currentTimeMillis() - start);
+            return catalog;
+        }
+    }
+
+    /**
+     * Upcoming-activation scheduler: cheap no-op until the next start or end date in the catalog
+     * is reached, then drops expired rules and logs the ones that just became active
+     */
+    @Scheduled(fixedDelayString = "${discount.catalog.sweep-interval-ms:1000}")
+    public void sweep() {
+        Catalog catalog = current.get();
+        long now = System.currentTimeMillis();
+        if (catalog == null || now < catalog.nextTransition()) {
+            return;
+        }
+
+        catalog.byCode().values().stream()
+                .filter(rule -> rule.validFrom() > catalog.builtAt() && rule.validFrom() <= now)
+                .forEach(rule -> log.info("Discount activated. code={}, id={}", rule.code(), rule.id()));
+
+        current.compareAndSet(catalog, Catalog.build(catalog.byCode().values(), now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        synchronized (changeLock) {
+            if (changedDuringReload != null) {
+                changedDuringReload.add(event);
+            }
+            // sweep() thay catalog bằng compareAndSet nên không ghi đè được thay đổi này
+            Catalog catalog = current.get();
+            if (catalog != null) {
+                current.set(apply(catalog, event, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    private static Catalog apply(Catalog catalog, DiscountChangedEvent event, long now) {
+        Map<String, DiscountRule> byCode = new HashMap<>(catalog.byCode());
+        // Code có thể đã bị đổi nên xóa theo id
+        byCode.values().removeIf(rule -> rule.id().equals(event.discountId()));
+        if (!event.deleted()) {
+            byCode.put(DiscountRule.normalize(event.rule().code()), event.rule());
+        }
+        return Catalog.build(byCode.values(), now);
+    }
+
+    /**
+     * @param byCode         rules that are not expired at builtAt
+     * @param builtAt        epoch millis the catalog was built at
+     * @param nextTransition earliest start or end date after builtAt, Long.MAX_VALUE when there is none
+     */
+    private record Catalog(Map<String, DiscountRule> byCode, long builtAt, long nextTransition) {
+
+        static Catalog build(Collection<DiscountRule> rules, long now) {
+            Map<String, DiscountRule> byCode = new HashMap<>();
+            long nextTransition = Long.MAX_VALUE;
+            for (DiscountRule rule : rules) {
+                if (rule.validUntil() < now) {
+                    continue;
+                }
+                byCode.put(DiscountRule.normalize(rule.code()), rule);
+                if (rule.validFrom() > now) {
+                    nextTransition = Math.min(nextTransition, rule.validFrom());
+                }
+                if (rule.validUntil() != Long.MAX_VALUE) {
+                    nextTransition = Math.min(nextTransition, rule.validUntil() + 1);
+                }
+            }
+            return new Catalog(Map.copyOf(byCode), now, nextTransition);
+        }
+    }
+}
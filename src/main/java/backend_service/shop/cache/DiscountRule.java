@@ -0,0 +1,85 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.entity.Discount;
+import backend_service.shop.util.DiscountStatus;
+import backend_service.shop.util.DiscountType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Immutable copy of a tbl_discount row as held by {@link DiscountCatalog}.
+ * The validity window is kept as epoch millis so a check is two long comparisons.
+ *
+ * @param validFrom  start of the window, Long.MIN_VALUE when there is no start date
+ * @param validUntil end of the window, Long.MAX_VALUE when there is no end date
+ * @param enabled    false when the discount was switched off by an admin
+ */
+public record DiscountRule(Long id,
+                           String code,
+                           DiscountType discountType,
+                           BigDecimal value,
+                           Integer maxUses,
+                           Integer maxUsesPerUser,
+                           BigDecimal minOrderAmount,
+                           LocalDateTime startDate,
+                           LocalDateTime endDate,
+                           @JsonIgnore long validFrom,
+                           @JsonIgnore long validUntil,
+                           @JsonIgnore boolean enabled) {
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    public static DiscountRule of(Discount discount) {
+        return new DiscountRule(
+                discount.getId(),
+                discount.getCode(),
+                discount.getDiscountType(),
+                discount.getValue(),
+                discount.getMaxUses(),
+                discount.getMaxUsesPerUser(),
+                discount.getMinOrderAmount(),
+                discount.getStartDate(),
+                discount.getEndDate(),
+                discount.getStartDate() != null ? toEpochMilli(discount.getStartDate()) : Long.MIN_VALUE,
+                discount.getEndDate() != null ? toEpochMilli(discount.getEndDate()) : Long.MAX_VALUE,
+                discount.getStatus() != DiscountStatus.INACTIVE);
+    }
+
+    /**
+     * Codes are matched case-insensitively and without surrounding spaces
+     */
+    public static String normalize(String code) {
+        return code == null ? null : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public boolean isValidAt(long now) {
+        return enabled && now >= validFrom && now <= validUntil;
+    }
+
+    public DiscountStatus statusAt(long now) {
+        if (!enabled) return DiscountStatus.INACTIVE;
+        if (now < validFrom) return DiscountStatus.UPCOMING;
+        if (now > validUntil) return DiscountStatus.EXPIRED;
+        return DiscountStatus.ACTIVE;
+    }
+
+    /**
+     * Amount taken off an order total, never more than the total itself
+     *
+     * @param totalPrice
+     * @return
+     */
+    public BigDecimal amountFor(BigDecimal totalPrice) {
+        BigDecimal amount = discountType == DiscountType.PERCENTAGE
+                ? totalPrice.multiply(value).divide(ONE_HUNDRED)
+                : value;
+        return amount.compareTo(totalPrice) > 0 ? totalPrice : amount;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
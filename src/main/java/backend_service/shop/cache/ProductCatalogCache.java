@@ -0,0 +1,106 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.datasource.ReplicaRouting;
+import backend_service.shop.dto.response.ProductResponse;
+import backend_service.shop.dto.response.system.PageResponse;
+import backend_service.shop.event.ProductChangedEvent;
+import backend_service.shop.event.StockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read model of the product catalog: ProductResponse by id and list pages by (page, size).
+ * Entries are dropped after a product write or an order's stock change commits; the TTL bounds
+ * staleness for writes made on other instances. For datasource.routing.max-lag-ms after a local write, entries are
+ * reloaded from the primary so a lagging replica cannot put the old product back for a whole TTL.
+ */
+@Slf4j
+@Component
+public class ProductCatalogCache {
+
+    private final Cache<Long, ProductResponse> products;
+    private final Cache<PageKey, PageResponse<List<ProductResponse>>> pages;
+    private final long primaryReadWindowNanos;
+
+    // System.nanoTime() đến lúc này thì nạp lại cache từ primary
+    private volatile long primaryReadsUntil = System.nanoTime();
+
+    public ProductCatalogCache(MeterRegistry meterRegistry,
+                               @Value("${product.cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${product.cache.max-size:10000}") long maxSize,
+                               @Value("${product.cache.max-pages:1000}") long maxPages,
+                               @Value("${datasource.routing.max-lag-ms:5000}") long maxReplicaLagMs) {
+        this.primaryReadWindowNanos = Duration.ofMillis(maxReplicaLagMs).toNanos();
+        this.products = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxPages)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "productById");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "productPage");
+    }
+
+    public ProductResponse getProduct(Long id, Function<Long, ProductResponse> loader) {
+        return products.get(id, key -> load(() -> loader.apply(key)));
+    }
+
+    public PageResponse<List<ProductResponse>> getPage(int page, int size, Supplier<PageResponse<List<ProductResponse>>> loader) {
+        return pages.get(new PageKey(page, size), key -> load(loader));
+    }
+
+    private <T> T load(Supplier<T> loader) {
+        return System.nanoTime() - primaryReadsUntil < 0 ? ReplicaRouting.onPrimary(loader) : loader.get();
+    }
+
+    /**
+     * An update only touches the pages that contain the product; a create or delete shifts
+     * the offset of every later row, so all pages are dropped.
+     *
+     * @param event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        primaryReadsUntil = System.nanoTime() + primaryReadWindowNanos;
+        products.invalidate(event.productId());
+
+        if (event.type() == ProductChangedEvent.Type.UPDATED) {
+            pages.asMap().entrySet().removeIf(entry -> entry.getValue().getItems().stream()
+                    .anyMatch(item -> event.productId().equals(item.getId())));
+        } else {
+            pages.invalidateAll();
+        }
+        log.debug("Product cache invalidated. productId={}, type={}", event.productId(), event.type());
+    }
+
+    /**
+     * Orders change the stock shown in cached products: drop them and the pages that contain them
+     *
+     * @param event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        primaryReadsUntil = System.nanoTime() + primaryReadWindowNanos;
+        products.invalidateAll(event.productIds());
+        pages.asMap().entrySet().removeIf(entry -> entry.getValue().getItems().stream()
+                .anyMatch(item -> event.productIds().contains(item.getId())));
+        log.debug("Product cache invalidated on stock change. productIds={}", event.productIds());
+    }
+
+    private record PageKey(int page, int size) {
+    }
+}
@@ -0,0 +1,59 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.util.TokenHashUtil;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked tokens, keyed by the first 64 bits of their SHA-256.
+ * A miss means the token is not revoked; a hit may be a digest collision and has to be
+ * confirmed against tbl_blacklisted_token.
+ */
+@Component
+public class TokenRevocationCache {
+
+    // digest -> thời điểm token hết hạn (epoch millis)
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    public void add(String token, LocalDateTime expiredAt) {
+        long expiresAt = expiredAt == null ? Long.MAX_VALUE : toEpochMillis(expiredAt);
+        revoked.merge(TokenHashUtil.digest64(token), expiresAt, Math::max);
+    }
+
+    public boolean mightContain(String token) {
+        long digest = TokenHashUtil.digest64(token);
+        Long expiresAt = revoked.get(digest);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            // Token đã hết hạn thì JWT tự bị từ chối, không cần giữ trong blacklist nữa
+            revoked.remove(digest, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remove every entry whose token has already expired
+     *
+     * @return number of removed entries
+     */
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        return before - revoked.size();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,62 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.datasource.ReplicaRouting;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.service.AuthService.UserAuthSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of user status/roles by username.
+ * Entries are dropped by UserServiceImpl when a user changes; the TTL bounds staleness
+ * for changes made on other instances.
+ */
+@Component
+public class UserAuthCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<UserAuthSnapshot>> snapshots;
+
+    public UserAuthCache(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${jwt.user-snapshot.ttl-seconds:60}") long ttlSeconds,
+                         @Value("${jwt.user-snapshot.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "userAuth");
+    }
+
+    /**
+     * @param username
+     * @return snapshot, empty if the user no longer exists
+     */
+    public Optional<UserAuthSnapshot> get(String username) {
+        return snapshots.get(username, this::load);
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            snapshots.invalidate(username);
+        }
+    }
+
+    private Optional<UserAuthSnapshot> load(String username) {
+        // Khóa user / đổi role phải có hiệu lực ngay, không đọc từ replica có thể đang trễ
+        return ReplicaRouting.onPrimary(() -> userRepository.findStatusViewByUsername(username)
+                .map(view -> new UserAuthSnapshot(
+                        view.getId(),
+                        view.getUsername(),
+                        view.getUserStatus(),
+                        userRepository.findRoleNamesByUserId(view.getId()))));
+    }
+}
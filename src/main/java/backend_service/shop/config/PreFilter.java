@@ -1,9 +1,12 @@
 package backend_service.shop.config;
 
+import backend_service.shop.cache.UserAuthCache;
 import backend_service.shop.exception.TokenBlacklistedException;
 import backend_service.shop.service.AuthService.BlacklistedTokenService;
 import backend_service.shop.service.AuthService.CustomUserDetailsService;
+import backend_service.shop.service.AuthService.JwtPrincipal;
 import backend_service.shop.service.AuthService.JwtService;
+import backend_service.shop.service.AuthService.TokenClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,13 +29,19 @@ public class PreFilter extends OncePerRequestFilter {
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtService jwtService;
     private final BlacklistedTokenService blacklistedTokenService;
+    private final UserAuthCache userAuthCache;
+    private final boolean statelessPrincipal;
 
     public PreFilter(CustomUserDetailsService customUserDetailsService,
                      JwtService jwtService,
-                     BlacklistedTokenService blacklistedTokenService) {
+                     BlacklistedTokenService blacklistedTokenService,
+                     UserAuthCache userAuthCache,
+                     boolean statelessPrincipal) {
         this.customUserDetailsService = customUserDetailsService;
         this.jwtService = jwtService;
         this.blacklistedTokenService = blacklistedTokenService;
+        this.userAuthCache = userAuthCache;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -54,11 +63,14 @@ public class PreFilter extends OncePerRequestFilter {
             throw new TokenBlacklistedException("Token has been invalidated. Please login again.");
         }
 
-        final String userName = jwtService.extractUsername(token, ACCESS_TOKEN);
+        // Verify token 1 lần, các bước sau chỉ dùng lại claims
+        final TokenClaims claims = jwtService.parseToken(token, ACCESS_TOKEN);
+        final String userName = claims.getUsername();
 
         if (StringUtils.isNotEmpty(userName) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(userName);
-            if (jwtService.isValid(token, ACCESS_TOKEN, userDetails)) {
+            UserDetails userDetails = loadPrincipal(claims);
+            if (userDetails != null && userName.equals(userDetails.getUsername())
+                    && userDetails.isAccountNonLocked() && !claims.isExpired()) {
                 SecurityContext context = SecurityContextHolder.createEmptyContext();
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -70,4 +82,23 @@ public class PreFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Build the principal from token claims + cached user snapshot when enabled,
+     * otherwise (or for tokens issued before the claims existed) load the User entity
+     *
+     * @param claims
+     * @return principal, null if the user no longer exists
+     */
+    private UserDetails loadPrincipal(TokenClaims claims) {
+        if (!statelessPrincipal || claims.getUserId() == null) {
+            return customUserDetailsService.loadUserByUsername(claims.getUsername());
+        }
+
+        return userAuthCache.get(claims.getUsername())
+                // username có thể đã được gán cho user khác
+                .filter(snapshot -> snapshot.getUserId().equals(claims.getUserId()))
+                .map(JwtPrincipal::new)
+                .orElse(null);
+    }
 }
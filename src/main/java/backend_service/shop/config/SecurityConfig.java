@@ -1,5 +1,6 @@
 package backend_service.shop.config;
 
+import backend_service.shop.cache.UserAuthCache;
 import backend_service.shop.helper.OAuth2AuthenticationSuccessHandler;
 import backend_service.shop.service.AuthService.BlacklistedTokenService;
 import backend_service.shop.service.AuthService.CustomOAuth2UserService;
@@ -8,6 +9,7 @@ import backend_service.shop.service.AuthService.JwtService;
 import backend_service.shop.service.UserService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -39,6 +41,10 @@ public class SecurityConfig {
     private final BlacklistedTokenService blacklistedTokenService;
     private final CustomOAuth2UserService customOAuth2UserService;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
+    private final UserAuthCache userAuthCache;
+
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
 
     private final String[] WHITE_LIST = {
             "/auth/**",
@@ -68,7 +74,7 @@ public class SecurityConfig {
 
     @Bean
     public PreFilter preFilter() {
-        return new PreFilter(customUserDetailsService, jwtService, blacklistedTokenService);
+        return new PreFilter(customUserDetailsService, jwtService, blacklistedTokenService, userAuthCache, statelessPrincipal);
     }
 
     @Bean
@@ -93,11 +93,16 @@ public class CategoryController {
     @Operation(summary = "Get paginated list of categories", description = "Send a request to get category list by pageNo and pageSize")
     @GetMapping("/list")
     public ResponseData<?> getAllCategories(@RequestParam(defaultValue = "0") int page,
-                                            @RequestParam(defaultValue = "20") @Min(1) int size) {
+                                            @RequestParam(defaultValue = "20") @Min(1) int size,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(defaultValue = "false") boolean seek,
+                                            @RequestParam(defaultValue = "false") boolean withTotal) {
         log.info("Request to get category list: page={}, size={}", page, size);
 
         try {
-            PageResponse<?> response = categoryService.getListCategory(page, size);
+            PageResponse<?> response = seek || after != null
+                    ? categoryService.getListCategoryAfter(after, size, withTotal)
+                    : categoryService.getListCategory(page, size);
             return new ResponseData<>(HttpStatus.OK.value(), "Get category list successfully", response);
         } catch (Exception e) {
             log.error("Get category list failed: {}", e.getMessage(), e);
@@ -118,4 +123,18 @@ public class CategoryController {
             return new ResponseError(HttpStatus.BAD_REQUEST.value(), "Get category tree failed");
         }
     }
+
+    @Operation(summary = "Get category path", description = "Send a request to get parent chain of a category, from the root down to the category")
+    @GetMapping("/{categoryId}/path")
+    public ResponseData<?> getCategoryPath(@PathVariable @Min(1) Long categoryId) {
+        log.info("Request to get category path, categoryId={}", categoryId);
+
+        try {
+            List<CategoryResponse> response = categoryService.getCategoryPath(categoryId);
+            return new ResponseData<>(HttpStatus.OK.value(), "Get category path successfully", response);
+        } catch (Exception e) {
+            log.error("Get category path failed: {}", e.getMessage(), e);
+            return new ResponseError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        }
+    }
 }
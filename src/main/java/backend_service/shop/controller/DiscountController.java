@@ -76,9 +76,14 @@ public class DiscountController {
     @Operation(summary = "Get all discounts with pagination")
     @GetMapping("/list")
     public ResponseData<?> getAllDiscounts(@RequestParam(defaultValue = "0") int page,
-                                           @RequestParam(defaultValue = "20") @Min(1) int size) {
+                                           @RequestParam(defaultValue = "20") @Min(1) int size,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "false") boolean seek,
+                                           @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
-            PageResponse<?> response = discountService.getAll(page, size);
+            PageResponse<?> response = seek || after != null
+                    ? discountService.getAllAfter(after, size, withTotal)
+                    : discountService.getAll(page, size);
             return new ResponseData<>(HttpStatus.OK.value(), "Get all discounts successfully", response);
         } catch (Exception e) {
             log.error("Get all discounts failed: {}", e.getMessage(), e);
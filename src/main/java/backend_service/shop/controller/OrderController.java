@@ -5,16 +5,22 @@ import backend_service.shop.dto.response.OrderResponse;
 import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.dto.response.system.ResponseData;
 import backend_service.shop.dto.response.system.ResponseError;
+import backend_service.shop.service.OrderExportService;
 import backend_service.shop.service.OrderService;
+import backend_service.shop.util.ExportFormat;
 import backend_service.shop.util.OrderStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/order")
@@ -24,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
     @Operation(summary = "Create a new order", description = "Send a request to create a new order")
     @PostMapping("/create")
@@ -97,10 +104,15 @@ public class OrderController {
     @Operation(summary = "Get all orders with pagination", description = "Get paginated list of orders")
     @GetMapping("/list")
     public ResponseData<?> getAllOrder(@RequestParam(defaultValue = "0") int page,
-                                       @RequestParam(defaultValue = "20") @Min(1) int size) {
+                                       @RequestParam(defaultValue = "20") @Min(1) int size,
+                                       @RequestParam(required = false) String after,
+                                       @RequestParam(defaultValue = "false") boolean seek,
+                                       @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
 
-            PageResponse<?> response = orderService.getAllOrders(page, size);
+            PageResponse<?> response = seek || after != null
+                    ? orderService.getAllOrdersAfter(after, size, withTotal)
+                    : orderService.getAllOrders(page, size);
 
             return new ResponseData<>(HttpStatus.OK.value(), "Get paginated orders", response);
         } catch (Exception e) {
@@ -109,4 +121,18 @@ public class OrderController {
         }
     }
 
+    @PreAuthorize("hasAuthority('admin')")
+    @Operation(summary = "Export all orders", description = "Stream every order with its lines as CSV or NDJSON")
+    @GetMapping("/export")
+    public void exportOrders(@RequestParam(defaultValue = "CSV") ExportFormat format,
+                             HttpServletResponse response) throws IOException {
+        log.info("Request export orders, format={}", format);
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=orders." + (format == ExportFormat.CSV ? "csv" : "ndjson"));
+        response.setContentType(format == ExportFormat.CSV ? "text/csv" : "application/x-ndjson");
+        // Ghi ngay trên thread của request: StreamingResponseBody chạy async và bị cắt ở async timeout (Tomcat mặc định 30s)
+        orderExportService.exportOrders(format, response.getOutputStream());
+    }
+
 }
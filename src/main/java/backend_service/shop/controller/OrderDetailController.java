@@ -6,6 +6,7 @@ import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.dto.response.system.ResponseData;
 import backend_service.shop.dto.response.system.ResponseError;
 import backend_service.shop.service.OrderDetailService;
+import backend_service.shop.util.SalesWindow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Min;
@@ -51,9 +52,14 @@ public class OrderDetailController {
     @Operation(summary = "Admin: Get all order details with pagination")
     @GetMapping("/list")
     public ResponseData<?> getAllOrderDetails(@RequestParam(defaultValue = "0") int page,
-                                              @RequestParam(defaultValue = "20") @Min(1) int size) {
+                                              @RequestParam(defaultValue = "20") @Min(1) int size,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "false") boolean seek,
+                                              @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
-            PageResponse<?> response = orderDetailService.getAllOrderDetails(page, size);
+            PageResponse<?> response = seek || after != null
+                    ? orderDetailService.getAllOrderDetailsAfter(after, size, withTotal)
+                    : orderDetailService.getAllOrderDetails(page, size);
             return new ResponseData<>(HttpStatus.OK.value(), "Get all order details successfully", response);
         } catch (Exception e) {
             log.error("Failed to get all order details. error={}", e.getMessage(), e);
@@ -61,11 +67,12 @@ public class OrderDetailController {
         }
     }
 
-    @Operation(summary = "Get top selling products", description = "Returns a list of top selling products")
+    @Operation(summary = "Get top selling products", description = "Returns a list of top selling products over TODAY, LAST_7_DAYS, LAST_30_DAYS or ALL_TIME")
     @GetMapping("/top-selling")
-    public ResponseData<?> getTopSellingProducts(@RequestParam(defaultValue = "5") @Min(1) int limit) {
+    public ResponseData<?> getTopSellingProducts(@RequestParam(defaultValue = "5") @Min(1) int limit,
+                                                 @RequestParam(defaultValue = "ALL_TIME") SalesWindow window) {
         try {
-            List<ProductSalesReport> reports = orderDetailService.getTopSellingProducts(limit);
+            List<ProductSalesReport> reports = orderDetailService.getTopSellingProducts(window, limit);
             return new ResponseData<>(HttpStatus.OK.value(), "Get top selling products successfully", reports);
         } catch (Exception e) {
             log.error("Failed to get top selling products. error={}", e.getMessage(), e);
@@ -1,22 +1,32 @@
 package backend_service.shop.controller;
 
+import backend_service.shop.dto.request.ProductFilterRequest;
 import backend_service.shop.dto.request.ProductRequestDTO;
+import backend_service.shop.dto.response.ProductFacetResponse;
 import backend_service.shop.dto.response.ProductResponse;
+import backend_service.shop.dto.response.ProductSearchHit;
 import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.dto.response.system.ResponseData;
 import backend_service.shop.dto.response.system.ResponseError;
+import backend_service.shop.search.ProductSearchQuery;
 import backend_service.shop.service.ProductService;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/product")
@@ -92,15 +102,84 @@ public class ProductController {
     @Operation(summary = "Get paginated product list", description = "Send a request to get paginated product list")
     @GetMapping("/list")
     public ResponseData<?> getAllProducts(@RequestParam(defaultValue = "0") int page,
-                                          @RequestParam(defaultValue = "20") @Min(1) int size) {
+                                          @RequestParam(defaultValue = "20") @Min(1) int size,
+                                          @RequestParam(required = false) String after,
+                                          @RequestParam(defaultValue = "false") boolean seek,
+                                          @RequestParam(defaultValue = "false") boolean withTotal) {
         log.info("Request to get product list: page={}, size={}", page, size);
 
         try {
-            PageResponse<?> response = productService.getListProduct(page, size);
+            PageResponse<?> response = seek || after != null
+                    ? productService.getListProductAfter(after, size, withTotal)
+                    : productService.getListProduct(page, size);
             return new ResponseData<>(HttpStatus.OK.value(), "Get product list successfully", response);
         } catch (Exception e) {
             log.error("Get product list failed: {}", e.getMessage(), e);
             return new ResponseError(HttpStatus.BAD_REQUEST.value(), "Get product list failed");
         }
     }
+
+    @Operation(summary = "Search products", description = "Full-text search over name, description, sku and category, accents optional")
+    @GetMapping("/search")
+    public ResponseData<?> searchProducts(@RequestParam @NotBlank String q,
+                                          @RequestParam(required = false) ProductStatus status,
+                                          @RequestParam(required = false) ProductTag tag,
+                                          @RequestParam(required = false) BigDecimal minPrice,
+                                          @RequestParam(required = false) BigDecimal maxPrice,
+                                          @RequestParam(defaultValue = "false") boolean prefix,
+                                          // Trang cuối với size tối đa vẫn nằm trong MAX_RESULT_WINDOW
+                                          @RequestParam(defaultValue = "0") @Min(0) @Max(ProductSearchQuery.MAX_RESULT_WINDOW / 100 - 1) int page,
+                                          @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        log.info("Request to search products: q={}, page={}, size={}", q, page, size);
+
+        try {
+            PageResponse<?> response = productService.searchProducts(
+                    new ProductSearchQuery(q, prefix, status, tag, minPrice, maxPrice, page * size, size));
+            return new ResponseData<>(HttpStatus.OK.value(), "Search products successfully", response);
+        } catch (Exception e) {
+            log.error("Search products failed: {}", e.getMessage(), e);
+            return new ResponseError(HttpStatus.BAD_REQUEST.value(), "Search products failed");
+        }
+    }
+
+    @Operation(summary = "Suggest products", description = "Typeahead: active products matching the words typed so far, the last one as a prefix")
+    @GetMapping("/suggest")
+    public ResponseData<?> suggestProducts(@RequestParam @NotBlank String q,
+                                           @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        try {
+            List<ProductSearchHit> response = productService.suggestProducts(q, limit);
+            return new ResponseData<>(HttpStatus.OK.value(), "Suggest products successfully", response);
+        } catch (Exception e) {
+            log.error("Suggest products failed: {}", e.getMessage(), e);
+            return new ResponseError(HttpStatus.BAD_REQUEST.value(), "Suggest products failed");
+        }
+    }
+
+    @Operation(summary = "Filter products", description = "Filter by category subtree, status, tag, price band and stock, with the count of every facet value")
+    @GetMapping("/filter")
+    public ResponseData<?> filterProducts(@RequestParam(required = false) @Min(1) Long categoryId,
+                                          @RequestParam(required = false) Set<ProductStatus> status,
+                                          @RequestParam(required = false) Set<ProductTag> tag,
+                                          @RequestParam(required = false) Set<Integer> priceBand,
+                                          @RequestParam(required = false) Boolean inStock,
+                                          @RequestParam(defaultValue = "0") @Min(0) int page,
+                                          @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        log.info("Request to filter products: categoryId={}, page={}, size={}", categoryId, page, size);
+
+        try {
+            ProductFacetResponse response = productService.filterProducts(ProductFilterRequest.builder()
+                    .categoryId(categoryId)
+                    .statuses(status)
+                    .tags(tag)
+                    .priceBands(priceBand)
+                    .inStock(inStock)
+                    .page(page)
+                    .size(size)
+                    .build());
+            return new ResponseData<>(HttpStatus.OK.value(), "Filter products successfully", response);
+        } catch (Exception e) {
+            log.error("Filter products failed: {}", e.getMessage(), e);
+            return new ResponseError(HttpStatus.BAD_REQUEST.value(), "Filter products failed");
+        }
+    }
 }
@@ -103,12 +103,17 @@ public class UserController {
     @Operation(summary = "Get list of users per pageNo", description = "Send a request via this API to get user list by pageNo and pageSize")
     @GetMapping("/list")
     public ResponseData<?> getAllUsers(@RequestParam(defaultValue = "0", required = false) int pageNo,
-                                       @Min(10) @RequestParam(defaultValue = "20", required = false) int pageSize) {
+                                       @Min(10) @RequestParam(defaultValue = "20", required = false) int pageSize,
+                                       @RequestParam(required = false) String after,
+                                       @RequestParam(defaultValue = "false") boolean seek,
+                                       @RequestParam(defaultValue = "false") boolean withTotal) {
         log.info("Request get list user");
 
         try {
 
-            PageResponse<?> users = userService.getAllUsers(pageNo, pageSize);
+            PageResponse<?> users = seek || after != null
+                    ? userService.getAllUsersAfter(after, pageSize, withTotal)
+                    : userService.getAllUsers(pageNo, pageSize);
             return new ResponseData<>(HttpStatus.OK.value(), "Get list user per page", users);
 
         } catch (Exception e) {
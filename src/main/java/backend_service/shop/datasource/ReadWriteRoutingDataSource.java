@@ -0,0 +1,70 @@
+package backend_service.shop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections to @Transactional(readOnly = true) work and primary connections
+ * to everything else. Falls back to the primary when no replica is healthy or the picked one fails.
+ * <p>
+ * The read-only flag is only known once the transaction has begun, after JPA has asked for its
+ * connection, so this must sit behind a LazyConnectionDataSourceProxy.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaSet replicaSet;
+
+    public ReadWriteRoutingDataSource(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReplicaRouting.isPrimaryOnly()) {
+            ReplicaSet.Replica replica = replicaSet.pick();
+            if (replica != null) {
+                try {
+                    return source.get(replica.dataSource());
+                } catch (SQLException e) {
+                    // Lag monitor sẽ bật lại replica khi nó truy cập được và bắt kịp primary
+                    replica.markDown();
+                    log.warn("Replica {} is unavailable, reading from primary: {}", replica.name(), e.getMessage());
+                }
+            }
+        }
+        return source.get(replicaSet.primary());
+    }
+
+    /**
+     * Unwrapping goes to the primary pool, e.g. for HikariCP pool metrics
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : replicaSet.primary().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || replicaSet.primary().isWrapperFor(iface);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,77 @@
+package backend_service.shop.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Replica-lag guard. Writes a heartbeat (tbl_replica_heartbeat) on the primary, reads it back on
+ * each replica and takes the replica out of rotation while its copy is older than
+ * datasource.routing.max-lag-ms or it cannot be reached. Lag is measured to within one check interval.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String UPDATE_BEAT = "UPDATE tbl_replica_heartbeat SET beat_millis = ? WHERE id = 1";
+    private static final String INSERT_BEAT = "INSERT INTO tbl_replica_heartbeat (id, beat_millis) VALUES (1, ?)";
+    private static final String SELECT_BEAT = "SELECT beat_millis FROM tbl_replica_heartbeat WHERE id = 1";
+
+    private final ReplicaSet replicaSet;
+    private final long maxLagMs;
+    private final JdbcTemplate primary;
+
+    public ReplicaLagMonitor(ReplicaSet replicaSet, long maxLagMs, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        this.maxLagMs = maxLagMs;
+        this.primary = new JdbcTemplate(replicaSet.primary());
+        for (ReplicaSet.Replica replica : replicaSet.replicas()) {
+            Gauge.builder("shop.db.replica.lag", replica, ReplicaSet.Replica::lagMillis)
+                    .description("Age of the primary heartbeat as seen on the replica, -1 when unknown")
+                    .tag("replica", replica.name())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("shop.db.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("1 when read-only transactions may use the replica")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.lag-check-interval-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update(UPDATE_BEAT, now) == 0) {
+                primary.update(INSERT_BEAT, now);
+            }
+        } catch (DataAccessException e) {
+            // Không ghi được heartbeat thì lag trên replica tự tăng dần, replica sẽ bị loại khi vượt ngưỡng
+            log.warn("Could not write replica heartbeat on primary: {}", e.getMessage());
+        }
+
+        replicaSet.replicas().forEach(replica -> check(replica, now));
+    }
+
+    private void check(ReplicaSet.Replica replica, long now) {
+        boolean wasHealthy = replica.isHealthy();
+        try {
+            Long beat = new JdbcTemplate(replica.dataSource()).queryForObject(SELECT_BEAT, Long.class);
+            long lag = Math.max(now - beat, 0);
+            replica.update(lag <= maxLagMs, lag);
+        } catch (DataAccessException e) {
+            replica.markDown();
+        }
+
+        if (wasHealthy != replica.isHealthy()) {
+            if (replica.isHealthy()) {
+                log.info("Replica {} is back in rotation, lag={}ms", replica.name(), replica.lagMillis());
+            } else {
+                log.warn("Replica {} taken out of rotation, lag={}ms (max {}ms, -1 = unreachable)",
+                        replica.name(), replica.lagMillis(), maxLagMs);
+            }
+        }
+    }
+}
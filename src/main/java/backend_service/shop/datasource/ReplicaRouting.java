@@ -0,0 +1,31 @@
+package backend_service.shop.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the reads of a block of code to the primary, for callers that must see their own
+ * writes even when a replica is a little behind (e.g. refilling a cache right after an eviction)
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+}
@@ -0,0 +1,77 @@
+package backend_service.shop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with primary + replica pools behind a
+ * {@link ReadWriteRoutingDataSource}, when datasource.routing.enabled=true.
+ * The pools themselves are not beans: the metrics proxy is applied once, behind the lazy proxy,
+ * and sees the connections of every pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(DataSourceProperties dataSourceProperties,
+                                 ReplicaRoutingProperties routingProperties,
+                                 MeterRegistry meterRegistry,
+                                 Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (!StringUtils.hasText(primary.getPoolName())) {
+            primary.setPoolName("primary");
+        }
+
+        List<ReplicaSet.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < routingProperties.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica properties = routingProperties.getReplicas().get(i);
+            String name = StringUtils.hasText(properties.getName()) ? properties.getName() : "replica-" + (i + 1);
+
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(properties.getUrl());
+            replica.setUsername(properties.getUsername());
+            replica.setPassword(properties.getPassword());
+            replica.setDriverClassName(StringUtils.hasText(properties.getDriverClassName())
+                    ? properties.getDriverClassName() : dataSourceProperties.determineDriverClassName());
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setConnectionTimeout(properties.getConnectionTimeoutMs());
+            // Ghi nhầm vào replica sẽ lỗi ngay thay vì làm lệch dữ liệu
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaSet.Replica(name, replica));
+        }
+        return new ReplicaSet(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaSet replicaSet) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(replicaSet));
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaSet replicaSet,
+                                               ReplicaRoutingProperties routingProperties,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaSet, routingProperties.getMaxLagMs(), meterRegistry);
+    }
+}
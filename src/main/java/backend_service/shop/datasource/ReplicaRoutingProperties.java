@@ -0,0 +1,48 @@
+package backend_service.shop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * datasource.routing.*: read replicas used by read-only transactions. The primary stays
+ * configured by spring.datasource.* and spring.datasource.hikari.*
+ */
+@Getter
+@Setter
+@ConfigurationProperties("datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled;
+
+    /**
+     * Replicas further behind the primary than this are not read from
+     */
+    private long maxLagMs = 5000;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+
+        /**
+         * Defaults to the driver of the primary
+         */
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+
+        /**
+         * Kept short: a replica that cannot hand out a connection quickly is skipped for the primary
+         */
+        private long connectionTimeoutMs = 2000;
+    }
+}
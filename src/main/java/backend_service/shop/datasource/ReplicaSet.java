@@ -0,0 +1,106 @@
+package backend_service.shop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The primary pool and the replica pools, with the health of each replica as last seen by
+ * {@link ReplicaLagMonitor}. A replica starts unhealthy, so nothing is read from it before its lag is known.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Round robin over the healthy replicas
+     *
+     * @return null when no replica is healthy
+     */
+    Replica pick() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource()));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Could not close data source {}", dataSource, e);
+            }
+        }
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        // -1: chưa đo được (replica không truy cập được hoặc chưa có heartbeat)
+        private volatile long lagMillis = -1;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long lagMillis() {
+            return lagMillis;
+        }
+
+        void update(boolean healthy, long lagMillis) {
+            this.healthy = healthy;
+            this.lagMillis = lagMillis;
+        }
+
+        void markDown() {
+            update(false, -1);
+        }
+    }
+}
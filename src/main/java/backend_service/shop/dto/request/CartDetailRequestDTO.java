@@ -1,5 +1,7 @@
 package backend_service.shop.dto.request;
 
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import java.io.Serializable;
 
@@ -9,6 +11,10 @@ import java.io.Serializable;
 @AllArgsConstructor
 @Builder
 public class CartDetailRequestDTO implements Serializable {
+    @NotNull(message = "productId must be not null")
     private Long productId;
+
+    @NotNull(message = "quantity must be not null")
+    @Min(value = 1, message = "quantity must be greater than 0")
     private Integer quantity;
 }
@@ -2,6 +2,7 @@ package backend_service.shop.dto.request;
 
 import backend_service.shop.entity.Discount;
 import backend_service.shop.util.PaymentMethod;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -26,5 +27,5 @@ public class OrderRequestDTO implements Serializable {
 
     private String discountCode;
 
-    private List<OrderDetailRequestDTO> orderDetails;
+    private List<@Valid OrderDetailRequestDTO> orderDetails;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package backend_service.shop.dto.request;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import lombok.*;
+import java.io.Serializable;
+import java.util.Set;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFilterRequest implements Serializable {
+    // Lọc cả cây con của category, null là mọi category
+    private Long categoryId;
+
+    private Set<ProductStatus> statuses;
+
+    private Set<ProductTag> tags;
+
+    // Chỉ số band trong facet.index.price-bands
+    private Set<Integer> priceBands;
+
+    private Boolean inStock;
+
+    private int page;
+
+    private int size;
+}
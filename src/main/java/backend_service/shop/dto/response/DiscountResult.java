@@ -1,6 +1,6 @@
 package backend_service.shop.dto.response;
 
-import backend_service.shop.entity.Discount;
+import backend_service.shop.cache.DiscountRule;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import java.math.BigDecimal;
@@ -8,6 +8,6 @@ import java.math.BigDecimal;
 @Getter
 @AllArgsConstructor
 public class DiscountResult {
-    private final Discount discount;
+    private final DiscountRule discount;
     private final BigDecimal discountAmount;
 }
@@ -0,0 +1,20 @@
+package backend_service.shop.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import java.io.Serializable;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FacetCount implements Serializable {
+    // Giá trị gửi lại khi chọn facet: id category, tên enum, chỉ số price band, true/false
+    private String value;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String label;
+
+    private long count;
+}
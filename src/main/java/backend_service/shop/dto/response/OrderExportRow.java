@@ -0,0 +1,28 @@
+package backend_service.shop.dto.response;
+
+import backend_service.shop.util.OrderStatus;
+import backend_service.shop.util.PaymentMethod;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order line of the export, joined with its order. Orders without lines come
+ * as a single row with null line columns.
+ */
+public record OrderExportRow(Long orderId,
+                             LocalDateTime createdAt,
+                             Long userId,
+                             OrderStatus status,
+                             PaymentMethod paymentMethod,
+                             Integer totalQuantity,
+                             BigDecimal totalPrice,
+                             String discountCode,
+                             BigDecimal discountAmount,
+                             BigDecimal finalPrice,
+                             Long detailId,
+                             Long productId,
+                             String productName,
+                             Integer quantity,
+                             BigDecimal unitPrice,
+                             BigDecimal lineTotal) {
+}
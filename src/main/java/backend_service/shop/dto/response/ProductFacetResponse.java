@@ -0,0 +1,24 @@
+package backend_service.shop.dto.response;
+
+import lombok.*;
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductFacetResponse implements Serializable {
+    private int page;
+    private int size;
+    private long totalItems;
+    private List<ProductResponse> items;
+
+    // Mỗi giá trị đếm theo bộ lọc của các facet khác, không tính facet của chính nó
+    private List<FacetCount> categories;
+    private List<FacetCount> statuses;
+    private List<FacetCount> tags;
+    private List<FacetCount> priceBands;
+    private List<FacetCount> stock;
+}
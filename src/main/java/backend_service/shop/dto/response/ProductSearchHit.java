@@ -0,0 +1,26 @@
+package backend_service.shop.dto.response;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import lombok.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSearchHit implements Serializable {
+    private Long id;
+    private String name;
+    private String sku;
+    private BigDecimal price;
+    private BigDecimal salePrice;
+    private String thumbnail;
+    private ProductStatus status;
+    private ProductTag tag;
+    private Long categoryId;
+    private String categoryName;
+    private float score;
+}
@@ -1,5 +1,6 @@
 package backend_service.shop.dto.response.system;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 import java.io.Serializable;
@@ -9,6 +10,40 @@ import java.io.Serializable;
 public class PageResponse<T> implements Serializable {
     private int page;
     private int size;
-    private long total;
+
+    // Số trang, chỉ có ở offset mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+
+    // Số bản ghi (hoặc số kết quả search); null khi client bỏ qua COUNT (keyset mode, withTotal=false)
+    // hoặc khi index search ngừng đếm
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalItems;
+
     private T items;
+
+    // Chỉ có ở keyset mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasNext;
+
+    public static class PageResponseBuilder<T> {
+
+        public PageResponseBuilder<T> total(long total) {
+            this.total = total;
+            return this;
+        }
+
+        public PageResponseBuilder<T> totalItems(long totalItems) {
+            this.totalItems = totalItems;
+            return this;
+        }
+
+        public PageResponseBuilder<T> totalItems(Long totalItems) {
+            this.totalItems = totalItems;
+            return this;
+        }
+    }
 }
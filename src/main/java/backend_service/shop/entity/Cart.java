@@ -11,7 +11,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "Cart")
-@Table(name = "tbl_cart")
+@Table(name = "tbl_cart", indexes = @Index(name = "idx_cart_created_at_id", columnList = "created_at, id"))
 public class Cart extends AbstractEntity<Long> {
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -10,7 +10,8 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "CartDetail")
-@Table(name = "tbl_cart_detail")
+@Table(name = "tbl_cart_detail",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cart_detail_cart_product", columnNames = {"cart_id", "product_id"}))
 public class CartDetail extends AbstractEntity<Long> {
 
     //Join to table product
@@ -12,7 +12,7 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "Category")
-@Table(name = "tbl_category")
+@Table(name = "tbl_category", indexes = @Index(name = "idx_category_created_at_id", columnList = "created_at, id"))
 public class Category extends AbstractEntity<Long> {
 
     @Column(nullable = false, unique = true, length = 100)
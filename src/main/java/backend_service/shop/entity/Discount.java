@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "Discount")
-@Table(name = "tbl_discount")
+@Table(name = "tbl_discount", indexes = @Index(name = "idx_discount_created_at_id", columnList = "created_at, id"))
 public class Discount extends AbstractEntity<Long> {
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,29 @@
+package backend_service.shop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Number of times a user has redeemed a discount, so the per-user limit is checked
+ * with a conditional update instead of a COUNT over tbl_discount_usage.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "DiscountUserCounter")
+@Table(name = "tbl_discount_user_counter",
+        uniqueConstraints = @UniqueConstraint(name = "uk_discount_user_counter", columnNames = {"discount_id", "user_id"}))
+public class DiscountUserCounter extends AbstractEntity<Long> {
+
+    @Column(name = "discount_id", nullable = false)
+    private Long discountId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "used_count", nullable = false)
+    private Integer usedCount;
+
+}
@@ -0,0 +1,34 @@
+package backend_service.shop.entity;
+
+import backend_service.shop.util.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "InvoiceOutbox")
+@Table(name = "tbl_invoice_outbox",
+        indexes = @Index(name = "idx_invoice_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+public class InvoiceOutbox extends AbstractEntity<Long> {
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+}
@@ -0,0 +1,29 @@
+package backend_service.shop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One row per background job shared by all instances: a lease so a scheduled job runs on one
+ * instance only, and a row to lock (SELECT ... FOR UPDATE) so two steps of the job never overlap
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "JobLock")
+@Table(name = "tbl_job_lock")
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Epoch millis theo đồng hồ của app, hết hạn thì instance khác được nhận lease
+    @Column(name = "locked_until", nullable = false)
+    private Long lockedUntil;
+
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+}
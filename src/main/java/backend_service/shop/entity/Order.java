@@ -13,7 +13,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "Order")
-@Table(name = "tbl_order")
+@Table(name = "tbl_order", indexes = @Index(name = "idx_order_created_at_id", columnList = "created_at, id"))
 public class Order extends AbstractEntity<Long> {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -53,4 +53,10 @@ public class Order extends AbstractEntity<Long> {
     @Column(name = "final_price")
     private BigDecimal finalPrice;
 
+    // Các dòng của đơn đang nằm trong bộ đếm bán hàng (tbl_product_sales_*).
+    // Chỉ ProductSalesCounterRepository đổi cờ, cùng transaction với lần cộng/trừ; entity không ghi đè
+    @Column(name = "sales_counted", columnDefinition = "BIT", nullable = false, updatable = false)
+    @Builder.Default
+    private Boolean salesCounted = false;
+
 }
@@ -10,7 +10,7 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "OrderDetail")
-@Table(name = "tbl_order_detail")
+@Table(name = "tbl_order_detail", indexes = @Index(name = "idx_order_detail_created_at_id", columnList = "created_at, id"))
 public class OrderDetail extends AbstractEntity<Long> {
 
     // Mỗi dòng đơn hàng thuộc về 1 đơn hàng
@@ -14,7 +14,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "Product")
-@Table(name = "tbl_product")
+@Table(name = "tbl_product", indexes = @Index(name = "idx_product_created_at_id", columnList = "created_at, id"))
 public class Product extends AbstractEntity<Long> {
 
     @Column(nullable = false, unique = true, length = 150)
@@ -0,0 +1,36 @@
+package backend_service.shop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units sold and revenue of a product on one day (day of the order), kept up to date by the
+ * order transactions so the time-windowed top-selling report never scans tbl_order_detail.
+ * Cancelled orders are subtracted from the day they were placed.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "ProductSalesDaily")
+@Table(name = "tbl_product_sales_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_daily", columnNames = {"product_id", "sales_date"}),
+        indexes = @Index(name = "idx_product_sales_daily_date", columnList = "sales_date"))
+public class ProductSalesDaily extends AbstractEntity<Long> {
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+}
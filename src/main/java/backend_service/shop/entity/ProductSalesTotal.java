@@ -0,0 +1,30 @@
+package backend_service.shop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * All-time units sold and revenue of a product. The quantity index serves the all-time
+ * top-selling report as an index range scan of K rows.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "ProductSalesTotal")
+@Table(name = "tbl_product_sales_total",
+        indexes = @Index(name = "idx_product_sales_total_quantity", columnList = "quantity"))
+public class ProductSalesTotal extends AbstractEntity<Long> {
+
+    @Column(name = "product_id", nullable = false, unique = true)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+}
@@ -0,0 +1,25 @@
+package backend_service.shop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Single row written on the primary by ReplicaLagMonitor; how old it is when read back
+ * on a replica is that replica's lag
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "ReplicaHeartbeat")
+@Table(name = "tbl_replica_heartbeat")
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    // Epoch millis theo đồng hồ của app, không phụ thuộc timezone của DB
+    @Column(name = "beat_millis", nullable = false)
+    private Long beatMillis;
+
+}
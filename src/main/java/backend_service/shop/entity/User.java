@@ -20,7 +20,7 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "User")
-@Table(name = "tbl_user")
+@Table(name = "tbl_user", indexes = @Index(name = "idx_user_created_at_id", columnList = "created_at, id"))
 public class User extends AbstractEntity<Long> implements UserDetails {
 
     @Column(name = "first_name")
@@ -0,0 +1,16 @@
+package backend_service.shop.event;
+
+import backend_service.shop.cache.CategoryNode;
+
+/**
+ * Published by CategoryServiceImpl when a category is written, handled after the transaction commits.
+ *
+ * @param categoryId id of the changed category
+ * @param node       new state of the category, null when it was deleted
+ */
+public record CategoryChangedEvent(Long categoryId, CategoryNode node) {
+
+    public boolean deleted() {
+        return node == null;
+    }
+}
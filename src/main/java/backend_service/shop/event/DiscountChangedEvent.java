@@ -0,0 +1,16 @@
+package backend_service.shop.event;
+
+import backend_service.shop.cache.DiscountRule;
+
+/**
+ * Published by DiscountServiceImpl when a discount is written, handled after the transaction commits.
+ *
+ * @param discountId id of the changed discount
+ * @param rule       new state of the discount, null when it was deleted
+ */
+public record DiscountChangedEvent(Long discountId, DiscountRule rule) {
+
+    public boolean deleted() {
+        return rule == null;
+    }
+}
@@ -0,0 +1,9 @@
+package backend_service.shop.event;
+
+/**
+ * Published when an invoice outbox row is written, handled after the order transaction commits.
+ *
+ * @param outboxId id of the tbl_invoice_outbox row
+ */
+public record InvoiceRequestedEvent(Long outboxId) {
+}
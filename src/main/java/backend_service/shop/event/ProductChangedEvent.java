@@ -0,0 +1,14 @@
+package backend_service.shop.event;
+
+/**
+ * Published by ProductServiceImpl when a product is written, handled after the transaction commits.
+ *
+ * @param productId id of the changed product
+ * @param type      what happened to the product
+ */
+public record ProductChangedEvent(Long productId, Type type) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
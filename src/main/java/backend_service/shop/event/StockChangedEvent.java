@@ -0,0 +1,12 @@
+package backend_service.shop.event;
+
+import java.util.Collection;
+
+/**
+ * Published by InventoryServiceImpl when orders take or give back stock, handled after the transaction commits.
+ * Only the stock quantity changed; product writes publish {@link ProductChangedEvent} instead.
+ *
+ * @param productIds ids of the products whose stock changed
+ */
+public record StockChangedEvent(Collection<Long> productIds) {
+}
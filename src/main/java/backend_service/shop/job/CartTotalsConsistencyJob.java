@@ -0,0 +1,67 @@
+package backend_service.shop.job;
+
+import backend_service.shop.cache.CartStore;
+import backend_service.shop.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.List;
+
+/**
+ * Cart totals are maintained by delta on every mutation; this job recomputes them from the
+ * lines to detect and repair drift, first for the carts held by {@link CartStore}, then for
+ * the rows of tbl_cart that are not loaded.
+ */
+@Component
+@Slf4j
+public class CartTotalsConsistencyJob {
+
+    private final CartStore cartStore;
+    private final CartRepository cartRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter driftCounter;
+    private final int batchSize;
+
+    public CartTotalsConsistencyJob(CartStore cartStore,
+                                    CartRepository cartRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${cart.consistency.batch-size:500}") int batchSize) {
+        this.cartStore = cartStore;
+        this.cartRepository = cartRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName("CartTotalsConsistencyJob.check");
+        this.driftCounter = Counter.builder("cart.totals.drift")
+                .description("Carts whose totals had drifted from their lines and were repaired")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.consistency.check-interval-ms:600000}",
+            initialDelayString = "${cart.consistency.check-interval-ms:600000}")
+    public void check() {
+        List<Long> repairedInMemory = cartStore.repairTotals();
+        if (!repairedInMemory.isEmpty()) {
+            driftCounter.increment(repairedInMemory.size());
+            log.warn("Repaired drifted totals of loaded carts, cartIds={}", repairedInMemory);
+        }
+
+        // Giỏ đang nằm trong CartStore có thể chưa flush nên lệch với DB là bình thường, bỏ qua
+        List<Long> drifted = cartRepository.findIdsWithDriftedTotals(PageRequest.of(0, batchSize)).stream()
+                .filter(cartId -> !cartStore.isLoaded(cartId))
+                .toList();
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> cartRepository.recomputeTotals(drifted));
+        driftCounter.increment(drifted.size());
+        log.warn("Repaired drifted totals of stored carts, cartIds={}", drifted);
+    }
+}
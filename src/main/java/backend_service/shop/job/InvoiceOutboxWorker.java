@@ -0,0 +1,151 @@
+package backend_service.shop.job;
+
+import backend_service.shop.entity.InvoiceOutbox;
+import backend_service.shop.event.InvoiceRequestedEvent;
+import backend_service.shop.repository.InvoiceOutboxRepository;
+import backend_service.shop.service.InvoiceService;
+import backend_service.shop.tracing.SlowTraceRecorder;
+import backend_service.shop.tracing.SpanKind;
+import backend_service.shop.util.OutboxStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background worker of the invoice outbox (tbl_invoice_outbox).
+ * Entries are picked up right after the order commits and, as a fallback, by a poller
+ * that also retries failed entries with exponential backoff.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InvoiceOutboxWorker {
+
+    private static final List<OutboxStatus> CLAIMABLE = List.of(OutboxStatus.PENDING, OutboxStatus.PROCESSING);
+
+    private final InvoiceOutboxRepository invoiceOutboxRepository;
+    private final InvoiceService invoiceService;
+    private final SlowTraceRecorder slowTraceRecorder;
+
+    @Value("${invoice.outbox.workers:4}")
+    private int workers;
+
+    @Value("${invoice.outbox.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${invoice.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${invoice.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${invoice.outbox.backoff-initial-ms:10000}")
+    private long backoffInitialMs;
+
+    @Value("${invoice.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${invoice.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("invoice-worker-"));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Entry đang dở sẽ được worker khác nhận lại khi hết lease
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Start processing as soon as the order transaction commits
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onInvoiceRequested(InvoiceRequestedEvent event) {
+        submit(event.outboxId());
+    }
+
+    /**
+     * Pick up entries missed by the event (restart, full queue) and entries due for retry
+     */
+    @Scheduled(fixedDelayString = "${invoice.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        int capacity = Math.min(executor.getQueue().remainingCapacity(), batchSize);
+        if (capacity <= 0) {
+            return;
+        }
+
+        List<Long> dueIds = invoiceOutboxRepository.findDueIds(CLAIMABLE, LocalDateTime.now(), PageRequest.of(0, capacity));
+        dueIds.forEach(this::submit);
+    }
+
+    private void submit(Long outboxId) {
+        try {
+            executor.execute(() -> slowTraceRecorder.trace(SpanKind.JOB, "invoice outboxId=" + outboxId, () -> process(outboxId)));
+        } catch (RejectedExecutionException e) {
+            log.warn("Invoice worker queue is full, outboxId={} is left for the poller", outboxId);
+        }
+    }
+
+    private void process(Long outboxId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (invoiceOutboxRepository.claim(outboxId, CLAIMABLE, OutboxStatus.PROCESSING, now, now.plus(leaseMs, ChronoUnit.MILLIS)) == 0) {
+            return;
+        }
+
+        InvoiceOutbox outbox = invoiceOutboxRepository.findById(outboxId).orElse(null);
+        if (outbox == null) {
+            return;
+        }
+
+        try {
+            invoiceService.generateInvoiceForOrder(outbox.getOrderId());
+            invoiceOutboxRepository.updateState(outboxId, OutboxStatus.DONE, outbox.getAttempts() + 1, LocalDateTime.now(), null);
+        } catch (Exception e) {
+            int attempts = outbox.getAttempts() + 1;
+            String error = StringUtils.abbreviate(e.getMessage(), 1000);
+
+            if (attempts >= maxAttempts) {
+                log.error("Invoice failed permanently. orderId={}, attempts={}", outbox.getOrderId(), attempts, e);
+                invoiceOutboxRepository.updateState(outboxId, OutboxStatus.FAILED, attempts, LocalDateTime.now(), error);
+            } else {
+                LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(attempts), ChronoUnit.MILLIS);
+                log.warn("Invoice failed, retry at {}. orderId={}, attempts={}", nextAttemptAt, outbox.getOrderId(), attempts);
+                invoiceOutboxRepository.updateState(outboxId, OutboxStatus.PENDING, attempts, nextAttemptAt, error);
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff: initial, 2x, 4x ... capped at backoff-max-ms
+     */
+    private long backoff(int attempts) {
+        long delay = backoffInitialMs << Math.min(attempts - 1, 30);
+        return delay <= 0 ? backoffMaxMs : Math.min(delay, backoffMaxMs);
+    }
+}
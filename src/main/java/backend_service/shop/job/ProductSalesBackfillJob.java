@@ -0,0 +1,54 @@
+package backend_service.shop.job;
+
+import backend_service.shop.repository.JobLockRepository;
+import backend_service.shop.service.ProductSalesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Fills the sales counters from the order history on the first start, then rebuilds them
+ * nightly so any drift (orders written outside OrderService, manual fixes) does not last.
+ * Every instance fires the cron; the one that takes the lease in tbl_job_lock runs it.
+ */
+@Slf4j
+@Component
+public class ProductSalesBackfillJob {
+
+    private static final String LEASE_NAME = "product-sales-rebuild";
+
+    private final ProductSalesService productSalesService;
+    private final JobLockRepository jobLockRepository;
+    private final Duration lease;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    public ProductSalesBackfillJob(ProductSalesService productSalesService,
+                                   JobLockRepository jobLockRepository,
+                                   @Value("${sales.backfill.lease-ms:3600000}") long leaseMs) {
+        this.productSalesService = productSalesService;
+        this.jobLockRepository = jobLockRepository;
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!productSalesService.hasCounters()) {
+            log.info("Product sales counters are empty, backfilling from order history");
+            productSalesService.rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${sales.backfill.cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!jobLockRepository.tryAcquire(LEASE_NAME, lease, owner)) {
+            log.info("Product sales rebuild skipped, another instance holds the lease");
+            return;
+        }
+        productSalesService.rebuild();
+    }
+}
@@ -0,0 +1,47 @@
+package backend_service.shop.metrics;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Called by the datasource proxy around every JDBC method. Only DataSource.getConnection (pool wait)
+ * and Connection.close (back to the pool) matter here; the lease in between is the hold time.
+ */
+class ConnectionLeaseListener implements MethodExecutionListener {
+
+    private static final String START_KEY = "leaseStart";
+
+    private final TransactionStats transactionStats;
+
+    ConnectionLeaseListener(TransactionStats transactionStats) {
+        this.transactionStats = transactionStats;
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+        if (context.getTarget() instanceof DataSource && "getConnection".equals(context.getMethod().getName())) {
+            // getElapsedTime() chỉ có độ phân giải ms, quá thô cho thời gian chờ pool
+            context.addCustomValue(START_KEY, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        ConnectionInfo connectionInfo = context.getConnectionInfo();
+        if (connectionInfo == null || context.getThrown() != null) {
+            return;
+        }
+
+        String method = context.getMethod().getName();
+        if (context.getTarget() instanceof DataSource && "getConnection".equals(method)) {
+            Long start = context.getCustomValue(START_KEY, Long.class);
+            long waitNanos = start != null ? System.nanoTime() - start : 0;
+            transactionStats.connectionAcquired(connectionInfo.getConnectionId(), TransactionScope.currentOperation(), waitNanos);
+        } else if (context.getTarget() instanceof Connection && "close".equals(method)) {
+            transactionStats.connectionReleased(connectionInfo.getConnectionId());
+        }
+    }
+}
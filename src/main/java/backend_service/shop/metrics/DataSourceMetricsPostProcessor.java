@@ -0,0 +1,59 @@
+package backend_service.shop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource with datasource-proxy so every statement, from Hibernate
+ * or from JdbcTemplate, goes through {@link QueryMetricsListener} and every connection borrowed
+ * from the pool through {@link ConnectionLeaseListener}
+ */
+@Component
+public class DataSourceMetricsPostProcessor implements BeanPostProcessor {
+
+    // Lazy: BeanPostProcessor được tạo rất sớm, trước MeterRegistry
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<TransactionStats> transactionStats;
+
+    public DataSourceMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          ObjectProvider<TransactionStats> transactionStats) {
+        this.meterRegistry = meterRegistry;
+        this.transactionStats = transactionStats;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return bean;
+        }
+
+        // Lazy proxy chỉ lấy connection thật ở câu lệnh đầu tiên: bọc target để đo đúng thời gian chờ/giữ pool
+        if (bean instanceof LazyConnectionDataSourceProxy lazy && lazy.getTargetDataSource() != null
+                && !(lazy.getTargetDataSource() instanceof ProxyDataSource)) {
+            lazy.setTargetDataSource(proxy(lazy.getTargetDataSource(), beanName, registry));
+            return bean;
+        }
+        return proxy(dataSource, beanName, registry);
+    }
+
+    private DataSource proxy(DataSource dataSource, String name, MeterRegistry registry) {
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                .name(name)
+                .listener(new QueryMetricsListener(registry));
+        TransactionStats stats = transactionStats.getIfAvailable();
+        if (stats != null) {
+            builder.methodListener(new ConnectionLeaseListener(stats));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,94 @@
+package backend_service.shop.metrics;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+/**
+ * Times each physical transaction from begin to commit/rollback. Calls that join an outer
+ * transaction (REQUIRED inside REQUIRED) are not counted on their own.
+ */
+class MonitoredTransactionManager implements PlatformTransactionManager {
+
+    static final String UNNAMED = "(unnamed)";
+
+    private final PlatformTransactionManager delegate;
+    private final TransactionStats transactionStats;
+
+    MonitoredTransactionManager(PlatformTransactionManager delegate, TransactionStats transactionStats) {
+        this.delegate = delegate;
+        this.transactionStats = transactionStats;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+        // Push trước khi begin: JpaTransactionManager có thể lấy connection ngay trong getTransaction
+        TransactionScope.Frame frame = TransactionScope.push(operationName(definition),
+                definition != null && definition.isReadOnly());
+        TransactionStatus status;
+        try {
+            status = delegate.getTransaction(definition);
+        } catch (RuntimeException | Error e) {
+            TransactionScope.pop(frame);
+            throw e;
+        }
+
+        if (status.isNewTransaction()) {
+            frame.status = status;
+        } else {
+            TransactionScope.pop(frame);
+        }
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+        TransactionScope.Frame frame = TransactionScope.find(status);
+        if (frame == null) {
+            delegate.commit(status);
+            return;
+        }
+
+        // commit() của transaction đã bị đánh dấu rollback-only thực chất là rollback
+        boolean committed = !status.isRollbackOnly();
+        try {
+            delegate.commit(status);
+        } catch (RuntimeException | Error e) {
+            committed = false;
+            throw e;
+        } finally {
+            finish(frame, committed);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+        TransactionScope.Frame frame = TransactionScope.find(status);
+        try {
+            delegate.rollback(status);
+        } finally {
+            if (frame != null) {
+                finish(frame, false);
+            }
+        }
+    }
+
+    private void finish(TransactionScope.Frame frame, boolean committed) {
+        TransactionScope.pop(frame);
+        transactionStats.transactionFinished(frame.operation, frame.readOnly, committed, System.nanoTime() - frame.startNanos);
+    }
+
+    /**
+     * "backend_service.shop.service.impl.OrderServiceImpl.createOrder" -> "OrderServiceImpl.createOrder".
+     * Declarative transactions are named after their method; TransactionTemplate ones only when setName was called.
+     */
+    static String operationName(TransactionDefinition definition) {
+        String name = definition != null ? definition.getName() : null;
+        if (name == null || name.isEmpty()) {
+            return UNNAMED;
+        }
+        int method = name.lastIndexOf('.');
+        int type = method > 0 ? name.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? name.substring(type + 1) : name;
+    }
+}
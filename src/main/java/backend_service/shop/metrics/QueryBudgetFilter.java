@@ -0,0 +1,90 @@
+package backend_service.shop.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the JDBC statements of each HTTP request and records them per endpoint
+ * (shop.http.request.queries / shop.http.request.query.time). A request going over
+ * the budget is tagged query.budget=exceeded on http.server.requests and logged,
+ * which is how an N+1 regression shows up.
+ */
+@Slf4j
+@Component
+// Chạy trong ServerHttpObservationFilter và TracingFilter, trước Spring Security để đếm cả query của PreFilter
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final String BUDGET_TAG = "query.budget";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry,
+                             @Value("${metrics.query-budget.max-statements:20}") int maxStatements) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.clear();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        boolean exceeded = stats.getStatements() > maxStatements;
+        String budget = exceeded ? "exceeded" : "ok";
+
+        DistributionSummary.builder("shop.http.request.queries")
+                .description("JDBC statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag(BUDGET_TAG, budget)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("shop.http.request.query.time")
+                .description("Time spent in JDBC per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag(BUDGET_TAG, budget)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+
+        // Luôn gắn tag (kể cả "ok") để http.server.requests có cùng bộ tag
+        ServerHttpObservationFilter.findObservationContext(request)
+                .ifPresent(context -> context.addLowCardinalityKeyValue(KeyValue.of(BUDGET_TAG, budget)));
+
+        if (exceeded) {
+            log.warn("Query budget exceeded: {} {} ran {} statements ({}ms), budget={}",
+                    request.getMethod(), uri, stats.getStatements(), stats.getElapsedMillis(), maxStatements);
+        }
+    }
+}
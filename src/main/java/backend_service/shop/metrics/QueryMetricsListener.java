@@ -0,0 +1,75 @@
+package backend_service.shop.metrics;
+
+import backend_service.shop.tracing.Span;
+import backend_service.shop.tracing.SpanKind;
+import backend_service.shop.tracing.Tracing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Called by the datasource proxy around each statement (a JDBC batch counts as one round trip).
+ * Records shop.jdbc.statements by query type, adds the statement to the current request, if any,
+ * and opens a QUERY span when the thread is traced.
+ */
+class QueryMetricsListener implements QueryExecutionListener {
+
+    private static final String SPAN_KEY = "span";
+    private static final int MAX_SQL_LENGTH = 120;
+
+    private final Map<QueryType, Timer> timers = new EnumMap<>(QueryType.class);
+
+    QueryMetricsListener(MeterRegistry meterRegistry) {
+        for (QueryType type : QueryType.values()) {
+            timers.put(type, Timer.builder("shop.jdbc.statements")
+                    .description("JDBC statement execution time")
+                    .tag("type", type.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (Tracing.isActive()) {
+            execInfo.addCustomValue(SPAN_KEY, Tracing.start(SpanKind.QUERY, spanName(execInfo, queryInfoList)));
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Span span = execInfo.getCustomValue(SPAN_KEY, Span.class);
+        if (span != null) {
+            if (!execInfo.isSuccess() && execInfo.getThrowable() != null) {
+                span.error(execInfo.getThrowable());
+            }
+            span.close();
+        }
+
+        QueryType type = queryInfoList.isEmpty() ? QueryType.OTHER : QueryUtils.getQueryType(queryInfoList.get(0).getQuery());
+        timers.get(type).record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.add(execInfo.getElapsedTime());
+        }
+    }
+
+    private static String spanName(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return "jdbc";
+        }
+        String sql = queryInfoList.get(0).getQuery().replaceAll("\\s+", " ").trim();
+        if (sql.length() > MAX_SQL_LENGTH) {
+            sql = sql.substring(0, MAX_SQL_LENGTH) + "...";
+        }
+        return execInfo.isBatch() ? sql + " [batch " + execInfo.getBatchSize() + "]" : sql;
+    }
+}
@@ -0,0 +1,37 @@
+package backend_service.shop.metrics;
+
+import lombok.Getter;
+
+/**
+ * JDBC statements executed by the current HTTP request, bound to the request thread by {@link QueryBudgetFilter}
+ */
+@Getter
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long elapsedMillis;
+
+    static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return stats of the request being served on this thread, null outside a request
+     */
+    static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    void add(long elapsedMillis) {
+        this.statements++;
+        this.elapsedMillis += elapsedMillis;
+    }
+}
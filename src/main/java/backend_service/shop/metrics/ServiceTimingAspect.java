@@ -0,0 +1,41 @@
+package backend_service.shop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the service implementations (shop.service.method),
+ * tagged by class, method and the exception thrown, if any.
+ * Calls a service makes to its own methods bypass the proxy and are not timed separately.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(backend_service.shop.service.impl..*) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("shop.service.method")
+                    .description("Service method execution time")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package backend_service.shop.metrics;
+
+import backend_service.shop.util.DiscountType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Business counters. Increments made inside a transaction are applied only after it commits,
+ * so rolled back orders are not counted.
+ */
+@Component
+public class ShopMetrics {
+
+    private final Counter ordersCreated;
+    private final Counter ordersCancelled;
+    private final Map<DiscountType, Counter> discountsRedeemed = new EnumMap<>(DiscountType.class);
+
+    public ShopMetrics(MeterRegistry meterRegistry) {
+        this.ordersCreated = Counter.builder("shop.orders.created")
+                .description("Orders committed")
+                .register(meterRegistry);
+        this.ordersCancelled = Counter.builder("shop.orders.cancelled")
+                .description("Orders moved to CANCELLED")
+                .register(meterRegistry);
+        for (DiscountType type : DiscountType.values()) {
+            discountsRedeemed.put(type, Counter.builder("shop.discounts.redeemed")
+                    .description("Discount codes applied to a committed order")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void orderCreated() {
+        afterCommit(ordersCreated);
+    }
+
+    public void orderCancelled() {
+        afterCommit(ordersCancelled);
+    }
+
+    public void discountRedeemed(DiscountType type) {
+        afterCommit(discountsRedeemed.get(type));
+    }
+
+    private static void afterCommit(Counter counter) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.increment();
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package backend_service.shop.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Wraps the transaction manager with {@link MonitoredTransactionManager}, so @Transactional methods
+ * and TransactionTemplate callers are both timed
+ */
+@Component
+public class TransactionMonitorPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<TransactionStats> transactionStats;
+
+    public TransactionMonitorPostProcessor(ObjectProvider<TransactionStats> transactionStats) {
+        this.transactionStats = transactionStats;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof PlatformTransactionManager transactionManager) || bean instanceof MonitoredTransactionManager) {
+            return bean;
+        }
+        TransactionStats stats = transactionStats.getIfAvailable();
+        if (stats == null) {
+            return bean;
+        }
+        return new MonitoredTransactionManager(transactionManager, stats);
+    }
+}
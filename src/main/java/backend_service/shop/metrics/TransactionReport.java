@@ -0,0 +1,49 @@
+package backend_service.shop.metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Transaction and connection usage since {@code since}, served by /actuator/transactions.
+ * averageConnectionsInUse is total hold time / window (Little's law), the figure to size the pool against;
+ * peakConnectionsInUse is the most connections borrowed at the same time.
+ */
+public record TransactionReport(Instant since,
+                                double windowSeconds,
+                                double averageConnectionsInUse,
+                                int peakConnectionsInUse,
+                                Pool pool,
+                                List<Operation> topOffenders,
+                                List<OpenConnection> suspectedLeaks) {
+
+    /**
+     * Live HikariCP state, null when the DataSource is not a Hikari pool
+     */
+    public record Pool(int maximumPoolSize, int active, int idle, int threadsAwaitingConnection) {
+    }
+
+    /**
+     * One transactional method, ranked by the connection time it consumed
+     */
+    public record Operation(String name,
+                            boolean readOnly,
+                            long transactions,
+                            long rollbacks,
+                            long slow,
+                            double meanMs,
+                            double maxMs,
+                            long connections,
+                            double holdTotalMs,
+                            double holdMeanMs,
+                            double holdMaxMs,
+                            double waitMeanMs,
+                            double waitMaxMs,
+                            long leaks) {
+    }
+
+    /**
+     * A connection still borrowed for longer than metrics.transaction.leak-threshold-ms
+     */
+    public record OpenConnection(String connectionId, String operation, String thread, Instant acquiredAt, double heldMs) {
+    }
+}
@@ -0,0 +1,65 @@
+package backend_service.shop.metrics;
+
+import org.springframework.transaction.TransactionStatus;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Transactions opened on the current thread by {@link MonitoredTransactionManager}, innermost first.
+ * Lets {@link ConnectionLeaseListener} charge a pooled connection to the service method that borrowed it.
+ */
+final class TransactionScope {
+
+    private static final ThreadLocal<Deque<Frame>> FRAMES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private TransactionScope() {
+    }
+
+    static Frame push(String operation, boolean readOnly) {
+        Frame frame = new Frame(operation, readOnly, System.nanoTime());
+        FRAMES.get().push(frame);
+        return frame;
+    }
+
+    static void pop(Frame frame) {
+        Deque<Frame> frames = FRAMES.get();
+        frames.removeFirstOccurrence(frame);
+        if (frames.isEmpty()) {
+            FRAMES.remove();
+        }
+    }
+
+    /**
+     * @return the frame opened for this status, null when the status joined an outer transaction
+     */
+    static Frame find(TransactionStatus status) {
+        for (Frame frame : FRAMES.get()) {
+            if (frame.status == status) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return innermost transaction of this thread, null outside a transaction
+     */
+    static String currentOperation() {
+        Frame frame = FRAMES.get().peek();
+        return frame != null ? frame.operation : null;
+    }
+
+    static final class Frame {
+
+        final String operation;
+        final boolean readOnly;
+        final long startNanos;
+        TransactionStatus status;
+
+        private Frame(String operation, boolean readOnly, long startNanos) {
+            this.operation = operation;
+            this.readOnly = readOnly;
+            this.startNanos = startNanos;
+        }
+    }
+}
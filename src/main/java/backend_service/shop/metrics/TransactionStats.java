@@ -0,0 +1,273 @@
+package backend_service.shop.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per service method: transaction duration, connection hold time and pool wait time.
+ * Published as shop.tx.duration, shop.db.connection.hold and shop.db.connection.wait (tag operation),
+ * and kept as running totals for the "top offenders" report of /actuator/transactions.
+ * Connections borrowed outside any transaction (open-in-view, plain JdbcTemplate) are charged to "(no transaction)".
+ */
+@Slf4j
+@Component
+public class TransactionStats {
+
+    static final String NO_TRANSACTION = "(no transaction)";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowThreshold;
+    private final long slowThresholdNanos;
+    private final long leakThresholdNanos;
+    // Operation giữ connection lâu là bình thường (export): không coi là leak
+    private final Set<String> longRunningOperations;
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    // connectionId (datasource-proxy) -> connection đang được mượn
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger peakLeased = new AtomicInteger();
+
+    private volatile Instant since = Instant.now();
+    private volatile long sinceNanos = System.nanoTime();
+
+    public TransactionStats(MeterRegistry meterRegistry,
+                            @Value("${metrics.transaction.slow-threshold-ms:1000}") long slowThresholdMs,
+                            @Value("${metrics.transaction.leak-threshold-ms:30000}") long leakThresholdMs,
+                            @Value("${metrics.transaction.long-running-operations:}") String[] longRunningOperations) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = Duration.ofMillis(slowThresholdMs);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMs);
+        this.longRunningOperations = Set.of(longRunningOperations);
+    }
+
+    void transactionFinished(String operation, boolean readOnly, boolean committed, long durationNanos) {
+        OperationStats stats = stats(operation);
+        stats.readOnly = readOnly;
+        stats.transactions.increment();
+        stats.transactionNanos.add(durationNanos);
+        stats.transactionMaxNanos.accumulateAndGet(durationNanos, Math::max);
+        (committed ? stats.committedTimer : stats.rolledBackTimer).record(durationNanos, TimeUnit.NANOSECONDS);
+        if (!committed) {
+            stats.rollbacks.increment();
+        }
+
+        if (durationNanos >= slowThresholdNanos) {
+            stats.slow.increment();
+            log.warn("Slow transaction {} took {} ms (threshold {} ms, readOnly={}, committed={})",
+                    operation, TimeUnit.NANOSECONDS.toMillis(durationNanos), slowThreshold.toMillis(), readOnly, committed);
+        }
+    }
+
+    void connectionAcquired(String connectionId, String operation, long waitNanos) {
+        String name = operation != null ? operation : NO_TRANSACTION;
+        OperationStats stats = stats(name);
+        stats.acquisitions.increment();
+        stats.waitNanos.add(waitNanos);
+        stats.waitMaxNanos.accumulateAndGet(waitNanos, Math::max);
+        stats.waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+
+        leases.put(connectionId, new Lease(name, Thread.currentThread().getName(), System.nanoTime(), Instant.now()));
+        peakLeased.accumulateAndGet(leased.incrementAndGet(), Math::max);
+    }
+
+    void connectionReleased(String connectionId) {
+        // close() có thể bị gọi 2 lần cho cùng 1 connection
+        Lease lease = leases.remove(connectionId);
+        if (lease == null) {
+            return;
+        }
+        leased.decrementAndGet();
+
+        long holdNanos = System.nanoTime() - lease.acquiredNanos;
+        OperationStats stats = stats(lease.operation);
+        stats.connections.increment();
+        stats.holdNanos.add(holdNanos);
+        stats.holdMaxNanos.accumulateAndGet(holdNanos, Math::max);
+        stats.holdTimer.record(holdNanos, TimeUnit.NANOSECONDS);
+        if (lease.reported) {
+            log.info("Connection {} held by {} was returned after {} ms", connectionId, lease.operation,
+                    TimeUnit.NANOSECONDS.toMillis(holdNanos));
+        }
+    }
+
+    /**
+     * Warn once per connection borrowed longer than the leak threshold. HikariCP's own leak detection
+     * logs the borrowing stack trace; this names the transaction that holds it.
+     * Operations listed in metrics.transaction.long-running-operations are never reported.
+     */
+    @Scheduled(fixedDelayString = "${metrics.transaction.leak-check-interval-ms:10000}")
+    public void checkLeaks() {
+        long now = System.nanoTime();
+        leases.forEach((connectionId, lease) -> {
+            if (!lease.reported && isLeak(lease, now)) {
+                lease.reported = true;
+                OperationStats stats = stats(lease.operation);
+                stats.leaks.increment();
+                stats.leakCounter.increment();
+                log.warn("Possible connection leak: connection {} held for {} ms by {} on thread {}", connectionId,
+                        TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredNanos), lease.operation, lease.thread);
+            }
+        });
+    }
+
+    /**
+     * @param limit max operations, heaviest connection users first
+     * @param pool  live pool state, may be null
+     */
+    public TransactionReport report(int limit, TransactionReport.Pool pool) {
+        long now = System.nanoTime();
+        long windowNanos = Math.max(now - sinceNanos, 1);
+        long totalHoldNanos = operations.values().stream().mapToLong(s -> s.holdNanos.sum()).sum();
+
+        List<TransactionReport.Operation> topOffenders = operations.entrySet().stream()
+                .map(e -> e.getValue().toView(e.getKey()))
+                .sorted(Comparator.comparingDouble(TransactionReport.Operation::holdTotalMs)
+                        .thenComparingDouble(TransactionReport.Operation::maxMs)
+                        .reversed())
+                .limit(limit)
+                .toList();
+
+        List<TransactionReport.OpenConnection> suspectedLeaks = leases.entrySet().stream()
+                .filter(e -> isLeak(e.getValue(), now))
+                .map(e -> new TransactionReport.OpenConnection(e.getKey(), e.getValue().operation, e.getValue().thread,
+                        e.getValue().acquiredAt, millis(now - e.getValue().acquiredNanos)))
+                .sorted(Comparator.comparingDouble(TransactionReport.OpenConnection::heldMs).reversed())
+                .toList();
+
+        return new TransactionReport(since, windowNanos / 1e9, (double) totalHoldNanos / windowNanos, peakLeased.get(),
+                pool, topOffenders, suspectedLeaks);
+    }
+
+    /**
+     * Start a new report window. Micrometer meters and connections still borrowed are kept.
+     */
+    public void reset() {
+        operations.clear();
+        peakLeased.set(leased.get());
+        since = Instant.now();
+        sinceNanos = System.nanoTime();
+    }
+
+    private boolean isLeak(Lease lease, long now) {
+        return now - lease.acquiredNanos >= leakThresholdNanos && !longRunningOperations.contains(lease.operation);
+    }
+
+    private OperationStats stats(String operation) {
+        return operations.computeIfAbsent(operation, this::newStats);
+    }
+
+    private OperationStats newStats(String operation) {
+        return new OperationStats(
+                transactionTimer(operation, "commit"),
+                transactionTimer(operation, "rollback"),
+                Timer.builder("shop.db.connection.hold")
+                        .description("Time a pooled connection was borrowed before being returned")
+                        .tag("operation", operation)
+                        .register(meterRegistry),
+                Timer.builder("shop.db.connection.wait")
+                        .description("Time spent waiting for a connection from the pool")
+                        .tag("operation", operation)
+                        .register(meterRegistry),
+                Counter.builder("shop.db.connection.leaks")
+                        .description("Connections borrowed longer than metrics.transaction.leak-threshold-ms")
+                        .tag("operation", operation)
+                        .register(meterRegistry));
+    }
+
+    private Timer transactionTimer(String operation, String outcome) {
+        Timer.Builder builder = Timer.builder("shop.tx.duration")
+                .description("Physical transaction duration, begin to commit/rollback")
+                .tags("operation", operation, "outcome", outcome);
+        if (!slowThreshold.isZero()) {
+            // Bucket le=threshold: số transaction chậm tính được ngay trên dashboard
+            builder.serviceLevelObjectives(slowThreshold);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Lease {
+
+        final String operation;
+        final String thread;
+        final long acquiredNanos;
+        final Instant acquiredAt;
+        volatile boolean reported;
+
+        Lease(String operation, String thread, long acquiredNanos, Instant acquiredAt) {
+            this.operation = operation;
+            this.thread = thread;
+            this.acquiredNanos = acquiredNanos;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+
+    private static final class OperationStats {
+
+        final Timer committedTimer;
+        final Timer rolledBackTimer;
+        final Timer holdTimer;
+        final Timer waitTimer;
+        final Counter leakCounter;
+
+        final LongAdder transactions = new LongAdder();
+        final LongAdder rollbacks = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final LongAdder transactionNanos = new LongAdder();
+        final AtomicLong transactionMaxNanos = new AtomicLong();
+        final LongAdder connections = new LongAdder();
+        final LongAdder holdNanos = new LongAdder();
+        final AtomicLong holdMaxNanos = new AtomicLong();
+        final LongAdder acquisitions = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final AtomicLong waitMaxNanos = new AtomicLong();
+        final LongAdder leaks = new LongAdder();
+        volatile boolean readOnly;
+
+        OperationStats(Timer committedTimer, Timer rolledBackTimer, Timer holdTimer, Timer waitTimer, Counter leakCounter) {
+            this.committedTimer = committedTimer;
+            this.rolledBackTimer = rolledBackTimer;
+            this.holdTimer = holdTimer;
+            this.waitTimer = waitTimer;
+            this.leakCounter = leakCounter;
+        }
+
+        TransactionReport.Operation toView(String name) {
+            long txCount = transactions.sum();
+            long connectionCount = connections.sum();
+            long holdTotal = holdNanos.sum();
+            long acquired = acquisitions.sum();
+            return new TransactionReport.Operation(name, readOnly, txCount, rollbacks.sum(), slow.sum(),
+                    txCount == 0 ? 0 : millis(transactionNanos.sum()) / txCount,
+                    millis(transactionMaxNanos.get()),
+                    connectionCount,
+                    millis(holdTotal),
+                    connectionCount == 0 ? 0 : millis(holdTotal) / connectionCount,
+                    millis(holdMaxNanos.get()),
+                    acquired == 0 ? 0 : millis(waitNanos.sum()) / acquired,
+                    millis(waitMaxNanos.get()),
+                    leaks.sum());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package backend_service.shop.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * /actuator/transactions: service methods ranked by the connection time they consume, with their
+ * transaction duration, pool wait and connections held past the leak threshold. DELETE starts a new window.
+ */
+@Component
+@Endpoint(id = "transactions")
+@RequiredArgsConstructor
+public class TransactionsEndpoint {
+
+    private final TransactionStats transactionStats;
+    private final DataSource dataSource;
+
+    @Value("${metrics.transaction.top-size:20}")
+    private int topSize;
+
+    @ReadOperation
+    public TransactionReport topOffenders() {
+        return transactionStats.report(topSize, pool());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        transactionStats.reset();
+    }
+
+    private TransactionReport.Pool pool() {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return null;
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean poolBean = hikari.getHikariPoolMXBean();
+            if (poolBean == null) {
+                return null;
+            }
+            return new TransactionReport.Pool(hikari.getMaximumPoolSize(), poolBean.getActiveConnections(),
+                    poolBean.getIdleConnections(), poolBean.getThreadsAwaitingConnection());
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.BlacklistedToken;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface BlacklistedTokenRepository extends CustomRepository<BlacklistedToken, Long> {
@@ -9,4 +11,8 @@ public interface BlacklistedTokenRepository extends CustomRepository<Blacklisted
 
     boolean existsByToken(String token);
 
+    List<BlacklistedToken> findByExpiredAtAfter(LocalDateTime now);
+
+    List<BlacklistedToken> findByCreatedAtAfterAndExpiredAtAfter(LocalDateTime since, LocalDateTime now);
+
 }
@@ -0,0 +1,15 @@
+package backend_service.shop.repository;
+
+import java.util.List;
+
+public interface CartDetailBatchRepository {
+
+    /**
+     * Write the pending changes of many carts with one JDBC batch per statement type:
+     * deletes, updates and inserts of lines, then the cart totals.
+     *
+     * @param flushes
+     */
+    void writeBehind(List<CartFlush> flushes);
+
+}
@@ -0,0 +1,87 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.cache.CartLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//Spring Data ghép fragment này vào CartDetailRepository theo hậu tố "Impl"
+@RequiredArgsConstructor
+public class CartDetailBatchRepositoryImpl implements CartDetailBatchRepository {
+
+    private static final String DELETE_SQL = "DELETE FROM tbl_cart_detail WHERE cart_id = ? AND product_id = ?";
+
+    private static final String UPDATE_SQL = "UPDATE tbl_cart_detail " +
+            "SET quantity = ?, total_price = ?, updated_at = ? WHERE id = ?";
+
+    // Upsert theo (cart_id, product_id): instance khác đã ghi dòng này (request đi lạc) thì ghi đè, không nhân đôi
+    private static final String UPSERT_SQL = "INSERT INTO tbl_cart_detail " +
+            "(cart_id, product_id, quantity, unit_price, total_price, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), unit_price = VALUES(unit_price), " +
+            "total_price = VALUES(total_price), updated_at = VALUES(updated_at)";
+
+    // Tổng của giỏ tính lại từ chính các dòng trong DB nên luôn khớp với các dòng, dù hai instance cùng flush
+    private static final String UPDATE_CART_SQL = "UPDATE tbl_cart SET " +
+            "total_quantity = (SELECT COALESCE(SUM(d.quantity), 0) FROM tbl_cart_detail d WHERE d.cart_id = ?), " +
+            "total_price = (SELECT COALESCE(SUM(d.total_price), 0) FROM tbl_cart_detail d WHERE d.cart_id = ?), " +
+            "updated_at = ? WHERE id = ?";
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void writeBehind(List<CartFlush> flushes) {
+        if (flushes.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<CartRow<Long>> deletes = new ArrayList<>();
+        List<CartLine> updates = new ArrayList<>();
+        List<CartRow<CartLine>> inserts = new ArrayList<>();
+        for (CartFlush flush : flushes) {
+            flush.removedProductIds().forEach(productId -> deletes.add(new CartRow<>(flush.cartId(), productId)));
+            updates.addAll(flush.updates());
+            flush.inserts().forEach(line -> inserts.add(new CartRow<>(flush.cartId(), line)));
+        }
+
+        // Xóa trước để sản phẩm bị xóa rồi thêm lại được insert thành dòng mới
+        jdbcTemplate.batchUpdate(DELETE_SQL, deletes, BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.cartId());
+            ps.setLong(2, row.value());
+        });
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, BATCH_SIZE, (ps, line) -> {
+            ps.setInt(1, line.quantity());
+            ps.setBigDecimal(2, line.totalPrice());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, line.id());
+        });
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, inserts, BATCH_SIZE, (ps, row) -> {
+            CartLine line = row.value();
+            ps.setLong(1, row.cartId());
+            ps.setLong(2, line.productId());
+            ps.setInt(3, line.quantity());
+            ps.setBigDecimal(4, line.unitPrice());
+            ps.setBigDecimal(5, line.totalPrice());
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+
+        jdbcTemplate.batchUpdate(UPDATE_CART_SQL, flushes, BATCH_SIZE, (ps, flush) -> {
+            ps.setLong(1, flush.cartId());
+            ps.setLong(2, flush.cartId());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, flush.cartId());
+        });
+    }
+
+    private record CartRow<T>(Long cartId, T value) {
+    }
+}
@@ -1,13 +1,28 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.CartDetail;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface CartDetailRepository extends CustomRepository<CartDetail, Long> {
+public interface CartDetailRepository extends CustomRepository<CartDetail, Long>, CartDetailBatchRepository {
 
     List<CartDetail> findByCartId(Long cartId);
 
+    @EntityGraph(attributePaths = "product")
+    List<CartDetail> findWithProductByCartId(Long cartId);
+
     Optional<CartDetail> findByCartIdAndProductId(Long cartId, Long productId);
 
+    @Modifying
+    @Query("delete from CartDetail cd where cd.cart.id = :cartId")
+    int deleteInBulkByCartId(Long cartId);
+
+    @Query("select new backend_service.shop.repository.CartLineKey(cd.cart.id, cd.product.id, cd.id) " +
+            "from CartDetail cd where cd.cart.id in :cartIds")
+    List<CartLineKey> findLineKeys(Collection<Long> cartIds);
+
 }
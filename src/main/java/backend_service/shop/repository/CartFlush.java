@@ -0,0 +1,19 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.cache.CartLine;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Changes of one cart collected by the cart store since its last flush.
+ *
+ * @param cartId
+ * @param inserts            lines that have no row yet
+ * @param updates            lines whose row must be overwritten
+ * @param removedProductIds  products whose row must be deleted
+ */
+public record CartFlush(Long cartId,
+                        List<CartLine> inserts,
+                        List<CartLine> updates,
+                        Collection<Long> removedProductIds) {
+}
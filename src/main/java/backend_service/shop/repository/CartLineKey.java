@@ -0,0 +1,7 @@
+package backend_service.shop.repository;
+
+/**
+ * Row id of the line of a product in a cart.
+ */
+public record CartLineKey(Long cartId, Long productId, Long detailId) {
+}
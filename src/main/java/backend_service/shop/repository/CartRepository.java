@@ -2,6 +2,11 @@ package backend_service.shop.repository;
 
 import backend_service.shop.entity.Cart;
 import backend_service.shop.entity.CartDetail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends CustomRepository<Cart, Long> {
@@ -10,6 +15,24 @@ public interface CartRepository extends CustomRepository<Cart, Long> {
 
     Optional<CartDetail> findCartDetailById(long id);
 
+    @Modifying
+    @Query("update Cart c set c.totalQuantity = 0, c.totalPrice = 0 where c.id = :cartId")
+    int resetTotals(Long cartId);
 
+    /**
+     * Carts whose stored totals no longer match the sum of their lines
+     */
+    @Query("select c.id from Cart c left join c.cartDetails d " +
+            "group by c.id, c.totalQuantity, c.totalPrice " +
+            "having coalesce(c.totalQuantity, -1) <> coalesce(sum(d.quantity), 0) " +
+            "or coalesce(c.totalPrice, -1) <> coalesce(sum(d.totalPrice), 0)")
+    List<Long> findIdsWithDriftedTotals(Pageable pageable);
+
+    @Modifying
+    @Query("update Cart c set " +
+            "c.totalQuantity = (select coalesce(sum(d.quantity), 0) from CartDetail d where d.cart.id = c.id), " +
+            "c.totalPrice = (select coalesce(sum(d.totalPrice), 0) from CartDetail d where d.cart.id = c.id) " +
+            "where c.id in :ids")
+    int recomputeTotals(Collection<Long> ids);
 
 }
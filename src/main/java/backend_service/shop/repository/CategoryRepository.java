@@ -1,8 +1,15 @@
 package backend_service.shop.repository;
 
+import backend_service.shop.cache.CategoryNode;
 import backend_service.shop.entity.Category;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface CategoryRepository extends CustomRepository<Category, Long> {
     List<Category> findByParentIsNull(); // Get list parent category
+
+    // Toàn bộ cây trong 1 query, không load entity
+    @Query("select new backend_service.shop.cache.CategoryNode(c.id, c.name, p.id, c.status) " +
+            "from Category c left join c.parent p")
+    List<CategoryNode> findAllNodes();
 }
@@ -1,11 +1,55 @@
 package backend_service.shop.repository;
 
+import backend_service.shop.entity.AbstractEntity;
+import backend_service.shop.util.PageCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
 
 //Đánh dấu lớp này là không phải là một repository thực sự
 @NoRepositoryBean
 public interface CustomRepository<T, ID extends Serializable> extends JpaRepository<T, ID>, JpaSpecificationExecutor<T> {
+
+    Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    /**
+     * Keyset page ordered by (createdAt desc, id desc): rows strictly after the cursor,
+     * without OFFSET and without a COUNT query. Backed by a (created_at, id) index.
+     * Rows without createdAt come last, as created_at DESC sorts NULL in MySQL.
+     *
+     * @param spec  extra filter, may be null
+     * @param after position of the last row of the previous page, null for the first page
+     * @param size
+     * @return up to size rows plus the cursor of the next page
+     */
+    default KeysetSlice<T> findSliceAfter(Specification<T> spec, PageCursor after, int size) {
+        Specification<T> where = Specification.where(spec);
+        if (after != null && after.createdAt() == null) {
+            // Đang ở phần các dòng không có createdAt: chỉ còn các dòng null id nhỏ hơn
+            where = where.and((root, query, cb) -> cb.and(
+                    cb.isNull(root.get("createdAt")),
+                    cb.lessThan(root.<Long>get("id"), after.id())));
+        } else if (after != null) {
+            where = where.and((root, query, cb) -> cb.or(
+                    cb.lessThan(root.<LocalDateTime>get("createdAt"), after.createdAt()),
+                    cb.and(cb.equal(root.get("createdAt"), after.createdAt()),
+                            cb.lessThan(root.<Long>get("id"), after.id())),
+                    cb.isNull(root.get("createdAt"))));
+        }
+
+        // Lấy thừa 1 dòng để biết còn trang sau hay không
+        List<T> rows = findBy(where, q -> q.sortBy(KEYSET_SORT).limit(size + 1).all());
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, size);
+        AbstractEntity<?> last = (AbstractEntity<?>) items.get(size - 1);
+        return new KeysetSlice<>(items, new PageCursor(last.getCreatedAt(), (Long) last.getId()));
+    }
 }
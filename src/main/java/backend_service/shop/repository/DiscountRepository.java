@@ -1,14 +1,25 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.Discount;
-import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface DiscountRepository extends CustomRepository<Discount, Long> {
 
 //    Optional<Discount> findByCodeAndStatus(String code);
 
-    Optional<Discount> findByCodeIgnoreCase(String code);
+    List<Discount> findByEndDateIsNullOrEndDateGreaterThanEqual(LocalDateTime now);
 
     boolean existsByCode(String code);
 
+    /**
+     * Take one global use in a single statement. Returns 0 when the code is used up.
+     * Unlimited codes (max_uses null) never go through here.
+     */
+    @Modifying
+    @Query("update Discount d set d.maxUses = d.maxUses - 1 where d.id = :id and d.maxUses > 0")
+    int claimUse(Long id);
+
 }
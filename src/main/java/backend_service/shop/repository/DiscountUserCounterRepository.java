@@ -0,0 +1,27 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.DiscountUserCounter;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface DiscountUserCounterRepository extends CustomRepository<DiscountUserCounter, Long> {
+
+    /**
+     * Take one use for the user. Returns 0 when the user reached the limit or has no counter row yet.
+     */
+    @Modifying
+    @Query("update DiscountUserCounter c set c.usedCount = c.usedCount + 1 " +
+            "where c.discountId = :discountId and c.userId = :userId and c.usedCount < :maxUsesPerUser")
+    int claimUse(Long discountId, Long userId, int maxUsesPerUser);
+
+    /**
+     * Create the counter row once per (discount, user), seeded from the usages recorded before
+     * counters existed. A concurrent insert of the same row is ignored.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO tbl_discount_user_counter (discount_id, user_id, used_count, created_at, updated_at) " +
+            "SELECT :discountId, :userId, COUNT(*), NOW(), NOW() FROM tbl_discount_usage " +
+            "WHERE discount_id = :discountId AND user_id = :userId", nativeQuery = true)
+    int insertIfAbsent(Long discountId, Long userId);
+
+}
@@ -0,0 +1,32 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.InvoiceOutbox;
+import backend_service.shop.util.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface InvoiceOutboxRepository extends CustomRepository<InvoiceOutbox, Long> {
+
+    @Query("select o.id from InvoiceOutbox o where o.status in :statuses and o.nextAttemptAt <= :now order by o.nextAttemptAt")
+    List<Long> findDueIds(List<OutboxStatus> statuses, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim an entry for one worker. Returns 0 when another worker already holds a valid lease.
+     */
+    @Modifying
+    @Transactional
+    @Query("update InvoiceOutbox o set o.status = :processing, o.nextAttemptAt = :leaseUntil " +
+            "where o.id = :id and o.status in :statuses and o.nextAttemptAt <= :now")
+    int claim(Long id, List<OutboxStatus> statuses, OutboxStatus processing, LocalDateTime now, LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("update InvoiceOutbox o set o.status = :status, o.attempts = :attempts, " +
+            "o.nextAttemptAt = :nextAttemptAt, o.lastError = :lastError where o.id = :id")
+    int updateState(Long id, OutboxStatus status, int attempts, LocalDateTime nextAttemptAt, String lastError);
+
+}
@@ -1,6 +1,10 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.Invoice;
+import java.util.Optional;
 
 public interface InvoiceRepository extends CustomRepository<Invoice, Long> {
+
+    Optional<Invoice> findByOrderId(Long orderId);
+
 }
@@ -0,0 +1,19 @@
+package backend_service.shop.repository;
+
+import java.time.Duration;
+
+public interface JobLockOperations {
+
+    /**
+     * Take the lease of the job unless another instance holds one that has not expired.
+     * The lease is not given back: instances firing the same cron a little later skip the run.
+     *
+     * @return true when this instance should run the job
+     */
+    boolean tryAcquire(String name, Duration lease, String owner);
+
+    /**
+     * Lock the row of the job until the current transaction ends
+     */
+    void lock(String name);
+}
@@ -0,0 +1,47 @@
+package backend_service.shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.Duration;
+
+//Spring Data ghép fragment này vào JobLockRepository theo hậu tố "Impl"
+@RequiredArgsConstructor
+public class JobLockOperationsImpl implements JobLockOperations {
+
+    private static final String INSERT_SQL = "INSERT INTO tbl_job_lock (name, locked_until) VALUES (?, 0)";
+    private static final String LOCK_SQL = "SELECT name FROM tbl_job_lock WHERE name = ? FOR UPDATE";
+    private static final String ACQUIRE_SQL = "UPDATE tbl_job_lock SET locked_until = ?, locked_by = ? " +
+            "WHERE name = ? AND locked_until <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryAcquire(String name, Duration lease, String owner) {
+        long now = System.currentTimeMillis();
+        if (jdbcTemplate.update(ACQUIRE_SQL, now + lease.toMillis(), owner, name, now) == 1) {
+            return true;
+        }
+        return insertIfAbsent(name) && jdbcTemplate.update(ACQUIRE_SQL, now + lease.toMillis(), owner, name, now) == 1;
+    }
+
+    @Override
+    public void lock(String name) {
+        if (jdbcTemplate.queryForList(LOCK_SQL, String.class, name).isEmpty()) {
+            insertIfAbsent(name);
+            jdbcTemplate.queryForList(LOCK_SQL, String.class, name);
+        }
+    }
+
+    /**
+     * @return true when this call created the row
+     */
+    private boolean insertIfAbsent(String name) {
+        try {
+            return jdbcTemplate.update(INSERT_SQL, name) == 1;
+        } catch (DuplicateKeyException e) {
+            // Instance khác vừa tạo row
+            return false;
+        }
+    }
+}
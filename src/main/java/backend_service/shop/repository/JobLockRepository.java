@@ -0,0 +1,7 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.JobLock;
+
+public interface JobLockRepository extends CustomRepository<JobLock, String>, JobLockOperations {
+
+}
@@ -0,0 +1,21 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.util.PageCursor;
+import java.util.List;
+
+/**
+ * One keyset page returned by {@link CustomRepository#findSliceAfter}.
+ *
+ * @param items
+ * @param next  cursor of the next page, null on the last page
+ */
+public record KeysetSlice<T>(List<T> items, PageCursor next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public String nextCursor() {
+        return next != null ? next.encode() : null;
+    }
+}
@@ -0,0 +1,17 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.OrderDetail;
+import java.util.List;
+
+public interface OrderDetailBatchRepository {
+
+    /**
+     * Insert all lines of an order with a single JDBC batch.
+     * Hibernate cannot batch inserts for IDENTITY ids, so the lines are written directly.
+     *
+     * @param orderId
+     * @param details
+     */
+    void batchInsert(Long orderId, List<OrderDetail> details);
+
+}
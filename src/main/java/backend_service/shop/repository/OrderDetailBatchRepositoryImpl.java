@@ -0,0 +1,40 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.OrderDetail;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Spring Data ghép fragment này vào OrderDetailRepository theo hậu tố "Impl"
+@RequiredArgsConstructor
+public class OrderDetailBatchRepositoryImpl implements OrderDetailBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO tbl_order_detail " +
+            "(order_id, product_id, quantity, unit_price, total_price, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(Long orderId, List<OrderDetail> details) {
+        if (details.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, details, BATCH_SIZE, (ps, detail) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, detail.getProduct().getId());
+            ps.setInt(3, detail.getQuantity());
+            ps.setBigDecimal(4, detail.getUnitPrice());
+            ps.setBigDecimal(5, detail.getTotalPrice());
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+}
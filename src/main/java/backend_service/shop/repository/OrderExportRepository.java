@@ -0,0 +1,18 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.dto.response.OrderExportRow;
+import java.util.function.Consumer;
+
+public interface OrderExportRepository {
+
+    /**
+     * Stream every order line ordered by (order id, line id) through a forward-only cursor.
+     * Rows are projections, nothing is added to the persistence context.
+     * Must be called inside a transaction.
+     *
+     * @param fetchSize rows fetched per round trip
+     * @param consumer  called once per row, in order
+     */
+    void scrollExportRows(int fetchSize, Consumer<OrderExportRow> consumer);
+
+}
@@ -0,0 +1,39 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.dto.response.OrderExportRow;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import java.util.function.Consumer;
+
+//Spring Data ghép fragment này vào OrderRepository theo hậu tố "Impl"
+@RequiredArgsConstructor
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    private static final String EXPORT_QUERY = "select new backend_service.shop.dto.response.OrderExportRow(" +
+            "o.id, o.createdAt, u.id, o.status, o.paymentMethod, o.totalQuantity, o.totalPrice, " +
+            "d.code, o.discountAmount, o.finalPrice, " +
+            "od.id, p.id, p.name, od.quantity, od.unitPrice, od.totalPrice) " +
+            "from Order o join o.user u left join o.discount d " +
+            "left join o.orderDetails od left join od.product p " +
+            "order by o.id, od.id";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public void scrollExportRows(int fetchSize, Consumer<OrderExportRow> consumer) {
+        Query<OrderExportRow> query = entityManager.unwrap(Session.class)
+                .createQuery(EXPORT_QUERY, OrderExportRow.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true);
+
+        try (ScrollableResults<OrderExportRow> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                consumer.accept(rows.get());
+            }
+        }
+    }
+}
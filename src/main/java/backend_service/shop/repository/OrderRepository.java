@@ -1,13 +1,51 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.Order;
+import backend_service.shop.util.OrderStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends CustomRepository<Order, Long> {
+public interface OrderRepository extends CustomRepository<Order, Long>, OrderExportRepository {
 
     List<Order> findByUserId(Long userId);
 
+    /**
+     * Read path of the order APIs: lines, products and discount in one query.
+     * The user is not joined, the response only needs its id (taken from the FK).
+     */
+    @EntityGraph(attributePaths = {"discount", "orderDetails", "orderDetails.product"})
+    List<Order> findWithDetailsByUserId(Long userId);
+
+    @EntityGraph(attributePaths = {"discount", "orderDetails", "orderDetails.product"})
+    List<Order> findWithDetailsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"discount", "orderDetails", "orderDetails.product"})
+    Optional<Order> findWithDetailsById(Long id);
+
+    // Phân trang trên id, tránh fetch join collection cùng LIMIT (Hibernate sẽ phân trang trong bộ nhớ)
+    @Query(value = "select o.id from Order o", countQuery = "select count(o) from Order o")
+    Page<Long> findIdPage(Pageable pageable);
+
+    /**
+     * Change status only when the order is not already in one of the given statuses.
+     * Clears the persistence context so an order loaded earlier in the transaction is read again.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status where o.id = :id and o.status not in :unless")
+    int updateStatusUnlessIn(Long id, OrderStatus status, Collection<OrderStatus> unless);
+
     @Query("select count(o) from Order o where o.user.id = :userId and o.discount.code = :code")
     int countByUserAndDiscountCode(long userId, String code);
+
+    /**
+     * Load everything the invoice needs in one query (used outside any transaction)
+     */
+    @EntityGraph(attributePaths = {"user", "discount", "orderDetails", "orderDetails.product"})
+    Optional<Order> findWithInvoiceDataById(Long id);
 }
@@ -1,7 +1,11 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.ProductImage;
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductImageRepository extends CustomRepository<ProductImage, Long> {
     void deleteAllByProductId(Long id);
+
+    List<ProductImage> findByProductIdIn(Collection<Long> productIds);
 }
@@ -1,6 +1,49 @@
 package backend_service.shop.repository;
 
 import backend_service.shop.entity.Product;
+import backend_service.shop.search.ProductDocument;
+import backend_service.shop.search.ProductFacets;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends CustomRepository<Product, Long> {
+public interface ProductRepository extends CustomRepository<Product, Long>, ProductStockBatchRepository {
+
+    @EntityGraph(attributePaths = "images")
+    Optional<Product> findWithImagesById(Long id);
+
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :quantity where p.id = :id")
+    int incrementStock(Long id, int quantity);
+
+    String SEARCH_DOCUMENT = "select new backend_service.shop.search.ProductDocument(p.id, p.name, p.shortDescription, p.description, " +
+            "p.sku, p.price, p.salePrice, p.thumbnail, p.status, p.tag, c.id, c.name) from Product p join p.category c ";
+
+    /**
+     * Keyset batches for (re)building the search index
+     */
+    @Query(SEARCH_DOCUMENT + "where p.id > :afterId order by p.id")
+    List<ProductDocument> findSearchDocumentsAfter(Long afterId, Pageable pageable);
+
+    @Query(SEARCH_DOCUMENT + "where p.id in :ids")
+    List<ProductDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
+
+    @Query(SEARCH_DOCUMENT + "where c.id = :categoryId")
+    List<ProductDocument> findSearchDocumentsByCategoryId(Long categoryId);
+
+    String FACETS = "select new backend_service.shop.search.ProductFacets(p.id, p.category.id, p.status, p.tag, " +
+            "p.price, p.salePrice, p.stockQuantity) from Product p ";
+
+    /**
+     * Keyset batches for (re)building the facet index
+     */
+    @Query(FACETS + "where p.id > :afterId order by p.id")
+    List<ProductFacets> findFacetsAfter(Long afterId, Pageable pageable);
+
+    @Query(FACETS + "where p.id in :ids")
+    List<ProductFacets> findFacetsByIdIn(Collection<Long> ids);
 }
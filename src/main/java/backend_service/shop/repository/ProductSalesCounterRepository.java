@@ -0,0 +1,70 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.dto.response.ProductSalesReport;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductSalesCounterRepository {
+
+    /**
+     * Add to the daily and all-time counters with one JDBC batch per table, creating the rows
+     * on first sale. Negative deltas take a cancelled order back out.
+     *
+     * @param deltas (productId, day the order was placed) -> (quantity, revenue)
+     */
+    void addSales(Map<SalesKey, SalesDelta> deltas);
+
+    /**
+     * @param since first day of the window, null for all time
+     * @return best sellers by quantity, products without a positive total left out
+     */
+    List<ProductSalesReport> findTopSelling(LocalDate since, int limit);
+
+    boolean hasCounters();
+
+    /**
+     * Flag the orders as counted, unless they already are or have been cancelled.
+     * Only the orders flagged by this call may have their lines added.
+     *
+     * @return per order, 1 when this call flagged it
+     */
+    int[] markCounted(List<Long> orderIds);
+
+    /**
+     * Clear the counted flag of cancelled orders.
+     * Only the orders cleared by this call may have their lines taken back out.
+     *
+     * @return per order, 1 when this call cleared it
+     */
+    int[] markUncounted(List<Long> orderIds);
+
+    /**
+     * Flag every order that is not cancelled as counted, then recompute both counter tables from
+     * the lines of the flagged orders
+     *
+     * @return number of (product, day) rows written
+     */
+    int rebuildFromOrders();
+
+    record SalesKey(Long productId, LocalDate salesDate) implements Comparable<SalesKey> {
+
+        @Override
+        public int compareTo(SalesKey other) {
+            int byProduct = productId.compareTo(other.productId);
+            return byProduct != 0 ? byProduct : salesDate.compareTo(other.salesDate);
+        }
+    }
+
+    record SalesDelta(long quantity, BigDecimal revenue) {
+
+        public SalesDelta plus(SalesDelta other) {
+            return new SalesDelta(quantity + other.quantity, revenue.add(other.revenue));
+        }
+
+        public SalesDelta negate() {
+            return new SalesDelta(-quantity, revenue.negate());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.dto.response.ProductSalesReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Spring Data ghép fragment này vào ProductSalesDailyRepository theo hậu tố "Impl"
+@RequiredArgsConstructor
+public class ProductSalesCounterRepositoryImpl implements ProductSalesCounterRepository {
+
+    private static final String ADD_DAILY_SQL = "INSERT INTO tbl_product_sales_daily " +
+            "(product_id, sales_date, quantity, revenue, created_at, updated_at) VALUES (?, ?, ?, ?, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue), updated_at = NOW()";
+
+    private static final String ADD_TOTAL_SQL = "INSERT INTO tbl_product_sales_total " +
+            "(product_id, quantity, revenue, created_at, updated_at) VALUES (?, ?, ?, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue), updated_at = NOW()";
+
+    private static final String TOP_SINCE_SQL = "SELECT s.product_id, p.name, SUM(s.quantity) AS quantity, SUM(s.revenue) AS revenue " +
+            "FROM tbl_product_sales_daily s JOIN tbl_product p ON p.id = s.product_id " +
+            "WHERE s.sales_date >= ? GROUP BY s.product_id, p.name HAVING SUM(s.quantity) > 0 " +
+            "ORDER BY SUM(s.quantity) DESC, s.product_id LIMIT ?";
+
+    private static final String TOP_ALL_TIME_SQL = "SELECT t.product_id, p.name, t.quantity, t.revenue " +
+            "FROM tbl_product_sales_total t JOIN tbl_product p ON p.id = t.product_id " +
+            "WHERE t.quantity > 0 ORDER BY t.quantity DESC, t.product_id LIMIT ?";
+
+    private static final String REBUILD_DAILY_SQL = "INSERT INTO tbl_product_sales_daily " +
+            "(product_id, sales_date, quantity, revenue, created_at, updated_at) " +
+            "SELECT od.product_id, CAST(o.created_at AS DATE), SUM(od.quantity), COALESCE(SUM(od.total_price), 0), NOW(), NOW() " +
+            "FROM tbl_order_detail od JOIN tbl_order o ON o.id = od.order_id " +
+            "WHERE o.sales_counted = TRUE GROUP BY od.product_id, CAST(o.created_at AS DATE)";
+
+    private static final String REBUILD_TOTAL_SQL = "INSERT INTO tbl_product_sales_total " +
+            "(product_id, quantity, revenue, created_at, updated_at) " +
+            "SELECT product_id, SUM(quantity), SUM(revenue), NOW(), NOW() FROM tbl_product_sales_daily GROUP BY product_id";
+
+    private static final String MARK_COUNTED_SQL = "UPDATE tbl_order SET sales_counted = TRUE " +
+            "WHERE id = ? AND sales_counted = FALSE AND status <> 'CANCELLED'";
+
+    private static final String MARK_UNCOUNTED_SQL = "UPDATE tbl_order SET sales_counted = FALSE " +
+            "WHERE id = ? AND sales_counted = TRUE";
+
+    // Chỉ ghi các đơn có cờ lệch với status (đơn chưa kịp flush, đơn bị sửa ngoài OrderService)
+    private static final String SYNC_COUNTED_SQL = "UPDATE tbl_order SET sales_counted = (status <> 'CANCELLED') " +
+            "WHERE sales_counted <> (status <> 'CANCELLED')";
+
+    private static final RowMapper<ProductSalesReport> REPORT_MAPPER = (rs, rowNum) -> new ProductSalesReport(
+            rs.getLong("product_id"), rs.getString("name"), rs.getLong("quantity"), rs.getBigDecimal("revenue"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addSales(Map<SalesKey, SalesDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Luôn ghi theo thứ tự (productId, ngày): 2 instance flush cùng lúc không deadlock
+        Map<SalesKey, SalesDelta> sorted = new TreeMap<>(deltas);
+        Map<Long, SalesDelta> byProduct = new TreeMap<>();
+        List<Object[]> daily = new ArrayList<>(sorted.size());
+        sorted.forEach((key, delta) -> {
+            daily.add(new Object[]{key.productId(), Date.valueOf(key.salesDate()), delta.quantity(), delta.revenue()});
+            byProduct.merge(key.productId(), delta, SalesDelta::plus);
+        });
+        List<Object[]> total = new ArrayList<>(byProduct.size());
+        byProduct.forEach((productId, delta) -> total.add(new Object[]{productId, delta.quantity(), delta.revenue()}));
+
+        jdbcTemplate.batchUpdate(ADD_DAILY_SQL, daily);
+        jdbcTemplate.batchUpdate(ADD_TOTAL_SQL, total);
+    }
+
+    @Override
+    public List<ProductSalesReport> findTopSelling(LocalDate since, int limit) {
+        return since == null
+                ? jdbcTemplate.query(TOP_ALL_TIME_SQL, REPORT_MAPPER, limit)
+                : jdbcTemplate.query(TOP_SINCE_SQL, REPORT_MAPPER, Date.valueOf(since), limit);
+    }
+
+    @Override
+    public boolean hasCounters() {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM tbl_product_sales_total LIMIT 1").isEmpty();
+    }
+
+    @Override
+    public int[] markCounted(List<Long> orderIds) {
+        return mark(MARK_COUNTED_SQL, orderIds);
+    }
+
+    @Override
+    public int[] markUncounted(List<Long> orderIds) {
+        return mark(MARK_UNCOUNTED_SQL, orderIds);
+    }
+
+    private int[] mark(String sql, List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(sql, orderIds.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    @Override
+    public int rebuildFromOrders() {
+        // Tính theo cờ chứ không theo status: đơn hủy sau lệnh này vẫn được tính, delta hủy của nó sẽ trừ ra
+        jdbcTemplate.update(SYNC_COUNTED_SQL);
+        jdbcTemplate.update("DELETE FROM tbl_product_sales_daily");
+        jdbcTemplate.update("DELETE FROM tbl_product_sales_total");
+        int rows = jdbcTemplate.update(REBUILD_DAILY_SQL);
+        jdbcTemplate.update(REBUILD_TOTAL_SQL);
+        return rows;
+    }
+}
@@ -0,0 +1,7 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.ProductSalesDaily;
+
+public interface ProductSalesDailyRepository extends CustomRepository<ProductSalesDaily, Long>, ProductSalesCounterRepository {
+
+}
@@ -0,0 +1,17 @@
+package backend_service.shop.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductStockBatchRepository {
+
+    /**
+     * Take stock for all lines of an order with a single JDBC batch of conditional updates,
+     * in the given order.
+     *
+     * @param quantities productId -> quantity
+     * @return update count per line, 0 where there was not enough stock left
+     */
+    int[] batchDecrementStock(List<Map.Entry<Long, Integer>> quantities);
+
+}
@@ -0,0 +1,41 @@
+package backend_service.shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+//Spring Data ghép fragment này vào ProductRepository theo hậu tố "Impl"
+@RequiredArgsConstructor
+public class ProductStockBatchRepositoryImpl implements ProductStockBatchRepository {
+
+    private static final String DECREMENT_SQL = "UPDATE tbl_product SET stock_quantity = stock_quantity - ? " +
+            "WHERE id = ? AND stock_quantity >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] batchDecrementStock(List<Map.Entry<Long, Integer>> quantities) {
+        if (quantities.isEmpty()) {
+            return new int[0];
+        }
+
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> line = quantities.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setLong(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return quantities.size();
+            }
+        });
+    }
+}
@@ -15,4 +15,9 @@ public interface UserRepository extends CustomRepository<User, Long> {
     @Query(value = "select r.name from Role r inner join UserHasRole ur on r.id = ur.user.id where ur.id= :userId")
     List<String> findAllRolesByUserId(Long userId);
 
+    Optional<UserStatusView> findStatusViewByUsername(String username);
+
+    @Query("select r.name from UserHasRole ur join ur.role r where ur.user.id = :userId")
+    List<String> findRoleNamesByUserId(Long userId);
+
 }
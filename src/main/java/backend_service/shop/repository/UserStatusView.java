@@ -0,0 +1,16 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.util.UserStatus;
+
+/**
+ * Projection that reads only id and status, without the EAGER addresses/roles of User
+ */
+public interface UserStatusView {
+
+    Long getId();
+
+    String getUsername();
+
+    UserStatus getUserStatus();
+
+}
@@ -0,0 +1,128 @@
+package backend_service.shop.search;
+
+import backend_service.shop.datasource.ReplicaRouting;
+import lombok.extern.slf4j.Slf4j;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the current in-memory index of an indexer. Changes are applied to the live index; a full
+ * rebuild loads the catalog into a new index beside it, replaces it, then applies again the
+ * products changed in the meantime. Products are always read from the primary: a lagging replica
+ * would put back the old version of a product whose change was just applied.
+ *
+ * @param <I> index type
+ * @param <D> what the index stores for one product
+ */
+@Slf4j
+abstract class AbstractProductIndexer<I extends ProductIndex<D>, D> {
+
+    private final String name;
+    private final int batchSize;
+    private final Object rebuildLock = new Object();
+
+    protected volatile I current;
+    // Khác null trong lúc rebuild: id sản phẩm đổi trong lúc đó, áp lại lên index mới sau khi thay
+    private volatile Set<Long> changedDuringRebuild;
+
+    // Index rỗng truyền vào từ subclass: newIndex() dùng field của subclass, chưa gán lúc này
+    protected AbstractProductIndexer(String name, int batchSize, I empty) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.current = empty;
+    }
+
+    protected abstract I newIndex();
+
+    /**
+     * @return up to limit products with an id greater than afterId, by id
+     */
+    protected abstract List<D> loadAfter(long afterId, int limit);
+
+    /**
+     * @return the products still in the catalog among productIds
+     */
+    protected abstract List<D> load(List<Long> productIds);
+
+    protected abstract Long idOf(D product);
+
+    protected void rebuildIndex() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+            I index = newIndex();
+            long afterId = 0;
+            List<D> batch;
+            do {
+                long after = afterId;
+                batch = ReplicaRouting.onPrimary(() -> loadAfter(after, batchSize));
+                batch.forEach(index::put);
+                if (!batch.isEmpty()) {
+                    afterId = idOf(batch.get(batch.size() - 1));
+                }
+            } while (batch.size() == batchSize);
+
+            current = index;
+            Set<Long> changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            reindex(changed);
+            log.info("Built product {} index, size={}, replayed={}, took={}ms",
+                    name, index.size(), changed.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Reload the products from DB, those no longer found are removed
+     */
+    protected void reindex(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        track(productIds);
+        I index = current;
+
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<Long, D> found = ReplicaRouting.onPrimary(() -> load(chunk)).stream()
+                    .collect(Collectors.toMap(this::idOf, Function.identity()));
+            for (Long productId : chunk) {
+                D product = found.get(productId);
+                if (product != null) {
+                    index.put(product);
+                } else {
+                    index.remove(productId);
+                }
+            }
+        }
+    }
+
+    protected void put(List<D> products) {
+        track(products.stream().map(this::idOf).toList());
+        I index = current;
+        products.forEach(index::put);
+    }
+
+    protected void remove(Long productId) {
+        track(List.of(productId));
+        current.remove(productId);
+    }
+
+    /**
+     * Remember the products for the rebuild in progress; called before reading {@link #current}
+     * so a change applied to the index being replaced is applied again to the new one
+     */
+    private void track(Collection<Long> productIds) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(productIds);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package backend_service.shop.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Set of non-negative int ids, compressed the way Roaring bitmaps are: ids are split into chunks
+ * of 65536 by their high 16 bits, a chunk holding up to 4096 ids is a sorted char array and a
+ * fuller one a 1024-long bitmap. A rare facet value costs 2 bytes per product, a common one 1 bit
+ * per id in the chunks it touches.
+ * <p>
+ * Not thread safe, the owner guards it.
+ */
+final class IdBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    // Chunk key (16 bit cao của id) tăng dần, containers[i] giữ 16 bit thấp của chunk keys[i]
+    private int[] keys = new int[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    void add(int id) {
+        int key = id >>> 16;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) id);
+    }
+
+    void remove(int id) {
+        int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) id);
+        if (container.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    boolean contains(int id) {
+        int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Ids in both bitmaps
+     */
+    static IdBitmap and(IdBitmap a, IdBitmap b) {
+        IdBitmap result = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container != null) {
+                    result.insertChunk(result.size, a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Size of {@link #and}, without building it
+     */
+    static long andCardinality(IdBitmap a, IdBitmap b) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                cardinality += a.containers[i].andCardinality(b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Ids in any of the bitmaps
+     */
+    static IdBitmap or(List<IdBitmap> bitmaps) {
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        TreeMap<Integer, long[]> chunks = new TreeMap<>();
+        for (IdBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                bitmap.containers[i].orInto(chunks.computeIfAbsent(bitmap.keys[i], key -> new long[BITMAP_WORDS]));
+            }
+        }
+        IdBitmap result = new IdBitmap();
+        chunks.forEach((key, words) -> result.insertChunk(result.size, key, BitmapContainer.of(words)));
+        return result;
+    }
+
+    /**
+     * Ids from the largest down, skipping the first offset
+     */
+    List<Integer> descending(long offset, int limit) {
+        List<Integer> ids = new ArrayList<>((int) Math.max(0, Math.min(limit, cardinality() - offset)));
+        for (int i = size - 1; i >= 0 && ids.size() < limit; i--) {
+            Container container = containers[i];
+            // Bỏ qua cả chunk khi còn phải bỏ qua nhiều hơn số id trong đó
+            if (offset >= container.cardinality) {
+                offset -= container.cardinality;
+                continue;
+            }
+            char[] values = container.toArray();
+            int high = keys[i] << 16;
+            for (int v = values.length - 1 - (int) offset; v >= 0 && ids.size() < limit; v--) {
+                ids.add(high | values[v]);
+            }
+            offset = 0;
+        }
+        return ids;
+    }
+
+    private void insertChunk(int index, int key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * The low 16 bits of the ids of one chunk. Updates return the container to keep,
+     * which is another kind once the cardinality crosses ARRAY_MAX.
+     */
+    private abstract static class Container {
+
+        int cardinality;
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        /**
+         * @return null when the intersection is empty
+         */
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract void orInto(long[] words);
+
+        abstract char[] toArray();
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        char[] values;
+
+        ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return BitmapContainer.of(this).add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return count == 0 ? null : new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        @Override
+        char[] toArray() {
+            return Arrays.copyOf(values, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        final long[] words;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer of(ArrayContainer array) {
+            long[] words = new long[BITMAP_WORDS];
+            array.orInto(words);
+            return new BitmapContainer(words, array.cardinality);
+        }
+
+        /**
+         * The smaller kind of container for these bits
+         */
+        static Container of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            return cardinality > ARRAY_MAX ? new BitmapContainer(words, cardinality) : toArray(words, cardinality);
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality > ARRAY_MAX ? this : toArray(words, cardinality);
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+            }
+            Container container = of(result);
+            return container.cardinality == 0 ? null : container;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                count += Long.bitCount(words[i] & otherWords[i]);
+            }
+            return count;
+        }
+
+        @Override
+        void orInto(long[] target) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                target[i] |= words[i];
+            }
+        }
+
+        @Override
+        char[] toArray() {
+            return toArray(words, cardinality).values;
+        }
+
+        private static ArrayContainer toArray(long[] words, int cardinality) {
+            char[] values = new char[Math.max(cardinality, 4)];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
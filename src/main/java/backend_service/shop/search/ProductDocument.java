@@ -0,0 +1,29 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import java.math.BigDecimal;
+
+/**
+ * The columns of a product that are searched, filtered on or returned in a hit
+ */
+public record ProductDocument(Long id,
+                              String name,
+                              String shortDescription,
+                              String description,
+                              String sku,
+                              BigDecimal price,
+                              BigDecimal salePrice,
+                              String thumbnail,
+                              ProductStatus status,
+                              ProductTag tag,
+                              Long categoryId,
+                              String categoryName) {
+
+    /**
+     * Price the shopper pays: the sale price when there is one
+     */
+    public BigDecimal effectivePrice() {
+        return salePrice != null ? salePrice : price;
+    }
+}
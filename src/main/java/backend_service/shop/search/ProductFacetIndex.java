@@ -0,0 +1,243 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory facet index over the product catalog: one compressed bitmap of product ids per
+ * category, status, tag, price band and stock state. A query ORs the selected values of each
+ * facet, ANDs the facets, and counts every facet value against the AND of the other facets,
+ * all under one read lock.
+ * <p>
+ * The current values of each product are kept in columns indexed by product id, so an update
+ * clears exactly the bits it set. Reads run in parallel, a write blocks them for the time of one product.
+ */
+public class ProductFacetIndex implements ProductIndex<ProductFacets> {
+
+    private static final int CATEGORY = 0;
+    private static final int STATUS = 1;
+    private static final int TAG = 2;
+    private static final int PRICE = 3;
+    private static final int STOCK = 4;
+    private static final int FACETS = 5;
+
+    // Cận dưới của band 1..n tăng dần, band 0 là giá dưới cận đầu tiên
+    private final BigDecimal[] priceBands;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IdBitmap all = new IdBitmap();
+    private final Map<Long, IdBitmap> byCategory = new HashMap<>();
+    private final Map<ProductStatus, IdBitmap> byStatus = new EnumMap<>(ProductStatus.class);
+    private final Map<ProductTag, IdBitmap> byTag = new EnumMap<>(ProductTag.class);
+    private final IdBitmap[] byPriceBand;
+    private final IdBitmap inStock = new IdBitmap();
+    private final IdBitmap soldOut = new IdBitmap();
+
+    // Giá trị hiện tại của từng product, theo id, để gỡ đúng bit khi product đổi
+    private long[] categories = new long[1024];
+    private byte[] statuses = new byte[1024];
+    private byte[] tags = new byte[1024];
+    private byte[] bands = new byte[1024];
+
+    public ProductFacetIndex(BigDecimal[] priceBands) {
+        this.priceBands = priceBands.clone();
+        Arrays.sort(this.priceBands);
+        this.byPriceBand = new IdBitmap[this.priceBands.length + 1];
+        for (int band = 0; band < byPriceBand.length; band++) {
+            byPriceBand[band] = new IdBitmap();
+        }
+        for (ProductStatus status : ProductStatus.values()) {
+            byStatus.put(status, new IdBitmap());
+        }
+        for (ProductTag tag : ProductTag.values()) {
+            byTag.put(tag, new IdBitmap());
+        }
+    }
+
+    /**
+     * Lower bounds of the price bands after the first, ascending
+     */
+    public List<BigDecimal> priceBands() {
+        return List.of(priceBands);
+    }
+
+    public int priceBand(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        int band = 0;
+        while (band < priceBands.length && price.compareTo(priceBands[band]) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * Add the product, replacing its previous values if it is indexed
+     */
+    @Override
+    public void put(ProductFacets facets) {
+        int id = Math.toIntExact(facets.id());
+        int band = priceBand(facets.effectivePrice());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (id >= categories.length) {
+                int length = Math.max(categories.length * 2, id + 1);
+                categories = Arrays.copyOf(categories, length);
+                statuses = Arrays.copyOf(statuses, length);
+                tags = Arrays.copyOf(tags, length);
+                bands = Arrays.copyOf(bands, length);
+            }
+            categories[id] = facets.categoryId();
+            statuses[id] = (byte) facets.status().ordinal();
+            tags[id] = (byte) facets.tag().ordinal();
+            bands[id] = (byte) band;
+
+            all.add(id);
+            byCategory.computeIfAbsent(facets.categoryId(), c -> new IdBitmap()).add(id);
+            byStatus.get(facets.status()).add(id);
+            byTag.get(facets.tag()).add(id);
+            byPriceBand[band].add(id);
+            (facets.inStock() ? inStock : soldOut).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(Math.toIntExact(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return all.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductFacetResult search(ProductFacetQuery query) {
+        lock.readLock().lock();
+        try {
+            // null: facet không lọc gì
+            IdBitmap[] filters = new IdBitmap[FACETS];
+            filters[CATEGORY] = anyOf(query.categoryIds(), byCategory::get);
+            filters[STATUS] = anyOf(query.statuses(), byStatus::get);
+            filters[TAG] = anyOf(query.tags(), byTag::get);
+            filters[PRICE] = anyOf(query.priceBands(), band -> band >= 0 && band < byPriceBand.length ? byPriceBand[band] : null);
+            filters[STOCK] = query.inStock() == null ? null : query.inStock() ? inStock : soldOut;
+
+            IdBitmap matches = allBut(filters, -1);
+            long total = matches.cardinality();
+            List<Long> productIds = matches.descending(query.offset(), query.limit()).stream()
+                    .map(Integer::longValue)
+                    .toList();
+
+            IdBitmap others = allBut(filters, CATEGORY);
+            Map<Long, Long> categoryCounts = new LinkedHashMap<>();
+            if (query.categoryBuckets() != null) {
+                for (Map.Entry<Long, Set<Long>> bucket : query.categoryBuckets().entrySet()) {
+                    IdBitmap inBucket = anyOf(bucket.getValue(), byCategory::get);
+                    categoryCounts.put(bucket.getKey(), inBucket == null ? 0L : IdBitmap.andCardinality(others, inBucket));
+                }
+            }
+
+            others = allBut(filters, STATUS);
+            Map<ProductStatus, Long> statusCounts = new EnumMap<>(ProductStatus.class);
+            for (Map.Entry<ProductStatus, IdBitmap> entry : byStatus.entrySet()) {
+                statusCounts.put(entry.getKey(), IdBitmap.andCardinality(others, entry.getValue()));
+            }
+
+            others = allBut(filters, TAG);
+            Map<ProductTag, Long> tagCounts = new EnumMap<>(ProductTag.class);
+            for (Map.Entry<ProductTag, IdBitmap> entry : byTag.entrySet()) {
+                tagCounts.put(entry.getKey(), IdBitmap.andCardinality(others, entry.getValue()));
+            }
+
+            others = allBut(filters, PRICE);
+            List<Long> priceBandCounts = new ArrayList<>(byPriceBand.length);
+            for (IdBitmap band : byPriceBand) {
+                priceBandCounts.add(IdBitmap.andCardinality(others, band));
+            }
+
+            others = allBut(filters, STOCK);
+            Map<Boolean, Long> stockCounts = Map.of(
+                    true, IdBitmap.andCardinality(others, inStock),
+                    false, IdBitmap.andCardinality(others, soldOut));
+
+            return new ProductFacetResult(total, productIds, categoryCounts, statusCounts, tagCounts, priceBandCounts, stockCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        if (!all.contains(id)) {
+            return;
+        }
+        all.remove(id);
+        IdBitmap category = byCategory.get(categories[id]);
+        category.remove(id);
+        if (category.cardinality() == 0) {
+            byCategory.remove(categories[id]);
+        }
+        byStatus.get(ProductStatus.values()[statuses[id]]).remove(id);
+        byTag.get(ProductTag.values()[tags[id]]).remove(id);
+        byPriceBand[bands[id]].remove(id);
+        inStock.remove(id);
+        soldOut.remove(id);
+    }
+
+    /**
+     * Products having any of the values, null when no value is selected
+     */
+    private static <T> IdBitmap anyOf(Collection<T> values, Function<T, IdBitmap> bitmap) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<IdBitmap> bitmaps = new ArrayList<>(values.size());
+        for (T value : values) {
+            IdBitmap found = bitmap.apply(value);
+            if (found != null) {
+                bitmaps.add(found);
+            }
+        }
+        return bitmaps.isEmpty() ? new IdBitmap() : IdBitmap.or(bitmaps);
+    }
+
+    /**
+     * AND of the facet filters except one (-1 for none), smallest first
+     */
+    private IdBitmap allBut(IdBitmap[] filters, int except) {
+        List<IdBitmap> selected = new ArrayList<>(FACETS);
+        for (int facet = 0; facet < FACETS; facet++) {
+            if (facet != except && filters[facet] != null) {
+                selected.add(filters[facet]);
+            }
+        }
+        if (selected.isEmpty()) {
+            return all;
+        }
+        selected.sort(Comparator.comparingLong(IdBitmap::cardinality));
+        IdBitmap result = selected.get(0);
+        for (int i = 1; i < selected.size(); i++) {
+            result = IdBitmap.and(result, selected.get(i));
+        }
+        return result;
+    }
+}
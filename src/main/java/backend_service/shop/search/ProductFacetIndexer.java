@@ -0,0 +1,120 @@
+package backend_service.shop.search;
+
+import backend_service.shop.event.ProductChangedEvent;
+import backend_service.shop.event.StockChangedEvent;
+import backend_service.shop.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the current {@link ProductFacetIndex}. Product writes are applied to it after commit.
+ * Orders change stock far more often than admins change products, so stock changes are only
+ * collected and reloaded in one query every facet.index.stock-refresh-interval-ms. A periodic
+ * full rebuild picks up writes made on other instances; products changed while it runs are
+ * applied again to the new index.
+ */
+@Component
+public class ProductFacetIndexer extends AbstractProductIndexer<ProductFacetIndex, ProductFacets> {
+
+    private final ProductRepository productRepository;
+    private final BigDecimal[] priceBands;
+    private final Timer searchTimer;
+
+    // Sản phẩm có đơn đặt/hủy chưa được nạp lại tồn kho
+    private final Set<Long> stockChanged = ConcurrentHashMap.newKeySet();
+
+    public ProductFacetIndexer(ProductRepository productRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${facet.index.batch-size:5000}") int batchSize,
+                               @Value("${facet.index.price-bands:100000,300000,500000,1000000}") BigDecimal[] priceBands) {
+        super("facet", batchSize, new ProductFacetIndex(priceBands));
+        this.productRepository = productRepository;
+        this.priceBands = priceBands;
+        this.searchTimer = Timer.builder("shop.facet.latency")
+                .description("Faceted product filtering served from the in-memory index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("shop.facet.index.documents", this, indexer -> indexer.current.size())
+                .description("Products in the facet index")
+                .register(meterRegistry);
+    }
+
+    public ProductFacetResult search(ProductFacetQuery query) {
+        return searchTimer.record(() -> current.search(query));
+    }
+
+    /**
+     * Lower bounds of the price bands after the first, ascending
+     */
+    public List<BigDecimal> priceBands() {
+        return current.priceBands();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${facet.index.refresh-interval-ms:900000}",
+            initialDelayString = "${facet.index.refresh-interval-ms:900000}")
+    public void rebuild() {
+        rebuildIndex();
+    }
+
+    @Scheduled(fixedDelayString = "${facet.index.stock-refresh-interval-ms:1000}")
+    public void refreshStock() {
+        if (stockChanged.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>();
+        for (Long productId : new ArrayList<>(stockChanged)) {
+            if (stockChanged.remove(productId)) {
+                productIds.add(productId);
+            }
+        }
+        reindex(productIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            remove(event.productId());
+        } else {
+            reindex(List.of(event.productId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        stockChanged.addAll(event.productIds());
+    }
+
+    @Override
+    protected ProductFacetIndex newIndex() {
+        return new ProductFacetIndex(priceBands);
+    }
+
+    @Override
+    protected List<ProductFacets> loadAfter(long afterId, int limit) {
+        return productRepository.findFacetsAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<ProductFacets> load(List<Long> productIds) {
+        return productRepository.findFacetsByIdIn(productIds);
+    }
+
+    @Override
+    protected Long idOf(ProductFacets product) {
+        return product.id();
+    }
+}
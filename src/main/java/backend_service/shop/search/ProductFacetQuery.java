@@ -0,0 +1,34 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A product must match every facet; within one facet, any of the selected values. Empty means any.
+ *
+ * @param categoryIds     categories the product is directly in; a category filter passes its whole subtree
+ * @param categoryBuckets category values to count: bucket id -> the categories counted in it, usually a child
+ *                        of the selected category and its subtree
+ * @param statuses        empty for any status
+ * @param tags            empty for any tag
+ * @param priceBands      indexes into the price bands of the index, empty for any price
+ * @param inStock         null for any stock
+ * @param offset          a long: page * size of a deep page does not fit an int
+ */
+public record ProductFacetQuery(Set<Long> categoryIds,
+                                Map<Long, Set<Long>> categoryBuckets,
+                                Set<ProductStatus> statuses,
+                                Set<ProductTag> tags,
+                                Set<Integer> priceBands,
+                                Boolean inStock,
+                                long offset,
+                                int limit) {
+
+    public ProductFacetQuery {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Each facet value is counted with the filters of the other facets applied but not its own,
+ * so the count is what the shopper gets by adding that value to the selection.
+ *
+ * @param total          products matching every facet
+ * @param productIds     the requested page, newest product first
+ * @param categoryCounts bucket id of {@link ProductFacetQuery#categoryBuckets()} -> products
+ * @param priceBandCounts products per price band, in band order
+ * @param stockCounts    true -> products in stock, false -> sold out
+ */
+public record ProductFacetResult(long total,
+                                 List<Long> productIds,
+                                 Map<Long, Long> categoryCounts,
+                                 Map<ProductStatus, Long> statusCounts,
+                                 Map<ProductTag, Long> tagCounts,
+                                 List<Long> priceBandCounts,
+                                 Map<Boolean, Long> stockCounts) {
+}
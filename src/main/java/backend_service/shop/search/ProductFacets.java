@@ -0,0 +1,28 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import java.math.BigDecimal;
+
+/**
+ * The columns of a product that shoppers filter on
+ */
+public record ProductFacets(Long id,
+                            Long categoryId,
+                            ProductStatus status,
+                            ProductTag tag,
+                            BigDecimal price,
+                            BigDecimal salePrice,
+                            Integer stockQuantity) {
+
+    /**
+     * Price the shopper pays: the sale price when there is one
+     */
+    public BigDecimal effectivePrice() {
+        return salePrice != null ? salePrice : price;
+    }
+
+    public boolean inStock() {
+        return stockQuantity != null && stockQuantity > 0;
+    }
+}
@@ -0,0 +1,15 @@
+package backend_service.shop.search;
+
+/**
+ * In-memory index kept by an {@link AbstractProductIndexer}
+ *
+ * @param <D> what the index stores for one product
+ */
+interface ProductIndex<D> {
+
+    void put(D product);
+
+    void remove(Long productId);
+
+    long size();
+}
@@ -0,0 +1,611 @@
+package backend_service.shop.search;
+
+import backend_service.shop.dto.response.ProductSearchHit;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the product catalog.
+ * <p>
+ * Every product gets an internal doc number, assigned in insertion order, so the posting list
+ * of a term (the docs containing it) is a sorted int array that only ever grows at the end.
+ * Each posting carries the term's precomputed weight in the doc: the sum over fields of
+ * field boost * tf / (tf + 1.2), so a word repeated in a description does not outweigh the name.
+ * The query score of a doc is the sum over query words of idf * weight. A query visits the matching
+ * docs from the newest down: when one word is rare it proposes docs and the others gallop to them
+ * (leapfrog), when all words are common their bitsets are ANDed. Once the page is full and
+ * totalHitsThreshold matches are counted,
+ * terms whose best weight can no longer reach the page are dropped and the walk stops when no
+ * term can; the total is then a lower bound, as in most search engines.
+ * <p>
+ * An update is a delete plus an insert under a new doc number; deleted docs stay in the posting
+ * lists as tombstones until the owner rebuilds the index ({@link #deletedRatio()}).
+ * Reads run in parallel, a write blocks them for the time of one product.
+ */
+public class ProductSearchIndex implements ProductIndex<ProductDocument> {
+
+    static final float NAME_BOOST = 3f;
+    static final float SKU_BOOST = 4f;
+    static final float CATEGORY_BOOST = 1.5f;
+    static final float SHORT_DESCRIPTION_BOOST = 1f;
+    static final float DESCRIPTION_BOOST = 0.5f;
+
+    // Từ khớp theo tiền tố xếp sau từ khớp nguyên vẹn
+    static final float PREFIX_FACTOR = 0.7f;
+
+    private static final float SATURATION = 1.2f;
+    private static final int NO_MORE_DOCS = -1;
+    private static final int LINEAR_SCAN = 8;
+    // Term có mặt trong ít nhất 1/64 số doc thì giữ thêm bitset: tốn không quá bản thân postings
+    private static final int DENSE_RATIO = 64;
+    private static final int DENSE_MIN_DOCS = 1024;
+
+    // Cùng thứ tự với mảng tf của termFrequencies
+    private static final float[] FIELD_BOOSTS = {NAME_BOOST, SKU_BOOST, CATEGORY_BOOST, SHORT_DESCRIPTION_BOOST, DESCRIPTION_BOOST};
+
+    private final int maxPrefixTerms;
+    private final int totalHitsThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Từ điển có thứ tự để mở rộng tiền tố bằng subMap
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private ProductDocument[] docs = new ProductDocument[1024];
+    // Cột dùng để lọc tách riêng khỏi docs: giá bán tính bằng xu, status/tag theo ordinal
+    private long[] priceCents = new long[1024];
+    private byte[] statuses = new byte[1024];
+    private byte[] tags = new byte[1024];
+    private int maxDoc;
+    private int liveDocs;
+
+    public ProductSearchIndex(int maxPrefixTerms, int totalHitsThreshold) {
+        this.maxPrefixTerms = maxPrefixTerms;
+        this.totalHitsThreshold = totalHitsThreshold;
+    }
+
+    /**
+     * Add the product, replacing the previous version if it is indexed
+     */
+    @Override
+    public void put(ProductDocument document) {
+        Map<String, float[]> termFrequencies = termFrequencies(document);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.id());
+            int doc = maxDoc++;
+            if (doc == docs.length) {
+                docs = Arrays.copyOf(docs, doc * 2);
+                priceCents = Arrays.copyOf(priceCents, doc * 2);
+                statuses = Arrays.copyOf(statuses, doc * 2);
+                tags = Arrays.copyOf(tags, doc * 2);
+            }
+            docs[doc] = document;
+            priceCents[doc] = cents(document.effectivePrice());
+            statuses[doc] = (byte) (document.status() != null ? document.status().ordinal() : -1);
+            tags[doc] = (byte) (document.tag() != null ? document.tag().ordinal() : -1);
+            docByProductId.put(document.id(), doc);
+            liveDocs++;
+
+            termFrequencies.forEach((term, tf) ->
+                    terms.computeIfAbsent(term, t -> new Postings()).add(doc, weight(tf)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductSearchResult search(ProductSearchQuery query) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TextFolding.tokens(query.text())));
+        int wanted = query.offset() + query.limit();
+        if (words.isEmpty() || wanted <= 0) {
+            return ProductSearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            Word[] matches = new Word[words.size()];
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = expand(words.get(i), query.prefix() && i == matches.length - 1);
+                if (matches[i].terms.length == 0) {
+                    return ProductSearchResult.EMPTY;
+                }
+            }
+            Arrays.sort(matches, Comparator.comparingLong(Word::cost));
+            Collector collector = new Collector(matches, new Filter(query), wanted);
+            if (matches[0].cost() * DENSE_RATIO >= maxDoc) {
+                collectDense(matches, collector);
+            } else {
+                collectLeapfrog(matches, collector);
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(collector.top);
+            ranked.sort(ScoredDoc.WORST_FIRST.reversed());
+            List<ProductSearchHit> hits = ranked.stream()
+                    .skip(query.offset())
+                    .map(scored -> toHit(docs[scored.doc], scored.score))
+                    .toList();
+            return new ProductSearchResult(collector.total, collector.totalExact, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Share of doc numbers taken by deleted or replaced versions, still scanned by queries
+     */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return maxDoc == 0 ? 0 : (double) (maxDoc - liveDocs) / maxDoc;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc != null) {
+            docs[doc] = null;
+            liveDocs--;
+        }
+    }
+
+    /**
+     * Some word is rare: it proposes docs and the other words gallop to them
+     */
+    private void collectLeapfrog(Word[] matches, Collector collector) {
+        Word lead = matches[0];
+        int doc = lead.advance(maxDoc - 1);
+        candidates:
+        while (doc != NO_MORE_DOCS) {
+            for (int i = 1; i < matches.length; i++) {
+                int next = matches[i].advance(doc);
+                if (next != doc) {
+                    doc = lead.advance(next);
+                    continue candidates;
+                }
+            }
+
+            if (!collector.collect(doc)) {
+                return;
+            }
+            if (collector.pruned) {
+                // Từ bị bỏ bớt term có thể không còn đắt nhất, chọn lại từ dẫn
+                collector.pruned = false;
+                Arrays.sort(matches, Comparator.comparingLong(Word::cost));
+                lead = matches[0];
+            }
+            doc = lead.advance(doc - 1);
+        }
+    }
+
+    /**
+     * Every word is common: AND their bitsets a long at a time, then walk the set bits newest first
+     */
+    private void collectDense(Word[] matches, Collector collector) {
+        long[] candidates = bits(matches[0]);
+        for (int i = 1; i < matches.length; i++) {
+            long[] bits = bits(matches[i]);
+            for (int j = 0; j < candidates.length; j++) {
+                candidates[j] &= bits[j];
+            }
+        }
+
+        for (int i = candidates.length - 1; i >= 0; i--) {
+            long word = candidates[i];
+            while (word != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(word);
+                word &= ~(1L << bit);
+                if (!collector.collect((i << 6) + bit)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Docs matching any term of the word
+     */
+    private long[] bits(Word word) {
+        long[] bits = new long[(maxDoc + 63) >>> 6];
+        for (TermCursor term : word.terms) {
+            Postings postings = term.postings;
+            if (postings.bits != null) {
+                // Mảng bits được nới theo cấp số nhân nên có thể dài hơn maxDoc
+                for (int i = 0, end = Math.min(postings.bits.length, bits.length); i < end; i++) {
+                    bits[i] |= postings.bits[i];
+                }
+            } else {
+                for (int i = 0; i < postings.size; i++) {
+                    bits[postings.docs[i] >>> 6] |= 1L << postings.docs[i];
+                }
+            }
+        }
+        return bits;
+    }
+
+    private static float maxScore(Word[] matches) {
+        float maxScore = 0;
+        for (Word word : matches) {
+            maxScore += word.maxScore;
+        }
+        return maxScore;
+    }
+
+    /**
+     * Drop the terms that cannot bring a doc above minScore even with every other word at its best
+     *
+     * @return true if a term was dropped
+     */
+    private static boolean dropNonCompetitive(Word[] matches, float minScore) {
+        float maxScore = maxScore(matches);
+        boolean dropped = false;
+        for (Word word : matches) {
+            float others = maxScore - word.maxScore;
+            dropped |= word.retainAbove(minScore - others);
+        }
+        return dropped;
+    }
+
+    private Word expand(String word, boolean prefix) {
+        List<TermCursor> cursors = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            cursors.add(new TermCursor(exact, idf(exact)));
+        }
+        if (prefix) {
+            for (Postings longer : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+                if (cursors.size() > maxPrefixTerms) {
+                    break;
+                }
+                cursors.add(new TermCursor(longer, idf(longer) * PREFIX_FACTOR));
+            }
+        }
+        cursors.sort(Comparator.comparingInt((TermCursor cursor) -> cursor.postings.size).reversed());
+        return new Word(cursors.toArray(new TermCursor[0]));
+    }
+
+    private float idf(Postings postings) {
+        int live = Math.max(liveDocs, 1);
+        return (float) Math.log(1 + (live - postings.size + 0.5) / (postings.size + 0.5));
+    }
+
+    private static float weight(float[] tf) {
+        float weight = 0;
+        for (int field = 0; field < tf.length; field++) {
+            if (tf[field] > 0) {
+                weight += FIELD_BOOSTS[field] * tf[field] / (tf[field] + SATURATION);
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * term -> occurrences per field, in the order name, sku, category, short description, description
+     */
+    private static Map<String, float[]> termFrequencies(ProductDocument document) {
+        Map<String, float[]> frequencies = new HashMap<>();
+        count(frequencies, 0, TextFolding.tokens(document.name()));
+        List<String> skuTokens = TextFolding.tokens(document.sku());
+        count(frequencies, 1, skuTokens);
+        if (skuTokens.size() > 1) {
+            // "AT-001" còn tìm được bằng "at001"
+            count(frequencies, 1, List.of(String.join("", skuTokens)));
+        }
+        count(frequencies, 2, TextFolding.tokens(document.categoryName()));
+        count(frequencies, 3, TextFolding.tokens(document.shortDescription()));
+        count(frequencies, 4, TextFolding.tokens(document.description()));
+        return frequencies;
+    }
+
+    private static void count(Map<String, float[]> frequencies, int field, List<String> tokens) {
+        for (String token : tokens) {
+            frequencies.computeIfAbsent(token, t -> new float[5])[field]++;
+        }
+    }
+
+    private static long cents(BigDecimal price) {
+        return price == null ? 0 : price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static ProductSearchHit toHit(ProductDocument document, float score) {
+        return ProductSearchHit.builder()
+                .id(document.id())
+                .name(document.name())
+                .sku(document.sku())
+                .price(document.price())
+                .salePrice(document.salePrice())
+                .thumbnail(document.thumbnail())
+                .status(document.status())
+                .tag(document.tag())
+                .categoryId(document.categoryId())
+                .categoryName(document.categoryName())
+                .score(score)
+                .build();
+    }
+
+    /**
+     * Docs containing a term, in increasing doc order, with the term's weight in each
+     */
+    private static final class Postings {
+
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+        // Cận trên cho mọi doc, không giảm khi doc bị xóa
+        float maxWeight;
+        // Chỉ có với term phổ biến, bit thứ doc bật khi doc chứa term
+        long[] bits;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+            maxWeight = Math.max(maxWeight, weight);
+
+            if (bits != null) {
+                if (doc >>> 6 >= bits.length) {
+                    bits = Arrays.copyOf(bits, Math.max(bits.length * 2, (doc >>> 6) + 1));
+                }
+                bits[doc >>> 6] |= 1L << doc;
+            } else if (size >= DENSE_MIN_DOCS && (long) size * DENSE_RATIO >= doc) {
+                bits = new long[(doc >>> 6) + 1];
+                for (int i = 0; i < size; i++) {
+                    bits[docs[i] >>> 6] |= 1L << docs[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the postings of one term backward, newest doc first, for one query
+     */
+    private static final class TermCursor {
+
+        final Postings postings;
+        final float idf;
+        int position;
+
+        TermCursor(Postings postings, float idf) {
+            this.postings = postings;
+            this.idf = idf;
+            this.position = postings.size - 1;
+        }
+
+        int doc() {
+            return position >= 0 ? postings.docs[position] : NO_MORE_DOCS;
+        }
+
+        /**
+         * Move to the last doc <= target: a short scan for the common small step, then galloping
+         * and binary search, so skipping far back in a long list costs a few probes
+         */
+        int advance(int target) {
+            int[] docs = postings.docs;
+            int end = Math.max(position - LINEAR_SCAN, -1);
+            while (position > end && docs[position] > target) {
+                position--;
+            }
+            if (position < 0 || docs[position] <= target) {
+                return doc();
+            }
+            int high = position;
+            int step = 1;
+            int low = position - 1;
+            while (low >= 0 && docs[low] > target) {
+                high = low;
+                step <<= 1;
+                low = high - step;
+            }
+            int index = Arrays.binarySearch(docs, Math.max(low, 0), high, target);
+            position = index >= 0 ? index : -index - 2;
+            return doc();
+        }
+
+        float score() {
+            return idf * postings.weights[position];
+        }
+
+        float maxScore() {
+            return idf * postings.maxWeight;
+        }
+    }
+
+    /**
+     * One query word: the exact term and, for a prefix, the longer terms it expands to.
+     * Its current doc is the largest current doc of its terms.
+     */
+    private static final class Word {
+
+        TermCursor[] terms;
+        float maxScore;
+        int doc = Integer.MAX_VALUE;
+
+        Word(TermCursor[] terms) {
+            this.terms = terms;
+            this.maxScore = maxScore(terms);
+        }
+
+        long cost() {
+            long cost = 0;
+            for (TermCursor term : terms) {
+                cost += term.postings.size;
+            }
+            return cost;
+        }
+
+        private static float maxScore(TermCursor[] terms) {
+            float max = 0;
+            for (TermCursor term : terms) {
+                max = Math.max(max, term.maxScore());
+            }
+            return max;
+        }
+
+        boolean retainAbove(float minScore) {
+            TermCursor[] competitive = Arrays.stream(terms)
+                    .filter(term -> term.maxScore() > minScore)
+                    .toArray(TermCursor[]::new);
+            if (competitive.length == terms.length) {
+                return false;
+            }
+            terms = competitive;
+            maxScore = maxScore(competitive);
+            // Doc hiện tại có thể đến từ term vừa bỏ, tính lại ở lần advance sau
+            doc = Integer.MAX_VALUE;
+            return true;
+        }
+
+        int advance(int target) {
+            if (doc <= target) {
+                return doc;
+            }
+            // Term phổ biến nhất đứng đầu: thường chứa luôn target nên không cần nhảy các term còn lại
+            doc = NO_MORE_DOCS;
+            for (TermCursor term : terms) {
+                int next = term.advance(target);
+                if (next == target) {
+                    doc = target;
+                    return doc;
+                }
+                doc = Math.max(doc, next);
+            }
+            return doc;
+        }
+
+        /**
+         * Best matching term of the word in the doc, called with decreasing docs
+         */
+        float score(int doc) {
+            float best = 0;
+            for (TermCursor term : terms) {
+                if (term.advance(doc) == doc) {
+                    best = Math.max(best, term.score());
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Counts the matching docs and keeps the best ones, fed newest doc first
+     */
+    private final class Collector {
+
+        final Word[] matches;
+        // Từ ít term chấm điểm trước: rẻ, và thường đủ để biết doc không vào được top
+        final Word[] scoringOrder;
+        final Filter filter;
+        final int wanted;
+        final PriorityQueue<ScoredDoc> top;
+        long total;
+        boolean totalExact = true;
+        // Bật khi vừa bỏ bớt term, cho vòng leapfrog chọn lại từ dẫn
+        boolean pruned;
+        private float maxScore;
+        private float prunedAt = Float.NEGATIVE_INFINITY;
+
+        Collector(Word[] matches, Filter filter, int wanted) {
+            this.matches = matches;
+            this.scoringOrder = matches.clone();
+            Arrays.sort(scoringOrder, Comparator.comparingInt((Word word) -> word.terms.length));
+            this.filter = filter;
+            this.wanted = wanted;
+            // Không cấp sẵn theo wanted: phần lớn truy vấn khớp ít hơn nhiều so với offset + limit
+            this.top = new PriorityQueue<>(ScoredDoc.WORST_FIRST);
+            this.maxScore = maxScore(matches);
+        }
+
+        /**
+         * @return false when no later doc can make it into the page any more
+         */
+        boolean collect(int doc) {
+            if (docs[doc] == null || !filter.accepts(doc)) {
+                return true;
+            }
+            total++;
+            // Đi từ doc mới xuống nên điểm bằng nhau thì doc đã có trong top thắng
+            float minScore = top.size() < wanted ? Float.NEGATIVE_INFINITY : top.peek().score;
+            float score = 0;
+            float remaining = maxScore;
+            for (Word word : scoringOrder) {
+                if (score + remaining <= minScore) {
+                    break;
+                }
+                score += word.score(doc);
+                remaining -= word.maxScore;
+            }
+            if (score > minScore) {
+                top.add(new ScoredDoc(doc, score));
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            // Đã đếm đủ ngưỡng: chỉ còn tìm doc lọt được vào top, bỏ term không thể đạt tới
+            if (top.size() == wanted && total >= totalHitsThreshold && top.peek().score > prunedAt) {
+                prunedAt = top.peek().score;
+                if (dropNonCompetitive(matches, prunedAt)) {
+                    totalExact = false;
+                    pruned = true;
+                    maxScore = maxScore(matches);
+                    return Arrays.stream(matches).allMatch(word -> word.terms.length > 0);
+                }
+            }
+            return true;
+        }
+    }
+
+    private final class Filter {
+
+        private final ProductSearchQuery query;
+        private final long minCents;
+        private final long maxCents;
+
+        Filter(ProductSearchQuery query) {
+            this.query = query;
+            this.minCents = query.minPrice() != null ? cents(query.minPrice()) : Long.MIN_VALUE;
+            this.maxCents = query.maxPrice() != null ? cents(query.maxPrice()) : Long.MAX_VALUE;
+        }
+
+        boolean accepts(int doc) {
+            return (query.status() == null || query.status().ordinal() == statuses[doc])
+                    && (query.tag() == null || query.tag().ordinal() == tags[doc])
+                    && priceCents[doc] >= minCents && priceCents[doc] <= maxCents;
+        }
+    }
+
+    private record ScoredDoc(int doc, float score) {
+
+        // Điểm bằng nhau thì sản phẩm mới hơn (doc lớn hơn) đứng trước
+        static final Comparator<ScoredDoc> WORST_FIRST = Comparator.comparingDouble(ScoredDoc::score)
+                .thenComparingInt(ScoredDoc::doc);
+    }
+}
@@ -0,0 +1,116 @@
+package backend_service.shop.search;
+
+import backend_service.shop.datasource.ReplicaRouting;
+import backend_service.shop.event.CategoryChangedEvent;
+import backend_service.shop.event.ProductChangedEvent;
+import backend_service.shop.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.List;
+
+/**
+ * Owns the current {@link ProductSearchIndex}. Local product and category writes are applied to it
+ * after commit; a periodic full rebuild picks up writes made on other instances and drops the
+ * tombstones left by updates. The rebuild runs beside the live index and replaces it when done,
+ * products changed in the meantime are applied again to the new one.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndexer extends AbstractProductIndexer<ProductSearchIndex, ProductDocument> {
+
+    private final ProductRepository productRepository;
+    private final int maxPrefixTerms;
+    private final int totalHitsThreshold;
+    private final double maxDeletedRatio;
+    private final Timer searchTimer;
+
+    public ProductSearchIndexer(ProductRepository productRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${search.index.batch-size:1000}") int batchSize,
+                                @Value("${search.index.max-prefix-terms:64}") int maxPrefixTerms,
+                                @Value("${search.index.total-hits-threshold:1000}") int totalHitsThreshold,
+                                @Value("${search.index.max-deleted-ratio:0.2}") double maxDeletedRatio) {
+        super("search", batchSize, new ProductSearchIndex(maxPrefixTerms, totalHitsThreshold));
+        this.productRepository = productRepository;
+        this.maxPrefixTerms = maxPrefixTerms;
+        this.totalHitsThreshold = totalHitsThreshold;
+        this.maxDeletedRatio = maxDeletedRatio;
+        this.searchTimer = Timer.builder("shop.search.latency")
+                .description("Product search served from the in-memory index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("shop.search.index.documents", this, indexer -> indexer.current.size())
+                .description("Products in the search index")
+                .register(meterRegistry);
+    }
+
+    public ProductSearchResult search(ProductSearchQuery query) {
+        return searchTimer.record(() -> current.search(query));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:900000}",
+            initialDelayString = "${search.index.refresh-interval-ms:900000}")
+    public void rebuild() {
+        rebuildIndex();
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.compact-check-interval-ms:60000}",
+            initialDelayString = "${search.index.compact-check-interval-ms:60000}")
+    public void compactIfNeeded() {
+        double deletedRatio = current.deletedRatio();
+        if (deletedRatio > maxDeletedRatio) {
+            log.info("Product search index is {}% tombstones, rebuilding", Math.round(deletedRatio * 100));
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            remove(event.productId());
+        } else {
+            reindex(List.of(event.productId()));
+        }
+    }
+
+    /**
+     * The category name is indexed with each product, a rename reindexes the products of the category
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.deleted()) {
+            return;
+        }
+        put(ReplicaRouting.onPrimary(() -> productRepository.findSearchDocumentsByCategoryId(event.categoryId())));
+    }
+
+    @Override
+    protected ProductSearchIndex newIndex() {
+        return new ProductSearchIndex(maxPrefixTerms, totalHitsThreshold);
+    }
+
+    @Override
+    protected List<ProductDocument> loadAfter(long afterId, int limit) {
+        return productRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<ProductDocument> load(List<Long> productIds) {
+        return productRepository.findSearchDocumentsByIdIn(productIds);
+    }
+
+    @Override
+    protected Long idOf(ProductDocument product) {
+        return product.id();
+    }
+}
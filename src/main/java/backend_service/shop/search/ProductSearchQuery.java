@@ -0,0 +1,33 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import java.math.BigDecimal;
+
+/**
+ * @param text     every word must match one of name, short description, description, sku or category name
+ * @param prefix   the last word also matches longer words (typeahead): "ao th" finds "áo thun"
+ * @param status   null for any status
+ * @param tag      null for any tag
+ * @param minPrice inclusive, on the sale price when there is one; null for no bound
+ * @param maxPrice inclusive, same as minPrice
+ * @param offset   offset + limit is at most {@link #MAX_RESULT_WINDOW}
+ */
+public record ProductSearchQuery(String text,
+                                 boolean prefix,
+                                 ProductStatus status,
+                                 ProductTag tag,
+                                 BigDecimal minPrice,
+                                 BigDecimal maxPrice,
+                                 int offset,
+                                 int limit) {
+
+    // Index giữ offset + limit doc tốt nhất trong heap: không cho trang sâu tùy ý
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    public ProductSearchQuery {
+        if (offset < 0 || limit < 0 || (long) offset + limit > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("offset + limit must be within " + MAX_RESULT_WINDOW);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package backend_service.shop.search;
+
+import backend_service.shop.dto.response.ProductSearchHit;
+import java.util.List;
+
+/**
+ * @param total      all products matching the query and filters, or a lower bound when not totalExact
+ * @param totalExact false when counting stopped early, past the index's total hits threshold
+ * @param hits       the requested page, best match first
+ */
+public record ProductSearchResult(long total, boolean totalExact, List<ProductSearchHit> hits) {
+
+    public static final ProductSearchResult EMPTY = new ProductSearchResult(0, true, List.of());
+}
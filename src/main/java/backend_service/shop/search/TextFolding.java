@@ -0,0 +1,51 @@
+package backend_service.shop.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lower-cases and strips Vietnamese diacritics so "Áo thun", "ao thun" and "ÁO THUN"
+ * index and match the same terms: tones and vowel marks are removed by NFD decomposition,
+ * đ/Đ (not a combining mark) is mapped to d.
+ */
+public final class TextFolding {
+
+    private TextFolding() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char ch = decomposed.charAt(i);
+            if (Character.getType(ch) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            folded.append(ch == 'đ' || ch == 'Đ' ? 'd' : Character.toLowerCase(ch));
+        }
+        return folded.toString();
+    }
+
+    /**
+     * @return folded words, anything that is not a letter or a digit separates two words
+     */
+    public static List<String> tokens(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
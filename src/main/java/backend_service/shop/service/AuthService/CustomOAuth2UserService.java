@@ -2,6 +2,9 @@ package backend_service.shop.service.AuthService;
 
 import backend_service.shop.entity.User;
 import backend_service.shop.repository.UserRepository;
+import backend_service.shop.tracing.Span;
+import backend_service.shop.tracing.SpanKind;
+import backend_service.shop.tracing.Tracing;
 import backend_service.shop.util.AuthProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -73,12 +76,15 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
         HttpEntity<?> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                "https://api.github.com/user/emails",
-                HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<>() {}
-        );
+        ResponseEntity<List<Map<String, Object>>> response;
+        try (Span ignored = Tracing.start(SpanKind.EXTERNAL, "GET api.github.com/user/emails")) {
+            response = restTemplate.exchange(
+                    "https://api.github.com/user/emails",
+                    HttpMethod.GET,
+                    entity,
+                    new ParameterizedTypeReference<>() {}
+            );
+        }
 
         if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
             for (Map<String, Object> emailEntry : response.getBody()) {
@@ -0,0 +1,58 @@
+package backend_service.shop.service.AuthService;
+
+import backend_service.shop.util.UserStatus;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built from the access token and a cached user snapshot, without loading the User entity
+ */
+@Getter
+public class JwtPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final UserStatus status;
+    private final List<SimpleGrantedAuthority> authorities;
+
+    public JwtPrincipal(UserAuthSnapshot snapshot) {
+        this.userId = snapshot.getUserId();
+        this.username = snapshot.getUsername();
+        this.status = snapshot.getStatus();
+        this.authorities = snapshot.getRoles().stream().map(SimpleGrantedAuthority::new).toList();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return UserStatus.ACTIVE.equals(status);
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
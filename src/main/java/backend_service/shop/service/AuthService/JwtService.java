@@ -11,6 +11,11 @@ public interface JwtService {
 
     String generateRefreshToken(UserDetails user);
 
+    /**
+     * Verify the token once and return its claims. Fails if the signature is invalid or the token expired.
+     */
+    TokenClaims parseToken(String token, TokenType type);
+
     String extractUsername(String token, TokenType type);
 
     boolean isValid(String token, TokenType type, UserDetails user);
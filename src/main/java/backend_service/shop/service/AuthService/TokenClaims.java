@@ -0,0 +1,25 @@
+package backend_service.shop.service.AuthService;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Claims of a token whose signature has already been verified
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class TokenClaims implements Serializable {
+
+    private final String username;
+    private final Long userId;          // null với token cũ chưa có claim này
+    private final Date issuedAt;
+    private final Date expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,20 @@
+package backend_service.shop.service.AuthService;
+
+import backend_service.shop.util.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Status and role names of a user, all the request filter needs to authorize a request
+ */
+@Getter
+@AllArgsConstructor
+public class UserAuthSnapshot implements Serializable {
+
+    private final Long userId;
+    private final String username;
+    private final UserStatus status;
+    private final List<String> roles;
+}
@@ -25,6 +25,17 @@ public interface CartDetailService {
      */
     CartDetailResponse updateQuantity(Long cartDetailId, int quantity);
 
+    /**
+     * Update the quantity of a product in the cart.
+     * Works for lines that have not been written to the database yet.
+     *
+     * @param cartId    ID of the cart
+     * @param productId ID of the product
+     * @param quantity  New quantity (if <= 0, item will be removed)
+     * @return Updated CartDetailResponse, or null if removed
+     */
+    CartDetailResponse updateQuantity(Long cartId, Long productId, int quantity);
+
     /**
      * Remove a specific item from the cart.
      *
@@ -32,6 +43,14 @@ public interface CartDetailService {
      */
     void removeProductFromCart(Long cartDetailId);
 
+    /**
+     * Remove a product from the cart.
+     *
+     * @param cartId    ID of the cart
+     * @param productId ID of the product
+     */
+    void removeProductFromCart(Long cartId, Long productId);
+
     /**
      * Remove all items in a given cart.
      *
@@ -1,10 +1,10 @@
 package backend_service.shop.service;
 
 import backend_service.shop.dto.request.CartRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
 import backend_service.shop.dto.response.CartResponse;
 import backend_service.shop.dto.response.OrderResponse;
 import backend_service.shop.dto.response.system.PageResponse;
-import backend_service.shop.entity.Cart;
 
 public interface CartService {
 
@@ -32,13 +32,6 @@ public interface CartService {
      */
     CartResponse getCartByUserId(Long userId);
 
-    /**
-     * Updates the cart entity.
-     *
-     * @param cart the Cart entity to update
-     */
-    void updateCart(Cart cart);
-
     /**
      * Deletes a cart by its ID.
      *
@@ -55,6 +48,16 @@ public interface CartService {
      */
     PageResponse<?> getAllCart(int page, int size);
 
+    /**
+     * Retrieves a page of carts after the given cursor, newest first, without OFFSET.
+     *
+     * @param after     cursor returned by the previous page, null for the first page
+     * @param size      the number of items per page
+     * @param withTotal whether to also count all carts
+     * @return a PageResponse containing CartResponse data and the next cursor
+     */
+    PageResponse<?> getAllCartAfter(String after, int size, boolean withTotal);
+
     /**
      * Clears all items from a user's cart.
      *
@@ -72,8 +75,9 @@ public interface CartService {
     /**
      * Proceeds to checkout for the given user's cart and creates an order.
      *
-     * @param userId the ID of the user checking out
+     * @param userId  the ID of the user checking out
+     * @param request shipping, payment and discount of the order; its order details are ignored
      * @return an OrderResponse containing order summary and confirmation
      */
-    OrderResponse checkoutCart(Long userId);
+    OrderResponse checkoutCart(Long userId, OrderRequestDTO request);
 }
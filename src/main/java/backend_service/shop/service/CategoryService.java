@@ -19,6 +19,10 @@ public interface CategoryService {
 
     PageResponse<?> getListCategory(int page, int size);
 
+    PageResponse<?> getListCategoryAfter(String after, int size, boolean withTotal);
+
     List<CategoryTreeResponse> getAllCategoryTree();
 
+    List<CategoryResponse> getCategoryPath(Long categoryId);
+
 }
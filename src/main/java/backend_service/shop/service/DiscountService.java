@@ -1,9 +1,9 @@
 package backend_service.shop.service;
 
+import backend_service.shop.cache.DiscountRule;
 import backend_service.shop.dto.request.DiscountRequestDTO;
 import backend_service.shop.dto.response.DiscountResponse;
 import backend_service.shop.dto.response.system.PageResponse;
-import backend_service.shop.entity.Discount;
 
 public interface DiscountService {
 
@@ -48,12 +48,23 @@ public interface DiscountService {
      */
     PageResponse<?> getAll(int page, int size);
 
+    /**
+     * Get discounts after the given cursor (keyset pagination, newest first).
+     *
+     * @param after     cursor of the previous page, null for the first page
+     * @param size      the number of items per page
+     * @param withTotal whether to count all discounts
+     * @return a page of discounts with the next cursor
+     */
+    PageResponse<?> getAllAfter(String after, int size, boolean withTotal);
+
     /**
      * Validate and return a discount by code.
      * Typically used when applying a discount to an order.
+     * Served from the in-memory discount catalog, without a database round trip.
      *
-     * @param code the discount code
-     * @return the valid Discount entity
+     * @param code the discount code, matched case-insensitively
+     * @return the valid discount rule
      */
-    Discount getValidDiscountByCode(String code);
+    DiscountRule getValidDiscountByCode(String code);
 }
@@ -0,0 +1,27 @@
+package backend_service.shop.service;
+
+import java.util.Map;
+
+public interface InventoryService {
+
+    /**
+     * Take stock for every product of an order, all or nothing.
+     * Must run inside the order transaction: a failure rolls back what was already taken.
+     *
+     * @param quantities productId -> quantity
+     */
+    void reserve(Map<Long, Integer> quantities);
+
+    /**
+     * Give back the stock of a cancelled order.
+     *
+     * @param quantities productId -> quantity
+     */
+    void release(Map<Long, Integer> quantities);
+
+    /**
+     * Cheap pre-check before any row is touched; false only when the same or a smaller
+     * quantity of the product was rejected recently.
+     */
+    boolean mightBeAvailable(Long productId, int quantity);
+}
@@ -1,14 +1,20 @@
 package backend_service.shop.service;
 
-import backend_service.shop.entity.Order;
-
 public interface InvoiceService {
 
     /**
-     * Create pdf file to save order information
+     * Write an invoice outbox row in the current (order) transaction.
+     * The invoice is rendered and mailed by a background worker after commit.
+     *
+     * @param orderId
+     */
+    void scheduleInvoiceForOrder(Long orderId);
+
+    /**
+     * Create pdf file to save order information and send it to the customer
      *
-     * @param order
+     * @param orderId
      */
-    void generateInvoiceForOrder(Order order);
+    void generateInvoiceForOrder(Long orderId);
 
 }
@@ -3,6 +3,7 @@ package backend_service.shop.service;
 import backend_service.shop.dto.response.OrderDetailResponse;
 import backend_service.shop.dto.response.ProductSalesReport;
 import backend_service.shop.dto.response.system.PageResponse;
+import backend_service.shop.util.SalesWindow;
 import java.util.List;
 
 public interface OrderDetailService {
@@ -23,8 +24,13 @@ public interface OrderDetailService {
     PageResponse<?> getAllOrderDetails(int page, int size);
 
     /**
-     * Thống kê: tổng số sản phẩm đã bán, doanh thu, v.v.
+     * Admin: chi tiết đơn hàng theo cursor (keyset), mới nhất trước.
      */
-    List<ProductSalesReport> getTopSellingProducts(int limit);
+    PageResponse<?> getAllOrderDetailsAfter(String after, int size, boolean withTotal);
+
+    /**
+     * Thống kê: tổng số sản phẩm đã bán, doanh thu trong khoảng thời gian (hôm nay, 7 ngày, 30 ngày, toàn bộ).
+     */
+    List<ProductSalesReport> getTopSellingProducts(SalesWindow window, int limit);
 
 }
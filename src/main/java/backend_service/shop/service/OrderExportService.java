@@ -0,0 +1,13 @@
+package backend_service.shop.service;
+
+import backend_service.shop.util.ExportFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface OrderExportService {
+
+    /**
+     * Admin: ghi toàn bộ đơn hàng (kèm order lines) ra stream theo định dạng yêu cầu.
+     */
+    void exportOrders(ExportFormat format, OutputStream out) throws IOException;
+}
@@ -38,4 +38,9 @@ public interface OrderService {
      */
     PageResponse<?> getAllOrders(int page, int size);
 
+    /**
+     * Admin: Get orders after a cursor, newest first (no OFFSET, COUNT only when withTotal).
+     */
+    PageResponse<?> getAllOrdersAfter(String after, int size, boolean withTotal);
+
 }
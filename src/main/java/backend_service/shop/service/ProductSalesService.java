@@ -0,0 +1,38 @@
+package backend_service.shop.service;
+
+import backend_service.shop.dto.response.ProductSalesReport;
+import backend_service.shop.entity.OrderDetail;
+import backend_service.shop.util.SalesWindow;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductSalesService {
+
+    /**
+     * Add the lines of a new order to the sales counters.
+     * Must run inside the order transaction: the lines are only counted once it commits.
+     *
+     * @param orderDate day the order was placed
+     */
+    void recordOrder(Long orderId, LocalDate orderDate, List<OrderDetail> details);
+
+    /**
+     * Take the lines of a cancelled order back out of the counters of the day it was placed.
+     */
+    void reverseOrder(Long orderId, LocalDate orderDate, List<OrderDetail> details);
+
+    /**
+     * Best sellers of the window by quantity, served from memory up to sales.ranking.max-k.
+     */
+    List<ProductSalesReport> getTopSelling(SalesWindow window, int limit);
+
+    /**
+     * Recompute the counters from tbl_order_detail. Deltas not yet written back are still written
+     * for the orders the rebuild did not count.
+     *
+     * @return number of (product, day) rows written
+     */
+    int rebuild();
+
+    boolean hasCounters();
+}
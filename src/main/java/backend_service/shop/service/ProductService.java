@@ -1,8 +1,12 @@
 package backend_service.shop.service;
 
+import backend_service.shop.dto.request.ProductFilterRequest;
 import backend_service.shop.dto.request.ProductRequestDTO;
+import backend_service.shop.dto.response.ProductFacetResponse;
 import backend_service.shop.dto.response.ProductResponse;
+import backend_service.shop.dto.response.ProductSearchHit;
 import backend_service.shop.dto.response.system.PageResponse;
+import backend_service.shop.search.ProductSearchQuery;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -17,4 +21,12 @@ public interface ProductService {
     ProductResponse getProductById(Long id);
 
     PageResponse<?> getListProduct(int page, int size);
+
+    PageResponse<?> getListProductAfter(String after, int size, boolean withTotal);
+
+    PageResponse<?> searchProducts(ProductSearchQuery query);
+
+    List<ProductSearchHit> suggestProducts(String text, int limit);
+
+    ProductFacetResponse filterProducts(ProductFilterRequest request);
 }
\ No newline at end of file
@@ -29,5 +29,7 @@ public interface UserService {
 
     PageResponse<?> getAllUsers(int pageNo, int pageSize);
 
+    PageResponse<?> getAllUsersAfter(String after, int pageSize, boolean withTotal);
+
     List<String> findAllRolesByUserId(long userId);
 }
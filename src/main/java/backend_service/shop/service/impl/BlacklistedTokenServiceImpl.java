@@ -1,12 +1,18 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.TokenRevocationCache;
 import backend_service.shop.entity.BlacklistedToken;
 import backend_service.shop.repository.BlacklistedTokenRepository;
 import backend_service.shop.service.AuthService.BlacklistedTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Service
 @Slf4j
@@ -14,6 +20,10 @@ import java.time.LocalDateTime;
 public class BlacklistedTokenServiceImpl implements BlacklistedTokenService {
 
     private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationCache tokenRevocationCache;
+
+    // Mốc thời gian của lần đồng bộ gần nhất với tbl_blacklisted_token
+    private volatile LocalDateTime lastSyncAt;
 
     /**
      * @param token
@@ -24,18 +34,61 @@ public class BlacklistedTokenServiceImpl implements BlacklistedTokenService {
 
         log.info("====Save token in DB=====");
 
-        blacklistedTokenRepository.save(BlacklistedToken.builder()
+        BlacklistedToken blacklistedToken = blacklistedTokenRepository.save(BlacklistedToken.builder()
                         .token(token)
-                        .expiredAt(LocalDateTime.now().plusMinutes(expiryMillis))
+                        .expiredAt(LocalDateTime.now().plus(expiryMillis, ChronoUnit.MILLIS))
                         .build());
+
+        tokenRevocationCache.add(token, blacklistedToken.getExpiredAt());
     }
 
     /**
+     * Only tokens found in the in-memory revocation cache are confirmed against the DB
+     *
      * @param token
      * @return
      */
     @Override
     public boolean isBlacklisted(String token) {
+        if (!tokenRevocationCache.mightContain(token)) {
+            return false;
+        }
         return blacklistedTokenRepository.existsByToken(token);
     }
+
+    /**
+     * Load every not yet expired token into the revocation cache at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BlacklistedToken> tokens = blacklistedTokenRepository.findByExpiredAtAfter(now);
+        tokens.forEach(t -> tokenRevocationCache.add(t.getToken(), t.getExpiredAt()));
+        lastSyncAt = now;
+
+        log.info("Loaded {} revoked tokens into memory", tokens.size());
+    }
+
+    /**
+     * Pick up tokens revoked by other instances and drop expired entries
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.sync-interval-ms:30000}",
+            initialDelayString = "${jwt.blacklist.sync-interval-ms:30000}")
+    public void syncRevokedTokens() {
+        if (lastSyncAt == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Lùi lại 1 chút để không bỏ sót bản ghi commit muộn
+        LocalDateTime since = lastSyncAt.minusSeconds(5);
+        blacklistedTokenRepository.findByCreatedAtAfterAndExpiredAtAfter(since, now)
+                .forEach(t -> tokenRevocationCache.add(t.getToken(), t.getExpiredAt()));
+        lastSyncAt = now;
+
+        int evicted = tokenRevocationCache.evictExpired();
+        if (evicted > 0) {
+            log.info("Evicted {} expired tokens from revocation cache", evicted);
+        }
+    }
 }
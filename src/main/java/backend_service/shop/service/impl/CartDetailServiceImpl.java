@@ -1,14 +1,15 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.CartLine;
+import backend_service.shop.cache.CartStore;
 import backend_service.shop.dto.request.CartDetailRequestDTO;
 import backend_service.shop.dto.response.CartDetailResponse;
 import backend_service.shop.dto.response.system.PageResponse;
-import backend_service.shop.entity.Cart;
 import backend_service.shop.entity.CartDetail;
 import backend_service.shop.entity.Product;
+import backend_service.shop.exception.InvalidDataException;
 import backend_service.shop.exception.ResourceNotFoundException;
 import backend_service.shop.repository.CartDetailRepository;
-import backend_service.shop.repository.CartRepository;
 import backend_service.shop.repository.ProductRepository;
 import backend_service.shop.service.CartDetailService;
 import lombok.RequiredArgsConstructor;
@@ -17,9 +18,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,89 +26,57 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CartDetailServiceImpl implements CartDetailService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final CartDetailRepository cartDetailRepository;
     private final ProductRepository productRepository;
 
     @Override
-    @Transactional
     public CartDetailResponse addToCart(Long cartId, CartDetailRequestDTO request) {
-        Cart cart = getCartById(cartId);
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new InvalidDataException("Quantity must be positive for productId=" + request.getProductId());
+        }
         Product product = getProductById(request.getProductId());
 
-        Optional<CartDetail> optionalDetail = cart.getCartDetails().stream()
-                .filter(cd -> cd.getProduct().getId().equals(product.getId()))
-                .findFirst();
-
-        CartDetail cartDetail;
-        if (optionalDetail.isPresent()) {
-            cartDetail = optionalDetail.get();
-            int newQuantity = cartDetail.getQuantity() + request.getQuantity();
-            cartDetail.setQuantity(newQuantity);
-            cartDetail.setTotalPrice(cartDetail.getUnitPrice().multiply(BigDecimal.valueOf(newQuantity)));
-            log.info("Updated quantity for existing product in cart: {}", product.getId());
-        } else {
-            cartDetail = CartDetail.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(request.getQuantity())
-                    .unitPrice(product.getPrice())
-                    .totalPrice(product.getPrice().multiply(BigDecimal.valueOf(request.getQuantity())))
-                    .build();
-            cart.getCartDetails().add(cartDetail);
-            log.info("Added new product to cart: {}", product.getId());
-        }
+        CartLine line = cartStore.add(cartId, product, request.getQuantity());
+        log.info("Added product {} to cart {}, quantity={}", product.getId(), cartId, line.quantity());
 
-        updateCartTotal(cart);
-        return convertToResponse(cartDetail);
+        return convertToResponse(cartId, line);
     }
 
     @Override
-    @Transactional
     public CartDetailResponse updateQuantity(Long cartDetailId, int quantity) {
         CartDetail detail = getCartDetailById(cartDetailId);
+        return updateQuantity(detail.getCart().getId(), detail.getProduct().getId(), quantity);
+    }
 
-        if (quantity <= 0) {
-            removeProductFromCart(cartDetailId);
-            return null;
-        }
-
-        detail.setQuantity(quantity);
-        detail.setTotalPrice(detail.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
-
-        updateCartTotal(detail.getCart());
-        return convertToResponse(detail);
+    @Override
+    public CartDetailResponse updateQuantity(Long cartId, Long productId, int quantity) {
+        CartLine line = cartStore.setQuantity(cartId, productId, quantity);
+        return line != null ? convertToResponse(cartId, line) : null;
     }
 
     @Override
-    @Transactional
     public void removeProductFromCart(Long cartDetailId) {
         CartDetail detail = getCartDetailById(cartDetailId);
-        Cart cart = detail.getCart();
-
-        cart.getCartDetails().removeIf(cd -> cd.getId().equals(cartDetailId));
-        cartDetailRepository.deleteById(cartDetailId);
+        removeProductFromCart(detail.getCart().getId(), detail.getProduct().getId());
+    }
 
-        updateCartTotal(cart);
-        log.info("Removed cart detail ID {}", cartDetailId);
+    @Override
+    public void removeProductFromCart(Long cartId, Long productId) {
+        cartStore.remove(cartId, productId);
+        log.info("Removed product {} from cart {}", productId, cartId);
     }
 
     @Override
-    @Transactional
     public void deleteAllByCartId(Long cartId) {
-        Cart cart = getCartById(cartId);
-        cartDetailRepository.deleteAll(cart.getCartDetails());
-        cart.getCartDetails().clear();
-        updateCartTotal(cart);
+        cartStore.clear(cartId);
         log.info("Cleared all cart details for cart ID {}", cartId);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CartDetailResponse> getCartDetails(Long cartId) {
-        Cart cart = getCartById(cartId);
-        return cart.getCartDetails().stream()
-                .map(this::convertToResponse)
+        return cartStore.get(cartId).lines().stream()
+                .map(line -> convertToResponse(cartId, line))
                 .collect(Collectors.toList());
     }
 
@@ -127,40 +94,14 @@ public class CartDetailServiceImpl implements CartDetailService {
                 .page(page)
                 .size(size)
                 .total(cartDetailPage.getTotalPages())
+                .totalItems(cartDetailPage.getTotalElements())
                 .items(content)
                 .build();
     }
 
     @Override
-    @Transactional
     public void updateCartTotal(Long cartId) {
-        Cart cart = getCartById(cartId);
-        updateCartTotal(cart);
-    }
-
-    private void updateCartTotal(Cart cart) {
-        BigDecimal totalPrice = cart.getCartDetails().stream()
-                .map(CartDetail::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        int totalQuantity = cart.getCartDetails().stream()
-                .mapToInt(CartDetail::getQuantity)
-                .sum();
-
-        cart.setTotalPrice(totalPrice);
-        cart.setTotalQuantity(totalQuantity);
-        cartRepository.save(cart);
-    }
-
-    /**
-     *
-     *
-     * @param cartId
-     * @return
-     */
-    private Cart getCartById(Long cartId) {
-        return cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with ID: " + cartId));
+        cartStore.recalculate(cartId);
     }
 
     /**
@@ -183,6 +124,25 @@ public class CartDetailServiceImpl implements CartDetailService {
                 .orElseThrow(() -> new ResourceNotFoundException("Cart detail not found with ID: " + id));
     }
 
+    /**
+     * Convert to response
+     *
+     * @param cartId
+     * @param line
+     * @return
+     */
+    private CartDetailResponse convertToResponse(Long cartId, CartLine line) {
+        return CartDetailResponse.builder()
+                .id(line.id())
+                .cartId(cartId)
+                .productId(line.productId())
+                .productName(line.productName())
+                .unitPrice(line.unitPrice())
+                .quantity(line.quantity())
+                .totalPrice(line.totalPrice())
+                .build();
+    }
+
     /**
      * Convert to response
      *
@@ -1,6 +1,10 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.CartStore;
+import backend_service.shop.cache.CartView;
 import backend_service.shop.dto.request.CartRequestDTO;
+import backend_service.shop.dto.request.OrderDetailRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
 import backend_service.shop.dto.response.CartDetailResponse;
 import backend_service.shop.dto.response.CartResponse;
 import backend_service.shop.dto.response.OrderResponse;
@@ -9,17 +13,23 @@ import backend_service.shop.entity.Cart;
 import backend_service.shop.entity.CartDetail;
 import backend_service.shop.entity.Product;
 import backend_service.shop.exception.ResourceNotFoundException;
+import backend_service.shop.repository.CartDetailRepository;
 import backend_service.shop.repository.CartRepository;
+import backend_service.shop.repository.KeysetSlice;
 import backend_service.shop.repository.ProductRepository;
 import backend_service.shop.repository.UserRepository;
 import backend_service.shop.service.CartDetailService;
 import backend_service.shop.service.CartService;
+import backend_service.shop.service.OrderService;
+import backend_service.shop.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -35,6 +45,10 @@ public class CartServiceImpl implements CartService {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final CartDetailService cartDetailService;
+    private final CartStore cartStore;
+    private final CartDetailRepository cartDetailRepository;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Create cart by request
@@ -75,10 +89,9 @@ public class CartServiceImpl implements CartService {
      */
     @Override
     public CartResponse getCartById(Long id) {
-        Cart cart = cartRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+        CartView cart = cartStore.get(id);
 
-        log.info("Get cart by id={}", cart.getId());
+        log.info("Get cart by id={}", cart.cartId());
 
         return convertToResponse(cart);
     }
@@ -91,36 +104,13 @@ public class CartServiceImpl implements CartService {
      */
     @Override
     public CartResponse getCartByUserId(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found for userId: " + userId));
+        CartView cart = cartStore.getByUserId(userId);
 
         log.info("Find cart by user id={}", userId);
 
         return convertToResponse(cart);
     }
 
-    /**
-     * Update cart
-     *
-     * @param cart
-     */
-    @Override
-    public void updateCart(Cart cart) {
-        BigDecimal totalCartPrice = BigDecimal.ZERO;
-        int totalQuantity = 0;
-
-        for (CartDetail detail : cart.getCartDetails()) {
-            BigDecimal detailTotal = detail.getUnitPrice().multiply(BigDecimal.valueOf(detail.getQuantity()));
-            detail.setTotalPrice(detailTotal);
-
-            totalCartPrice = totalCartPrice.add(detailTotal);
-            totalQuantity += detail.getQuantity();
-        }
-
-        cart.setTotalPrice(totalCartPrice);
-        cart.setTotalQuantity(totalQuantity);
-    }
-
     /**
      * Admin use method delete in system
      *
@@ -130,6 +120,7 @@ public class CartServiceImpl implements CartService {
     public void deleteCart(Long id) {
         Cart cart = cartRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+        cartStore.evict(id);
         cartRepository.delete(cart);
     }
 
@@ -145,10 +136,28 @@ public class CartServiceImpl implements CartService {
                 .page(page)
                 .size(size)
                 .total(cartPage.getTotalPages())
+                .totalItems(cartPage.getTotalElements())
                 .items(responseList)
                 .build();
     }
 
+    @Override
+    public PageResponse<?> getAllCartAfter(String after, int size, boolean withTotal) {
+        KeysetSlice<Cart> slice = cartRepository.findSliceAfter(null, PageCursor.decode(after), size);
+
+        List<CartResponse> responseList = slice.items().stream()
+                .map(this::convertToResponse)
+                .toList();
+
+        return PageResponse.builder()
+                .size(size)
+                .totalItems(withTotal ? cartRepository.count() : null)
+                .items(responseList)
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
 
     /**
      * Clean cart
@@ -157,56 +166,59 @@ public class CartServiceImpl implements CartService {
      */
     @Override
     public void clearCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-
-        cart.getCartDetails().clear();
-        cart.setTotalPrice(BigDecimal.ZERO);
-        cart.setTotalQuantity(0);
-        cartRepository.save(cart);
+        cartStore.clear(cartStore.getByUserId(userId).cartId());
     }
 
     @Override
     public void recalculateCartTotal(Long cartId) {
-
+        cartStore.recalculate(cartId);
     }
 
-    @Override
-    public OrderResponse checkoutCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-
-        if (cart.getCartDetails().isEmpty()) {
-            throw new IllegalStateException("Cart is empty");
-        }
-
-        // TODO: Gọi OrderService để tạo Order + OrderDetail từ cart
-        // => Sau đó clear cart
-
-        clearCart(userId);
-
-        return null; // Trả về OrderResponse sau khi tạo xong
-    }
-
-
     /**
-     * Use update cart total
+     * Convert the cart into an order in one transaction: one product fetch, one batch of order
+     * lines, one batch of stock updates and one bulk delete of the cart lines. Prices are taken
+     * from the products at checkout time.
      *
-     * @param cart
+     * @param userId
+     * @param request shipping, payment and discount of the order; the lines come from the cart
+     * @return
      */
-    private void updateCartTotal(Cart cart) {
-        int totalQuantity = 0;
-        BigDecimal totalPrice = BigDecimal.ZERO;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderResponse checkoutCart(Long userId, OrderRequestDTO request) {
+        Long cartId = cartStore.getByUserId(userId).cartId();
+
+        // Order và việc xóa giỏ commit cùng nhau, trong lúc giữ lock của giỏ
+        OrderResponse order = cartStore.checkout(cartId, cart -> {
+            if (cart.lines().isEmpty()) {
+                throw new IllegalStateException("Cart is empty");
+            }
+
+            OrderRequestDTO orderRequest = OrderRequestDTO.builder()
+                    .userId(userId)
+                    .shippingAddress(request.getShippingAddress())
+                    .note(request.getNote())
+                    .paymentMethod(request.getPaymentMethod())
+                    .discountCode(request.getDiscountCode())
+                    .orderDetails(cart.lines().stream()
+                            .map(line -> new OrderDetailRequestDTO(line.productId(), line.quantity()))
+                            .toList())
+                    .build();
+
+            return transactionTemplate.execute(status -> {
+                OrderResponse response = orderService.createOrder(orderRequest);
+                cartDetailRepository.deleteInBulkByCartId(cartId);
+                cartRepository.resetTotals(cartId);
+                return response;
+            });
+        });
 
-        for (CartDetail detail : cart.getCartDetails()) {
-            totalQuantity += detail.getQuantity();
-            totalPrice = totalPrice.add(detail.getTotalPrice());
-        }
+        log.info("Checkout cart successfully. cartId={}, orderId={}", cartId, order.getId());
 
-        cart.setTotalQuantity(totalQuantity);
-        cart.setTotalPrice(totalPrice);
+        return order;
     }
 
+
     /**
      * Convert global
      *
@@ -229,6 +241,32 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
+    /**
+     * Convert cart from the cart store
+     *
+     * @param cart
+     * @return
+     */
+    private CartResponse convertToResponse(CartView cart) {
+        return CartResponse.builder()
+                .id(cart.cartId())
+                .userId(cart.userId())
+                .totalQuantity(cart.totalQuantity())
+                .totalPrice(cart.totalPrice())
+                .cartDetails(cart.lines().stream()
+                        .map(line -> CartDetailResponse.builder()
+                                .id(line.id())
+                                .cartId(cart.cartId())
+                                .productId(line.productId())
+                                .productName(line.productName())
+                                .quantity(line.quantity())
+                                .unitPrice(line.unitPrice())
+                                .totalPrice(line.totalPrice())
+                                .build())
+                        .toList())
+                .build();
+    }
+
     /**
      * Convert cart detail to response
      *
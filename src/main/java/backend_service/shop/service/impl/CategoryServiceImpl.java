@@ -1,21 +1,26 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.CategoryNode;
+import backend_service.shop.cache.CategoryTreeCache;
 import backend_service.shop.dto.request.CategoryCreateRequest;
 import backend_service.shop.dto.response.CategoryResponse;
 import backend_service.shop.dto.response.CategoryTreeResponse;
 import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.entity.Category;
+import backend_service.shop.event.CategoryChangedEvent;
 import backend_service.shop.exception.ResourceNotFoundException;
 import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.KeysetSlice;
 import backend_service.shop.service.CategoryService;
+import backend_service.shop.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +28,8 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Save category in database
@@ -49,6 +56,7 @@ public class CategoryServiceImpl implements CategoryService {
                 .parent(parent)
                 .build();
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId(), toCategoryNode(category)));
 
         log.info("Create successfully category with categoryId={}", category.getId());
 
@@ -74,6 +82,9 @@ public class CategoryServiceImpl implements CategoryService {
             if (id.equals(request.getParentId())) {
                 throw new IllegalArgumentException("Category cannot be its own parent.");
             }
+            if (categoryTreeCache.get().subtreeIds(id).contains(request.getParentId())) {
+                throw new IllegalArgumentException("Category cannot be moved under its own descendant.");
+            }
             Category parent = categoryRepository.findById(request.getParentId())
                     .orElseThrow(() -> new ResourceNotFoundException("ParentId not found"));
             category.setParent(parent);
@@ -85,6 +96,7 @@ public class CategoryServiceImpl implements CategoryService {
         category.setIsHot(request.getIsHot());
 
         Category categoryNew = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, toCategoryNode(categoryNew)));
         log.info("Update category by category id successfully. id={}", id);
         return toCategoryResponse(categoryNew);
     }
@@ -99,6 +111,7 @@ public class CategoryServiceImpl implements CategoryService {
     public void delete(Long id) {
         Category category = getCategoryFromDb(id);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, null));
 
         log.info("Delete category successfully. Id={}", category.getId());
     }
@@ -110,7 +123,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @return
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long categoryId) {
         Category category = getCategoryFromDb(categoryId);
         return toCategoryResponse(category);
@@ -124,7 +137,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @return
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PageResponse<?> getListCategory(int page, int size) {
 
         Page<Category> categoryPage = categoryRepository.findAll(PageRequest.of(page, size));
@@ -136,36 +149,71 @@ public class CategoryServiceImpl implements CategoryService {
                 .page(page)
                 .size(size)
                 .total(categoryPage.getTotalPages())
+                .totalItems(categoryPage.getTotalElements())
                 .items(responseList)
                 .build();
     }
 
+    /**
+     * Get list category after the cursor (keyset), newest first
+     *
+     * @param after
+     * @param size
+     * @param withTotal
+     * @return
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<?> getListCategoryAfter(String after, int size, boolean withTotal) {
+        KeysetSlice<Category> slice = categoryRepository.findSliceAfter(null, PageCursor.decode(after), size);
+        List<CategoryResponse> responseList = slice.items().stream()
+                .map(this::toCategoryResponse)
+                .toList();
+
+        return PageResponse.builder()
+                .size(size)
+                .totalItems(withTotal ? categoryRepository.count() : null)
+                .items(responseList)
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    /**
+     * Get whole category tree from the in-memory snapshot
+     *
+     * @return
+     */
     @Override
-    @Transactional
     public List<CategoryTreeResponse> getAllCategoryTree() {
-        List<Category> categories = categoryRepository.findByParentIsNull();
-        return categories.stream()
-                .map(this::convertToTree)
-                .collect(Collectors.toList());
+        return categoryTreeCache.get().roots();
     }
 
     /**
-     * Convert to category tree
+     * Get parent chain of a category, from the root down to the category itself
      *
-     * @param category
+     * @param categoryId
      * @return
      */
-    private CategoryTreeResponse convertToTree(Category category) {
-        return CategoryTreeResponse.builder()
-                .id(category.getId())
-                .name(category.getName())
-                .children(
-                        category.getChildren() == null ? List.of() :
-                                category.getChildren().stream()
-                                        .map(this::convertToTree)
-                                        .collect(Collectors.toList())
-                )
-                .build();
+    @Override
+    public List<CategoryResponse> getCategoryPath(Long categoryId) {
+        List<CategoryNode> chain = categoryTreeCache.get().parentChain(categoryId);
+        if (chain.isEmpty()) {
+            throw new ResourceNotFoundException("Category not found");
+        }
+        return chain.stream()
+                .map(node -> CategoryResponse.builder()
+                        .id(node.id())
+                        .name(node.name())
+                        .parentId(node.parentId())
+                        .status(node.status())
+                        .build())
+                .toList();
+    }
+
+    private CategoryNode toCategoryNode(Category category) {
+        return new CategoryNode(category.getId(), category.getName(),
+                category.getParent() != null ? category.getParent().getId() : null, category.getStatus());
     }
 
     /**
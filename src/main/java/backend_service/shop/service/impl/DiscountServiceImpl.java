@@ -1,18 +1,23 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.DiscountCatalog;
+import backend_service.shop.cache.DiscountRule;
 import backend_service.shop.dto.request.DiscountRequestDTO;
 import backend_service.shop.dto.response.DiscountResponse;
 import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.entity.Discount;
+import backend_service.shop.event.DiscountChangedEvent;
 import backend_service.shop.repository.DiscountRepository;
+import backend_service.shop.repository.KeysetSlice;
 import backend_service.shop.service.DiscountService;
 import backend_service.shop.util.DiscountStatus;
+import backend_service.shop.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -21,6 +26,8 @@ import java.util.List;
 public class DiscountServiceImpl implements DiscountService {
 
     private final DiscountRepository discountRepository;
+    private final DiscountCatalog discountCatalog;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new discount.
@@ -49,6 +56,7 @@ public class DiscountServiceImpl implements DiscountService {
                 .build();
 
         Discount save = discountRepository.save(discount);
+        eventPublisher.publishEvent(new DiscountChangedEvent(save.getId(), DiscountRule.of(save)));
 
         log.info("Create discount successfully discount_id={}", save.getId());
 
@@ -83,6 +91,7 @@ public class DiscountServiceImpl implements DiscountService {
         discount.setEndDate(requestDTO.getEndDate());
 
         Discount updated = discountRepository.save(discount);
+        eventPublisher.publishEvent(new DiscountChangedEvent(updated.getId(), DiscountRule.of(updated)));
         log.info("Update discount successfully discount_id={}", updated.getId());
         return toConvertResponse(updated);
     }
@@ -97,6 +106,7 @@ public class DiscountServiceImpl implements DiscountService {
         Discount discount = discountRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Discount not found with id=" + id));
         discountRepository.delete(discount);
+        eventPublisher.publishEvent(new DiscountChangedEvent(id, null));
 
         log.info("Deleted discount with id={}", id);
     }
@@ -133,7 +143,33 @@ public class DiscountServiceImpl implements DiscountService {
                 .page(page)
                 .size(size)
                 .items(responseList)
-                .total(discountPage.getTotalElements())
+                .total(discountPage.getTotalPages())
+                .totalItems(discountPage.getTotalElements())
+                .build();
+    }
+
+    /**
+     * Get discounts after the cursor (keyset pagination, newest first).
+     *
+     * @param after     cursor of the previous page, null for the first page
+     * @param size      the number of items per page
+     * @param withTotal whether to count all discounts
+     * @return a page of discounts with the next cursor
+     */
+    @Override
+    public PageResponse<?> getAllAfter(String after, int size, boolean withTotal) {
+        KeysetSlice<Discount> slice = discountRepository.findSliceAfter(null, PageCursor.decode(after), size);
+
+        List<DiscountResponse> responseList = slice.items().stream()
+                .map(this::toConvertResponse)
+                .toList();
+
+        return PageResponse.builder()
+                .size(size)
+                .items(responseList)
+                .totalItems(withTotal ? discountRepository.count() : null)
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
                 .build();
     }
 
@@ -145,21 +181,19 @@ public class DiscountServiceImpl implements DiscountService {
      * @return the valid Discount entity
      */
     @Override
-    public Discount getValidDiscountByCode(String code) {
-        Discount discount = discountRepository.findByCodeIgnoreCase(code)
+    public DiscountRule getValidDiscountByCode(String code) {
+        DiscountRule rule = discountCatalog.find(code)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid discount code"));
 
-        if (Boolean.FALSE.equals(discount.getStatus())) {
+        if (!rule.enabled()) {
             throw new IllegalArgumentException("Discount is inactive");
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        if ((discount.getStartDate() != null && now.isBefore(discount.getStartDate()))
-                || (discount.getEndDate() != null && now.isAfter(discount.getEndDate()))) {
+        if (!rule.isValidAt(System.currentTimeMillis())) {
             throw new IllegalArgumentException("Discount is not valid at this time");
         }
 
-        return discount;
+        return rule;
     }
 
 
@@ -174,16 +208,7 @@ public class DiscountServiceImpl implements DiscountService {
      * @return
      */
     private DiscountStatus resolveDiscountStatus(Discount discount) {
-        if (Boolean.FALSE.equals(discount.getStatus())) return DiscountStatus.INACTIVE;
-
-        LocalDateTime now = LocalDateTime.now();
-        if (discount.getStartDate() != null && now.isBefore(discount.getStartDate()))
-            return DiscountStatus.UPCOMING;
-
-        if (discount.getEndDate() != null && now.isAfter(discount.getEndDate()))
-            return DiscountStatus.EXPIRED;
-
-        return DiscountStatus.ACTIVE;
+        return DiscountRule.of(discount).statusAt(System.currentTimeMillis());
     }
 
     /**
@@ -1,6 +1,9 @@
 package backend_service.shop.service.impl;
 
 import backend_service.shop.service.EmailService;
+import backend_service.shop.tracing.Span;
+import backend_service.shop.tracing.SpanKind;
+import backend_service.shop.tracing.Tracing;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -37,7 +40,9 @@ public class EmailServiceImpl implements EmailService {
             helper.setText(content, false);
             helper.addAttachment(pdfAttachment.getName(), pdfAttachment);
 
-            mailSender.send(message);
+            try (Span ignored = Tracing.start(SpanKind.EXTERNAL, "smtp send")) {
+                mailSender.send(message);
+            }
 
             log.info("Send mail successfully {}", to);
 
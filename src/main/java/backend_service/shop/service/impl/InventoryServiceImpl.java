@@ -0,0 +1,111 @@
+package backend_service.shop.service.impl;
+
+import backend_service.shop.event.ProductChangedEvent;
+import backend_service.shop.event.StockChangedEvent;
+import backend_service.shop.exception.InvalidDataException;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.service.InventoryService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Stock is taken with conditional updates (stock_quantity >= quantity), never read-modify-write,
+ * so concurrent checkouts cannot oversell. Products are always updated in id order so two
+ * orders sharing products cannot deadlock.
+ * A hot product is still one row: callers reserve as the last step of their transaction to keep
+ * the row lock short, and products that just sold out are rejected from memory without touching
+ * the row at all.
+ */
+@Service
+@Slf4j
+public class InventoryServiceImpl implements InventoryService {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // productId -> số lượng nhỏ nhất vừa bị từ chối; yêu cầu >= số này bị từ chối mà không cần update (và chờ lock)
+    private final Cache<Long, Integer> soldOut;
+
+    public InventoryServiceImpl(ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${inventory.sold-out-ttl-ms:2000}") long soldOutTtlMs) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.soldOut = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(soldOutTtlMs))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities) {
+        requirePositive(quantities);
+        List<Map.Entry<Long, Integer>> lines = List.copyOf(new TreeMap<>(quantities).entrySet());
+        for (Map.Entry<Long, Integer> line : lines) {
+            if (!mightBeAvailable(line.getKey(), line.getValue())) {
+                throw new InvalidDataException("Insufficient stock for productId=" + line.getKey());
+            }
+        }
+
+        // Mọi dòng đi trong 1 JDBC batch, dòng nào không đủ hàng thì rollback cả đơn
+        int[] updated = productRepository.batchDecrementStock(lines);
+        for (int i = 0; i < lines.size(); i++) {
+            if (updated[i] == 0) {
+                Map.Entry<Long, Integer> line = lines.get(i);
+                soldOut.asMap().merge(line.getKey(), line.getValue(), Math::min);
+                throw new InvalidDataException("Insufficient stock for productId=" + line.getKey());
+            }
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(Set.copyOf(quantities.keySet())));
+    }
+
+    @Override
+    @Transactional
+    public void release(Map<Long, Integer> quantities) {
+        requirePositive(quantities);
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            productRepository.incrementStock(entry.getKey(), entry.getValue());
+            soldOut.invalidate(entry.getKey());
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(Set.copyOf(quantities.keySet())));
+        log.info("Released stock for productIds={}", quantities.keySet());
+    }
+
+    @Override
+    public boolean mightBeAvailable(Long productId, int quantity) {
+        Integer rejectedQuantity = soldOut.getIfPresent(productId);
+        return rejectedQuantity == null || quantity < rejectedQuantity;
+    }
+
+    // Trừ/hoàn số âm sẽ đảo chiều thay đổi tồn kho
+    private static void requirePositive(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new InvalidDataException("Quantity must be positive for productId=" + productId);
+            }
+        });
+    }
+
+    /**
+     * Admin restock goes through ProductServiceImpl
+     *
+     * @param event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        soldOut.invalidate(event.productId());
+    }
+}
@@ -1,14 +1,25 @@
 package backend_service.shop.service.impl;
 
 import backend_service.shop.entity.Invoice;
+import backend_service.shop.entity.InvoiceOutbox;
 import backend_service.shop.entity.Order;
+import backend_service.shop.event.InvoiceRequestedEvent;
+import backend_service.shop.exception.ResourceNotFoundException;
 import backend_service.shop.helper.InvoicePdfGenerator;
+import backend_service.shop.repository.InvoiceOutboxRepository;
 import backend_service.shop.repository.InvoiceRepository;
+import backend_service.shop.repository.OrderRepository;
 import backend_service.shop.service.EmailService;
 import backend_service.shop.service.InvoiceService;
+import backend_service.shop.tracing.Span;
+import backend_service.shop.tracing.SpanKind;
+import backend_service.shop.tracing.Tracing;
+import backend_service.shop.util.OutboxStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.io.File;
 import java.time.LocalDateTime;
 
@@ -18,24 +29,58 @@ import java.time.LocalDateTime;
 public class InvoiceServiceImpl implements InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceOutboxRepository invoiceOutboxRepository;
+    private final OrderRepository orderRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * @param orderId
+     */
+    @Override
+    @Transactional
+    public void scheduleInvoiceForOrder(Long orderId) {
+        InvoiceOutbox outbox = invoiceOutboxRepository.save(InvoiceOutbox.builder()
+                .orderId(orderId)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+
+        // Worker chỉ nhận event sau khi transaction của order commit
+        eventPublisher.publishEvent(new InvoiceRequestedEvent(outbox.getId()));
+
+        log.info("Scheduled invoice for orderId={}, outboxId={}", orderId, outbox.getId());
+    }
 
     /**
-     * @param order
+     * Runs without a surrounding transaction so no DB connection is held while the PDF
+     * is rendered or the mail is sent. Safe to call again for the same order.
+     *
+     * @param orderId
      */
     @Override
-    public void generateInvoiceForOrder(Order order) {
+    public void generateInvoiceForOrder(Long orderId) {
         log.info("Create invoice pdf loading ...............");
 
-        try {
+        Order order = orderRepository.findWithInvoiceDataById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id=" + orderId));
 
-            Invoice invoice = buildInvoice(order);
+        Invoice invoice = invoiceRepository.findByOrderId(orderId)
+                .orElseGet(() -> invoiceRepository.save(buildInvoice(order)));
 
-            invoice = invoiceRepository.save(invoice);
+        if (invoice.getPdfPath() != null) {
+            log.info("Invoice already sent for orderId={}", orderId);
+            return;
+        }
+
+        try {
 
             //Create pdf
-            File pdfFile = InvoicePdfGenerator.generateInvoicePdf(order);
+            File pdfFile;
+            try (Span ignored = Tracing.start(SpanKind.INTERNAL, "InvoicePdfGenerator.generateInvoicePdf")) {
+                pdfFile = InvoicePdfGenerator.generateInvoicePdf(order);
+            }
 
             emailService.sendInvoiceEmail(
                     order.getUser().getEmail(),
@@ -44,9 +89,9 @@ public class InvoiceServiceImpl implements InvoiceService {
                     pdfFile
             );
 
-            // 4. Cập nhật đường dẫn file PDF
+            // Cập nhật đường dẫn file PDF, đánh dấu hóa đơn đã gửi
             invoice.setPdfPath(pdfFile.getAbsolutePath());
-            invoice = invoiceRepository.save(invoice); // Lưu hóa đơn lần 2
+            invoiceRepository.save(invoice);
 
             log.info("Đã tạo và gửi hóa đơn cho đơn hàng ID {}", order.getId());
 
@@ -67,4 +112,3 @@ public class InvoiceServiceImpl implements InvoiceService {
                 .build();
     }
 }
-
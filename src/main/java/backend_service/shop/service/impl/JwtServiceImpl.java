@@ -1,24 +1,40 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.entity.User;
 import backend_service.shop.service.AuthService.JwtService;
+import backend_service.shop.service.AuthService.TokenClaims;
+import backend_service.shop.util.TokenHashUtil;
 import backend_service.shop.util.TokenType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import java.security.Key;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 import static backend_service.shop.util.TokenType.ACCESS_TOKEN;
 import static backend_service.shop.util.TokenType.REFRESH_TOKEN;
 
 @Service
+@RequiredArgsConstructor
 public class JwtServiceImpl implements JwtService {
 
+    private static final String CLAIM_USER_ID = "userId";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.expiryHour}")
     private long expiryHour;
 
@@ -31,9 +47,58 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.refreshKey}")
     private String refreshKey;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    // Key và parser được tạo 1 lần, dùng chung cho mọi request (thread-safe)
+    private Key accessSigningKey;
+    private Key refreshSigningKey;
+    private JwtParser accessParser;
+    private JwtParser refreshParser;
+
+    // token hash -> claims đã verify, entry sống tối đa đến lúc token hết hạn
+    private Cache<String, TokenClaims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        accessSigningKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessKey));
+        refreshSigningKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(refreshKey));
+        accessParser = Jwts.parserBuilder().setSigningKey(accessSigningKey).build();
+        refreshParser = Jwts.parserBuilder().setSigningKey(refreshSigningKey).build();
+
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenClaims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration() == null ? 0
+                                : claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtClaims");
+    }
+
     @Override
     public String generateToken(UserDetails user) {
-        return generateToken(Map.of("userId", user.getAuthorities()), user);
+        // Chỉ nhúng id: role và status PreFilter lấy từ snapshot user trong cache, luôn mới hơn token
+        Map<String, Object> claims = new HashMap<>();
+        if (user instanceof User u) {
+            claims.put(CLAIM_USER_ID, u.getId());
+        }
+        return generateToken(claims, user);
     }
 
     @Override
@@ -41,20 +106,48 @@ public class JwtServiceImpl implements JwtService {
         return generateRefreshToken(new HashMap<>(), user);
     }
 
+    /**
+     * Verify signature and expiry once per token; later calls with the same token are a hash lookup
+     *
+     * @param token
+     * @param type
+     * @return
+     */
+    @Override
+    public TokenClaims parseToken(String token, TokenType type) {
+        String cacheKey = type.name() + ":" + Base64.getEncoder().encodeToString(TokenHashUtil.sha256(token));
+
+        TokenClaims cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = extraAllClaim(token, type);
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        TokenClaims tokenClaims = TokenClaims.builder()
+                .username(claims.getSubject())
+                .userId(userId != null ? userId.longValue() : null)
+                .issuedAt(claims.getIssuedAt())
+                .expiration(claims.getExpiration())
+                .build();
+        verifiedTokens.put(cacheKey, tokenClaims);
+        return tokenClaims;
+    }
+
     @Override
     public String extractUsername(String token, TokenType type) {
-        return extractClaim(token, type, Claims::getSubject);
+        return parseToken(token, type).getUsername();
     }
 
     @Override
     public boolean isValid(String token, TokenType type, UserDetails userDetails) {
-        final String username = extractUsername(token, type);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token, type));
+        final TokenClaims claims = parseToken(token, type);
+        return (claims.getUsername().equals(userDetails.getUsername()) && !claims.isExpired());
     }
 
     @Override
     public Date extractExpiration(String token, TokenType type) {
-        return extractClaim(token, type, Claims::getExpiration);
+        return parseToken(token, type).getExpiration();
     }
 
     private String generateToken(Map<String, Object> claims, UserDetails userDetails) {
@@ -78,23 +171,12 @@ public class JwtServiceImpl implements JwtService {
     }
 
     private Key getKey(TokenType type) {
-        if (ACCESS_TOKEN.equals(type))
-            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessKey));
-        else
-            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(refreshKey));
-    }
-
-    private <T> T extractClaim(String token, TokenType type, Function<Claims, T> claimResolver) {
-        final Claims claims = extraAllClaim(token, type);
-        return claimResolver.apply(claims);
+        return ACCESS_TOKEN.equals(type) ? accessSigningKey : refreshSigningKey;
     }
 
     private Claims extraAllClaim(String token, TokenType type) {
-        return Jwts.parserBuilder().setSigningKey(getKey(type)).build().parseClaimsJws(token).getBody();
-    }
-
-    private boolean isTokenExpired(String token, TokenType type) {
-        return extractExpiration(token, type).before(new Date());
+        JwtParser parser = ACCESS_TOKEN.equals(type) ? accessParser : refreshParser;
+        return parser.parseClaimsJws(token).getBody();
     }
 
 }
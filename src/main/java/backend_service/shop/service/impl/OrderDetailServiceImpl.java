@@ -4,13 +4,18 @@ import backend_service.shop.dto.response.OrderDetailResponse;
 import backend_service.shop.dto.response.ProductSalesReport;
 import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.entity.OrderDetail;
+import backend_service.shop.repository.KeysetSlice;
 import backend_service.shop.repository.OrderDetailRepository;
 import backend_service.shop.service.OrderDetailService;
+import backend_service.shop.service.ProductSalesService;
+import backend_service.shop.util.PageCursor;
+import backend_service.shop.util.SalesWindow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -21,8 +26,10 @@ import java.util.stream.Collectors;
 public class OrderDetailServiceImpl implements OrderDetailService {
 
     private final OrderDetailRepository orderDetailRepository;
+    private final ProductSalesService productSalesService;
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDetailResponse> getOrderDetailsByOrderId(Long orderId) {
         List<OrderDetail> details = orderDetailRepository.findByOrderId(orderId);
         return details.stream()
@@ -31,12 +38,14 @@ public class OrderDetailServiceImpl implements OrderDetailService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderDetailResponse getOrderDetailById(Long detailId) {
         Optional<OrderDetail> optionalDetail = orderDetailRepository.findById(detailId);
         return optionalDetail.map(this::mapToResponse).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageResponse<List<OrderDetailResponse>> getAllOrderDetails(int page, int size) {
         Page<OrderDetail> pagedDetails = orderDetailRepository.findAll(PageRequest.of(page, size));
         List<OrderDetailResponse> content = pagedDetails.getContent().stream()
@@ -46,14 +55,33 @@ public class OrderDetailServiceImpl implements OrderDetailService {
         return PageResponse.<List<OrderDetailResponse>>builder()
                 .page(pagedDetails.getNumber())
                 .size(pagedDetails.getSize())
-                .total(pagedDetails.getTotalElements())
+                .total(pagedDetails.getTotalPages())
+                .totalItems(pagedDetails.getTotalElements())
                 .items(content)
                 .build();
     }
 
     @Override
-    public List<ProductSalesReport> getTopSellingProducts(int limit) {
-        return orderDetailRepository.findTopSellingProducts(PageRequest.of(0, limit));
+    @Transactional(readOnly = true)
+    public PageResponse<List<OrderDetailResponse>> getAllOrderDetailsAfter(String after, int size, boolean withTotal) {
+        KeysetSlice<OrderDetail> slice = orderDetailRepository.findSliceAfter(null, PageCursor.decode(after), size);
+        List<OrderDetailResponse> content = slice.items().stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        return PageResponse.<List<OrderDetailResponse>>builder()
+                .size(size)
+                .totalItems(withTotal ? orderDetailRepository.count() : null)
+                .items(content)
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSalesReport> getTopSellingProducts(SalesWindow window, int limit) {
+        return productSalesService.getTopSelling(window, limit);
     }
 
     /**
@@ -0,0 +1,212 @@
+package backend_service.shop.service.impl;
+
+import backend_service.shop.dto.response.OrderExportRow;
+import backend_service.shop.repository.OrderRepository;
+import backend_service.shop.service.OrderExportService;
+import backend_service.shop.util.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String CSV_HEADER = "order_id,created_at,user_id,status,payment_method,total_quantity," +
+            "total_price,discount_code,discount_amount,final_price,detail_id,product_id,product_name,quantity," +
+            "unit_price,line_total";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${order.export.flush-every:500}")
+    private int flushEvery;
+
+    /**
+     * Rows are read through a forward-only cursor and written as they arrive,
+     * so memory does not grow with the number of orders
+     *
+     * @param format
+     * @param out
+     * @throws IOException
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(ExportFormat format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == ExportFormat.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+
+        long[] rows = {0};
+        try {
+            orderRepository.scrollExportRows(fetchSize, row -> {
+                try {
+                    writer.write(row);
+                    if (++rows[0] % flushEvery == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client ngắt kết nối giữa chừng
+            throw e.getCause();
+        }
+        writer.finish();
+
+        log.info("Exported orders. format={}, rows={}, took={}ms", format, rows[0], System.currentTimeMillis() - start);
+    }
+
+    private interface RowWriter {
+        void write(OrderExportRow row) throws IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * One line per order line
+     */
+    private static class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(OrderExportRow row) throws IOException {
+            Object[] values = {row.orderId(), row.createdAt(), row.userId(), row.status(), row.paymentMethod(),
+                    row.totalQuantity(), row.totalPrice(), row.discountCode(), row.discountAmount(), row.finalPrice(),
+                    row.detailId(), row.productId(), row.productName(), row.quantity(), row.unitPrice(), row.lineTotal()};
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * One JSON object per order; rows arrive sorted by order id so an order is
+     * closed as soon as the next one starts
+     */
+    private class NdjsonWriter implements RowWriter {
+
+        private final OutputStream out;
+        private final JsonGenerator json;
+        private Long currentOrderId;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.out = new BufferedOutputStream(out);
+            this.json = objectMapper.getFactory().createGenerator(this.out);
+            // Không để generator tự đóng stream của response
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Tự xuống dòng giữa các object thay cho separator mặc định (dấu cách)
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(OrderExportRow row) throws IOException {
+            if (!row.orderId().equals(currentOrderId)) {
+                closeOrder();
+                openOrder(row);
+            }
+            if (row.detailId() != null) {
+                json.writeStartObject();
+                json.writeNumberField("id", row.detailId());
+                writeNumber("productId", row.productId());
+                json.writeStringField("productName", row.productName());
+                writeNumber("quantity", row.quantity());
+                writeNumber("unitPrice", row.unitPrice());
+                writeNumber("totalPrice", row.lineTotal());
+                json.writeEndObject();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            closeOrder();
+            json.flush();
+        }
+
+        private void openOrder(OrderExportRow row) throws IOException {
+            currentOrderId = row.orderId();
+            json.writeStartObject();
+            json.writeNumberField("id", row.orderId());
+            json.writeStringField("createdAt", row.createdAt() != null ? row.createdAt().toString() : null);
+            writeNumber("userId", row.userId());
+            json.writeStringField("status", row.status() != null ? row.status().name() : null);
+            json.writeStringField("paymentMethod", row.paymentMethod() != null ? row.paymentMethod().name() : null);
+            writeNumber("totalQuantity", row.totalQuantity());
+            writeNumber("totalPrice", row.totalPrice());
+            json.writeStringField("discountCode", row.discountCode());
+            writeNumber("discountAmount", row.discountAmount());
+            writeNumber("finalPrice", row.finalPrice());
+            json.writeArrayFieldStart("orderDetails");
+        }
+
+        private void closeOrder() throws IOException {
+            if (currentOrderId == null) {
+                return;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+            currentOrderId = null;
+        }
+
+        private void writeNumber(String field, Number value) throws IOException {
+            if (value == null) {
+                json.writeNullField(field);
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumberField(field, decimal);
+            } else {
+                json.writeNumberField(field, value.longValue());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.DiscountRule;
 import backend_service.shop.dto.request.OrderDetailRequestDTO;
 import backend_service.shop.dto.request.OrderRequestDTO;
 import backend_service.shop.dto.response.DiscountResult;
@@ -10,13 +11,20 @@ import backend_service.shop.entity.Discount;
 import backend_service.shop.entity.DiscountUsage;
 import backend_service.shop.entity.Order;
 import backend_service.shop.entity.OrderDetail;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.User;
+import backend_service.shop.exception.InvalidDataException;
 import backend_service.shop.exception.ResourceNotFoundException;
+import backend_service.shop.metrics.ShopMetrics;
 import backend_service.shop.repository.*;
 import backend_service.shop.service.DiscountService;
+import backend_service.shop.service.InventoryService;
 import backend_service.shop.service.InvoiceService;
 import backend_service.shop.service.OrderService;
-import backend_service.shop.util.DiscountType;
+import backend_service.shop.service.ProductSalesService;
 import backend_service.shop.util.OrderStatus;
+import backend_service.shop.util.PageCursor;
+import backend_service.shop.util.PriceUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -25,9 +33,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +49,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    private static final List<OrderStatus> FINAL_STATUSES = List.of(OrderStatus.CANCELLED, OrderStatus.DELIVERED);
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
@@ -43,6 +59,10 @@ public class OrderServiceImpl implements OrderService {
     private final DiscountService discountService;
     private final DiscountRepository discountRepository;
     private final DiscountUsageRepository discountUsageRepository;
+    private final DiscountUserCounterRepository discountUserCounterRepository;
+    private final InventoryService inventoryService;
+    private final ProductSalesService productSalesService;
+    private final ShopMetrics shopMetrics;
 
     @Override
     @Transactional
@@ -51,20 +71,35 @@ public class OrderServiceImpl implements OrderService {
         var user = userRepository.findById(orderRequest.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        if (orderRequest.getOrderDetails() == null || orderRequest.getOrderDetails().isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+        // Số lượng âm sẽ làm tăng tồn kho khi trừ và âm tổng tiền
+        for (OrderDetailRequestDTO item : orderRequest.getOrderDetails()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new InvalidDataException("Quantity must be positive for productId=" + item.getProductId());
+            }
+        }
+
+        // 2. Load toàn bộ product của đơn hàng trong 1 query
+        Map<Long, Product> products = getProductsForOrder(orderRequest.getOrderDetails());
+
         BigDecimal totalPrice = BigDecimal.ZERO;
         int totalQuantity = 0;
         List<OrderDetail> orderDetails = new ArrayList<>();
+        Map<Long, Integer> quantities = new HashMap<>();
 
-        // 2. Duyệt qua từng item để tạo OrderDetail
+        // 3. Duyệt qua từng item để tạo OrderDetail
         for (OrderDetailRequestDTO item : orderRequest.getOrderDetails()) {
-            var product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+            Product product = products.get(item.getProductId());
 
-            BigDecimal unitPrice = product.getPrice();
+            // Giá luôn lấy theo product hiện tại, không tin giá phía client hay giá lưu trong giỏ
+            BigDecimal unitPrice = PriceUtil.effectivePrice(product);
             BigDecimal itemTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
 
             totalPrice = totalPrice.add(itemTotal);
             totalQuantity += item.getQuantity();
+            quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
 
             OrderDetail detail = OrderDetail.builder()
                     .product(product)
@@ -76,6 +111,13 @@ public class OrderServiceImpl implements OrderService {
             orderDetails.add(detail);
         }
 
+        // Loại sớm các đơn chắc chắn không đủ hàng, trước khi ghi gì vào DB
+        quantities.forEach((productId, quantity) -> {
+            if (products.get(productId).getStockQuantity() < quantity || !inventoryService.mightBeAvailable(productId, quantity)) {
+                throw new InvalidDataException("Insufficient stock for productId=" + productId);
+            }
+        });
+
         //Logic use discount
         Discount discount = null;
         BigDecimal discountAmount = BigDecimal.ZERO;
@@ -84,11 +126,12 @@ public class OrderServiceImpl implements OrderService {
             log.info("==============User discount logic=============");
 
             var discountResult = applyDiscount(orderRequest.getDiscountCode(), user.getId(), totalPrice);
-            discount = discountResult.getDiscount();
+            discount = discountRepository.findById(discountResult.getDiscount().id())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid discount code"));
             discountAmount = discountResult.getDiscountAmount();
         }
 
-        // 3. Create Order
+        // 4. Create Order
         Order order = Order.builder()
                 .user(user)
                 .shippingAddress(orderRequest.getShippingAddress())
@@ -102,50 +145,43 @@ public class OrderServiceImpl implements OrderService {
                 .totalQuantity(totalQuantity)
                 .build();
 
-        // 4. Save Order
+        // 5. Save Order
         order = orderRepository.save(order);
 
+        // 6. Lưu toàn bộ orderDetail bằng 1 JDBC batch rồi load lại để có id
+        orderDetailRepository.batchInsert(order.getId(), orderDetails);
+        orderDetails = orderDetailRepository.findByOrderId(order.getId());
+        order.setOrderDetails(orderDetails);
+
+        // Trừ kho và giữ lượt dùng discount ở cuối transaction để lock trên các row nóng được giữ ngắn nhất
+        inventoryService.reserve(quantities);
+        productSalesService.recordOrder(order.getId(), orderDate(order), orderDetails);
         if (discount != null) {
-            DiscountUsage usage = DiscountUsage.builder()
-                    .user(user)
-                    .discount(discount)
-                    .order(order)
-                    .usedAt(LocalDateTime.now())
-                    .build();
-            discountUsageRepository.save(usage);
+            redeemDiscount(discount, user, order);
+            shopMetrics.discountRedeemed(discount.getDiscountType());
         }
 
-        // 5. Gán order cho từng orderDetail và lưu
-        for (OrderDetail detail : orderDetails) {
-            detail.setOrder(order);
-        }
-        orderDetailRepository.saveAll(orderDetails);
-        order.setOrderDetails(orderDetails);
+        // Hóa đơn (PDF + email) được tạo bởi worker sau khi transaction commit
+        invoiceService.scheduleInvoiceForOrder(order.getId());
 
+        shopMetrics.orderCreated();
         log.info("Create order successfully. orderId={}", order.getId());
 
-        try {
-            invoiceService.generateInvoiceForOrder(order);
-        } catch (Exception e) {
-            log.error("Failed to generate invoice for order id {}: {}", order.getId(), e.getMessage());
-            // Có thể không throw lại lỗi để không rollback đơn hàng, tùy chính sách
-        }
-
-        // 6. Trả về response
+        // 7. Trả về response
         return convertToResponse(order, orderDetails);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Order order = orderRepository.findWithDetailsById(orderId).orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         return convertToResponse(order, order.getOrderDetails());
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByUser(Long userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
+        List<Order> orders = orderRepository.findWithDetailsByUserId(userId);
         return orders.stream()
                 .map(order ->
                     convertToResponse(order, order.getOrderDetails()))
@@ -156,38 +192,49 @@ public class OrderServiceImpl implements OrderService {
     @Transactional
     public void cancelOrder(Long orderId) {
         //check order
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-        if(order.getStatus() == OrderStatus.CANCELLED || order.getStatus() == OrderStatus.DELIVERED) {
+        // Đổi status có điều kiện: 2 request hủy đồng thời chỉ 1 cái được hoàn kho
+        if (orderRepository.updateStatusUnlessIn(orderId, OrderStatus.CANCELLED, FINAL_STATUSES) == 0) {
             log.info("Cannot cancel Order with order Id={}", orderId);
             throw new IllegalStateException("Cannot cancel this order");
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
+        List<OrderDetail> details = orderDetailRepository.findByOrderId(orderId);
+        releaseStock(details);
+        productSalesService.reverseOrder(orderId, orderDate(order), details);
+        shopMetrics.orderCancelled();
 
         log.info("Cancel order successfully");
-
-        orderRepository.save(order);
     }
 
     @Override
     @Transactional
     public OrderResponse changeStatus(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (newStatus == OrderStatus.CANCELLED) {
+            cancelOrder(orderId);
+            return getOrderById(orderId);
+        }
 
-        order.setStatus(newStatus);
-        orderRepository.save(order);
+        // Đơn đã hủy/đã giao không đổi status nữa: mở lại đơn đã hủy không giữ lại kho, hủy lần nữa sẽ hoàn kho 2 lần
+        if (orderRepository.updateStatusUnlessIn(orderId, newStatus, FINAL_STATUSES) == 0) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new ResourceNotFoundException("Order not found");
+            }
+            log.info("Cannot change status of Order with order Id={} to {}", orderId, newStatus);
+            throw new IllegalStateException("Cannot change status of this order");
+        }
 
-        return convertToResponse(order, order.getOrderDetails());
+        return getOrderById(orderId);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PageResponse<?> getAllOrders(int page, int size) {
-        Page<Order> orderPage = orderRepository.findAll(PageRequest.of(page, size));
+        Page<Long> orderPage = orderRepository.findIdPage(PageRequest.of(page, size));
 
-        List<OrderResponse> responses = orderPage.getContent().stream()
+        List<OrderResponse> responses = findOrdersWithDetails(orderPage.getContent()).stream()
                 .map(order -> convertToResponse(order, order.getOrderDetails()))
                 .toList();
 
@@ -195,60 +242,139 @@ public class OrderServiceImpl implements OrderService {
                 .page(page)
                 .size(size)
                 .total(orderPage.getTotalPages())
+                .totalItems(orderPage.getTotalElements())
                 .items(responses)
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<?> getAllOrdersAfter(String after, int size, boolean withTotal) {
+        KeysetSlice<Order> slice = orderRepository.findSliceAfter(null, PageCursor.decode(after), size);
 
-    private DiscountResult applyDiscount(String discountCode, Long userId, BigDecimal totalPrice) {
-        Discount discount = discountService.getValidDiscountByCode(discountCode);
+        List<Long> orderIds = slice.items().stream().map(Order::getId).toList();
+        List<OrderResponse> responses = findOrdersWithDetails(orderIds).stream()
+                .map(order -> convertToResponse(order, order.getOrderDetails()))
+                .toList();
 
-        // Check ngày hợp lệ
-        LocalDateTime now = LocalDateTime.now();
-        if (discount.getStartDate() != null && discount.getStartDate().isAfter(now)) {
-            throw new IllegalArgumentException("Discount not started yet");
-        }
-        if (discount.getEndDate() != null && discount.getEndDate().isBefore(now)) {
-            throw new IllegalArgumentException("Discount has expired");
+        return PageResponse.builder()
+                .size(size)
+                .totalItems(withTotal ? orderRepository.count() : null)
+                .items(responses)
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    /**
+     * Give back the stock taken by the order lines
+     *
+     * @param details
+     */
+    private void releaseStock(List<OrderDetail> details) {
+        Map<Long, Integer> quantities = details.stream()
+                .collect(Collectors.toMap(detail -> detail.getProduct().getId(), OrderDetail::getQuantity, Integer::sum));
+        inventoryService.release(quantities);
+    }
+
+    /**
+     * Day the order is counted on in the sales counters
+     *
+     * @param order
+     * @return
+     */
+    private static LocalDate orderDate(Order order) {
+        return order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now();
+    }
+
+    /**
+     * Load a page of orders with lines, products and discount in one query, keeping the page order
+     *
+     * @param orderIds
+     * @return
+     */
+    private List<Order> findOrdersWithDetails(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
         }
+        Map<Long, Order> orders = orderRepository.findWithDetailsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return orderIds.stream().map(orders::get).filter(Objects::nonNull).toList();
+    }
 
-        // Kiểm tra số lượt dùng tổng
-        if (discount.getMaxUses() != null && discount.getMaxUses() <= 0) {
-            throw new IllegalArgumentException("Discount has been fully used");
+    /**
+     * Load all products referenced by the order lines with one query.
+     * Every unknown product id is reported in a single error.
+     *
+     * @param items
+     * @return products keyed by id
+     */
+    private Map<Long, Product> getProductsForOrder(List<OrderDetailRequestDTO> items) {
+        Set<Long> productIds = items.stream()
+                .map(OrderDetailRequestDTO::getProductId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        if (products.size() != productIds.size()) {
+            List<Long> missingIds = productIds.stream()
+                    .filter(id -> !products.containsKey(id))
+                    .sorted()
+                    .toList();
+            throw new ResourceNotFoundException("Product not found with ids=" + missingIds);
         }
 
-        // Kiểm tra số lượt dùng bởi user
-        int useByUser = discountUsageRepository.countByUserIdAndDiscount_Code(userId, discountCode);
-        if (discount.getMaxUsesPerUser() != null && useByUser >= discount.getMaxUsesPerUser()) {
-            throw new IllegalArgumentException("You have already used this discount code the maximum number of times");
+        return products;
+    }
+
+    private DiscountResult applyDiscount(String discountCode, Long userId, BigDecimal totalPrice) {
+        // Trạng thái và khoảng thời gian hiệu lực đã được kiểm tra trong catalog
+        DiscountRule discount = discountService.getValidDiscountByCode(discountCode);
+
+        // Kiểm tra nhanh số lượt dùng tổng (có thể hơi cũ), lượt thật sự được giữ trong redeemDiscount
+        if (discount.maxUses() != null && discount.maxUses() <= 0) {
+            throw new IllegalArgumentException("Discount has been fully used");
         }
 
         // Kiểm tra min order amount
-        if (discount.getMinOrderAmount() != null && totalPrice.compareTo(discount.getMinOrderAmount()) < 0) {
+        if (discount.minOrderAmount() != null && totalPrice.compareTo(discount.minOrderAmount()) < 0) {
             throw new IllegalArgumentException("Order total does not meet the minimum requirement for this discount");
         }
 
-        // Tính discount amount
-        BigDecimal discountAmount;
-        if (discount.getDiscountType().equals(DiscountType.PERCENTAGE)) {
-            discountAmount = totalPrice.multiply(discount.getValue()).divide(BigDecimal.valueOf(100));
-        } else {
-            discountAmount = discount.getValue();
-        }
+        return new DiscountResult(discount, discount.amountFor(totalPrice));
+    }
 
-        // Không được vượt quá tổng giá
-        if (discountAmount.compareTo(totalPrice) > 0) {
-            discountAmount = totalPrice;
+    /**
+     * Claim one use of the discount with conditional updates, so concurrent checkouts
+     * can never take more uses than allowed. Any failure rolls back the whole order.
+     *
+     * @param discount
+     * @param user
+     * @param order
+     */
+    private void redeemDiscount(Discount discount, User user, Order order) {
+        if (discount.getMaxUsesPerUser() != null) {
+            int maxUsesPerUser = discount.getMaxUsesPerUser();
+            if (discountUserCounterRepository.claimUse(discount.getId(), user.getId(), maxUsesPerUser) == 0) {
+                // Lần đầu user dùng code này: tạo counter rồi thử lại
+                discountUserCounterRepository.insertIfAbsent(discount.getId(), user.getId());
+                if (discountUserCounterRepository.claimUse(discount.getId(), user.getId(), maxUsesPerUser) == 0) {
+                    throw new IllegalArgumentException("You have already used this discount code the maximum number of times");
+                }
+            }
         }
 
-        // Trừ maxUses
-        if (discount.getMaxUses() != null) {
-            discount.setMaxUses(discount.getMaxUses() - 1);
+        if (discount.getMaxUses() != null && discountRepository.claimUse(discount.getId()) == 0) {
+            throw new IllegalArgumentException("Discount has been fully used");
         }
 
-        discountRepository.save(discount);
-
-        return new DiscountResult(discount, discountAmount);
+        discountUsageRepository.save(DiscountUsage.builder()
+                .user(user)
+                .discount(discount)
+                .order(order)
+                .usedAt(LocalDateTime.now())
+                .build());
     }
 
 
@@ -0,0 +1,249 @@
+package backend_service.shop.service.impl;
+
+import backend_service.shop.dto.response.ProductSalesReport;
+import backend_service.shop.entity.OrderDetail;
+import backend_service.shop.repository.JobLockRepository;
+import backend_service.shop.repository.ProductSalesCounterRepository.SalesDelta;
+import backend_service.shop.repository.ProductSalesCounterRepository.SalesKey;
+import backend_service.shop.repository.ProductSalesDailyRepository;
+import backend_service.shop.service.ProductSalesService;
+import backend_service.shop.util.SalesWindow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sales are counted per product and day (tbl_product_sales_daily) and per product
+ * (tbl_product_sales_total), so a report reads at most 30 rows per product instead of every order line.
+ * <p>
+ * The counter rows of a best seller are as hot as its stock row, so orders do not update them:
+ * committed orders add their lines to an in-memory buffer that is written back in one batch every
+ * sales.counter.flush-interval-ms and once more on shutdown. A crash loses at most one flush interval;
+ * the nightly rebuild of {@link backend_service.shop.job.ProductSalesBackfillJob} repairs it.
+ * <p>
+ * The sales_counted flag of tbl_order records which orders the counters hold. A flush only adds the
+ * orders it flags and only takes out the orders it unflags, in the same transaction, and the rebuild
+ * counts the flagged orders. So an order is never counted twice, whichever instance placed or
+ * cancelled it and whether or not a rebuild ran before its delta was written. Flushes and rebuilds
+ * of all instances are serialized on the product-sales row of tbl_job_lock.
+ * <p>
+ * The top sales.ranking.max-k products of each window are kept in memory and reloaded in the
+ * background after a flush, at the latest every sales.ranking.max-age-ms for orders counted by
+ * other instances; a request never waits for the aggregation.
+ */
+@Service
+@Slf4j
+public class ProductSalesServiceImpl implements ProductSalesService {
+
+    private static final String LOCK_NAME = "product-sales";
+
+    private final ProductSalesDailyRepository salesRepository;
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxK;
+    private final long maxAgeMs;
+
+    // Đơn đã commit (đặt hoặc hủy) chưa ghi xuống DB
+    private final Queue<OrderSales> pending = new ConcurrentLinkedQueue<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private volatile Rankings rankings;
+
+    public ProductSalesServiceImpl(ProductSalesDailyRepository salesRepository,
+                                   JobLockRepository jobLockRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${sales.ranking.max-k:100}") int maxK,
+                                   @Value("${sales.ranking.max-age-ms:60000}") long maxAgeMs) {
+        this.salesRepository = salesRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName("ProductSalesService.flush");
+        this.maxK = maxK;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrder(Long orderId, LocalDate orderDate, List<OrderDetail> details) {
+        addAfterCommit(new OrderSales(orderId, false, deltas(orderDate, details, false)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reverseOrder(Long orderId, LocalDate orderDate, List<OrderDetail> details) {
+        addAfterCommit(new OrderSales(orderId, true, deltas(orderDate, details, true)));
+    }
+
+    @Override
+    public List<ProductSalesReport> getTopSelling(SalesWindow window, int limit) {
+        LocalDate today = LocalDate.now();
+        if (limit > maxK) {
+            return salesRepository.findTopSelling(window.since(today), limit);
+        }
+
+        Rankings current = rankings;
+        if (current == null || !current.day.equals(today)) {
+            current = reload();
+        }
+        List<ProductSalesReport> ranking = current.byWindow.get(window);
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    @Override
+    public int rebuild() {
+        synchronized (flushLock) {
+            // Delta đang chờ vẫn giữ lại: đơn rebuild đã tính thì lúc flush sẽ bị bỏ qua nhờ cờ sales_counted
+            long start = System.currentTimeMillis();
+            Integer rows = transactionTemplate.execute(status -> {
+                jobLockRepository.lock(LOCK_NAME);
+                return salesRepository.rebuildFromOrders();
+            });
+            dirty.set(true);
+            log.info("Rebuilt product sales counters, rows={}, took={}ms", rows, System.currentTimeMillis() - start);
+            return rows != null ? rows : 0;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasCounters() {
+        return salesRepository.hasCounters();
+    }
+
+    @Scheduled(fixedDelayString = "${sales.counter.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (flushLock) {
+            flushPending();
+            if (!pending.isEmpty()) {
+                log.error("Product sales counters shut down with {} unflushed deltas", pending.size());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sales.ranking.refresh-interval-ms:10000}",
+            initialDelayString = "${sales.ranking.refresh-interval-ms:10000}")
+    public void refresh() {
+        Rankings current = rankings;
+        boolean stale = current == null
+                || !current.day.equals(LocalDate.now())
+                || System.currentTimeMillis() - current.loadedAtMillis >= maxAgeMs;
+        if (dirty.get() || stale) {
+            reload();
+        }
+    }
+
+    private void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<OrderSales> drained = new ArrayList<>();
+        for (OrderSales sales = pending.poll(); sales != null; sales = pending.poll()) {
+            drained.add(sales);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jobLockRepository.lock(LOCK_NAME);
+                salesRepository.addSales(countable(drained));
+            });
+        } catch (RuntimeException e) {
+            log.error("Product sales flush failed, {} orders will be retried", drained.size(), e);
+            pending.addAll(drained);
+            return;
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Flag the drained orders and sum the deltas of the ones whose flag this flush changed.
+     * Placements go first, so an order placed and cancelled within one interval nets to zero.
+     */
+    private Map<SalesKey, SalesDelta> countable(List<OrderSales> drained) {
+        List<OrderSales> placed = drained.stream().filter(sales -> !sales.reverse()).toList();
+        List<OrderSales> cancelled = drained.stream().filter(OrderSales::reverse).toList();
+        int[] counted = salesRepository.markCounted(placed.stream().map(OrderSales::orderId).toList());
+        int[] uncounted = salesRepository.markUncounted(cancelled.stream().map(OrderSales::orderId).toList());
+
+        Map<SalesKey, SalesDelta> deltas = new HashMap<>();
+        for (int i = 0; i < placed.size(); i++) {
+            if (counted[i] > 0) {
+                placed.get(i).deltas().forEach((key, delta) -> deltas.merge(key, delta, SalesDelta::plus));
+            }
+        }
+        for (int i = 0; i < cancelled.size(); i++) {
+            if (uncounted[i] > 0) {
+                cancelled.get(i).deltas().forEach((key, delta) -> deltas.merge(key, delta, SalesDelta::plus));
+            }
+        }
+        return deltas;
+    }
+
+    private synchronized Rankings reload() {
+        // Xóa cờ trước khi đọc: flush xong trong lúc đang load sẽ bật lại cờ cho lần refresh sau
+        dirty.set(false);
+        LocalDate today = LocalDate.now();
+        Map<SalesWindow, List<ProductSalesReport>> byWindow = new EnumMap<>(SalesWindow.class);
+        for (SalesWindow window : SalesWindow.values()) {
+            byWindow.put(window, List.copyOf(salesRepository.findTopSelling(window.since(today), maxK)));
+        }
+        Rankings loaded = new Rankings(today, System.currentTimeMillis(), byWindow);
+        rankings = loaded;
+        return loaded;
+    }
+
+    private void addAfterCommit(OrderSales sales) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.add(sales);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.add(sales);
+            }
+        });
+    }
+
+    private static Map<SalesKey, SalesDelta> deltas(LocalDate orderDate, List<OrderDetail> details, boolean reverse) {
+        Map<SalesKey, SalesDelta> deltas = new HashMap<>();
+        for (OrderDetail detail : details) {
+            BigDecimal revenue = detail.getTotalPrice() != null ? detail.getTotalPrice() : BigDecimal.ZERO;
+            SalesDelta delta = new SalesDelta(detail.getQuantity(), revenue);
+            deltas.merge(new SalesKey(detail.getProduct().getId(), orderDate),
+                    reverse ? delta.negate() : delta, SalesDelta::plus);
+        }
+        return deltas;
+    }
+
+    private record OrderSales(Long orderId, boolean reverse, Map<SalesKey, SalesDelta> deltas) {
+    }
+
+    private record Rankings(LocalDate day, long loadedAtMillis, Map<SalesWindow, List<ProductSalesReport>> byWindow) {
+    }
+}
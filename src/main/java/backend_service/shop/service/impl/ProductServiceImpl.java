@@ -1,30 +1,50 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.CategoryNode;
+import backend_service.shop.cache.CategoryTreeCache;
+import backend_service.shop.cache.CategoryTreeSnapshot;
+import backend_service.shop.cache.ProductCatalogCache;
+import backend_service.shop.dto.request.ProductFilterRequest;
 import backend_service.shop.dto.request.ProductRequestDTO;
+import backend_service.shop.dto.response.FacetCount;
+import backend_service.shop.dto.response.ProductFacetResponse;
 import backend_service.shop.dto.response.ProductResponse;
+import backend_service.shop.dto.response.ProductSearchHit;
 import backend_service.shop.dto.response.system.PageResponse;
 import backend_service.shop.entity.Category;
 import backend_service.shop.entity.Product;
 import backend_service.shop.entity.ProductImage;
+import backend_service.shop.event.ProductChangedEvent;
 import backend_service.shop.exception.ResourceNotFoundException;
 import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.KeysetSlice;
 import backend_service.shop.repository.ProductImageRepository;
 import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.search.ProductFacetIndexer;
+import backend_service.shop.search.ProductFacetQuery;
+import backend_service.shop.search.ProductFacetResult;
+import backend_service.shop.search.ProductSearchIndexer;
+import backend_service.shop.search.ProductSearchQuery;
+import backend_service.shop.search.ProductSearchResult;
 import backend_service.shop.service.ProductService;
+import backend_service.shop.util.PageCursor;
+import backend_service.shop.util.ProductStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +57,11 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndexer productSearchIndexer;
+    private final ProductFacetIndexer productFacetIndexer;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create product and upload list image
@@ -72,6 +97,7 @@ public class ProductServiceImpl implements ProductService {
             savedProduct.setImages(productImages);
         }
 
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), ProductChangedEvent.Type.CREATED));
         log.info("Created product successfully. productId={}", savedProduct.getId());
         return toProductResponse(savedProduct);
     }
@@ -112,6 +138,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(updatedProduct.getId(), ProductChangedEvent.Type.UPDATED));
         log.info("Updated product successfully. productId={}", updatedProduct.getId());
         return toProductResponse(updatedProduct);
     }
@@ -127,46 +154,200 @@ public class ProductServiceImpl implements ProductService {
         Product product = getProductByIdFromDb(id);
         productImageRepository.deleteAllByProductId(product.getId());
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.DELETED));
         log.info("Deleted product successfully. productId={}", id);
     }
 
     /**
-     * Get product by id
+     * Get product by id, served from the catalog cache.
+     * No surrounding transaction so a cache hit never borrows a DB connection.
      *
      * @param id
      * @return
      */
     @Override
-    @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = getProductByIdFromDb(id);
-        return toProductResponse(product);
+        return productCatalogCache.getProduct(id, productId -> {
+            Product product = productRepository.findWithImagesById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id=" + productId));
+            return toProductResponse(product);
+        });
     }
 
     /**
-     * Get list product per page and size
+     * Get list product per page and size, served from the catalog cache
      *
      * @param page
      * @param size
      * @return
      */
     @Override
-    @Transactional(readOnly = true)
     public PageResponse<?> getListProduct(int page, int size) {
+        return productCatalogCache.getPage(page, size, () -> loadProductPage(page, size));
+    }
+
+    /**
+     * Get list product after the cursor (keyset), newest first
+     *
+     * @param after
+     * @param size
+     * @param withTotal
+     * @return
+     */
+    @Override
+    public PageResponse<?> getListProductAfter(String after, int size, boolean withTotal) {
+        KeysetSlice<Product> slice = productRepository.findSliceAfter(null, PageCursor.decode(after), size);
+
+        return PageResponse.<List<ProductResponse>>builder()
+                .size(size)
+                .totalItems(withTotal ? productRepository.count() : null)
+                .items(toProductResponses(slice.items()))
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    /**
+     * Full-text search served from the in-memory index, no DB access
+     *
+     * @param query
+     * @return
+     */
+    @Override
+    public PageResponse<?> searchProducts(ProductSearchQuery query) {
+        ProductSearchResult result = productSearchIndexer.search(query);
+
+        // Quá ngưỡng search.index.total-hits-threshold thì index ngừng đếm: không trả totalItems, chỉ báo còn trang sau
+        return PageResponse.<List<ProductSearchHit>>builder()
+                .page(query.offset() / query.limit())
+                .size(query.limit())
+                .totalItems(result.totalExact() ? result.total() : null)
+                .hasNext(result.totalExact() ? result.total() > query.offset() + query.limit() : Boolean.TRUE)
+                .items(result.hits())
+                .build();
+    }
+
+    /**
+     * Typeahead: active products whose words start with what was typed so far
+     *
+     * @param text
+     * @param limit
+     * @return
+     */
+    @Override
+    public List<ProductSearchHit> suggestProducts(String text, int limit) {
+        return productSearchIndexer.search(new ProductSearchQuery(text, true, ProductStatus.ACTIVE, null, null, null, 0, limit)).hits();
+    }
+
+    /**
+     * Faceted filtering served from the in-memory facet index, only the products of the page are read from DB
+     *
+     * @param request
+     * @return
+     */
+    @Override
+    public ProductFacetResponse filterProducts(ProductFilterRequest request) {
+        CategoryTreeSnapshot tree = categoryTreeCache.get();
+        Long categoryId = request.getCategoryId();
+        Set<Long> categoryIds = null;
+        if (categoryId != null) {
+            // Category không tồn tại thì không khớp sản phẩm nào, không phải bỏ lọc
+            categoryIds = tree.subtreeIds(categoryId);
+            categoryIds = categoryIds.isEmpty() ? Set.of(categoryId) : categoryIds;
+        }
+        // Đếm theo các category con của category đang chọn (hoặc các root) để khách đi tiếp xuống cây
+        Map<Long, Set<Long>> categoryBuckets = new LinkedHashMap<>();
+        tree.children(categoryId).forEach(child -> categoryBuckets.put(child.id(), tree.subtreeIds(child.id())));
+
+        ProductFacetResult result = productFacetIndexer.search(new ProductFacetQuery(categoryIds, categoryBuckets,
+                request.getStatuses(), request.getTags(), request.getPriceBands(), request.getInStock(),
+                (long) request.getPage() * request.getSize(), request.getSize()));
+
+        Map<Long, Product> products = productRepository.findAllById(result.productIds()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> page = result.productIds().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        List<BigDecimal> priceBands = productFacetIndexer.priceBands();
+        List<FacetCount> priceBandCounts = new ArrayList<>();
+        for (int band = 0; band < result.priceBandCounts().size(); band++) {
+            priceBandCounts.add(new FacetCount(String.valueOf(band), priceBandLabel(priceBands, band), result.priceBandCounts().get(band)));
+        }
+
+        return ProductFacetResponse.builder()
+                .page(request.getPage())
+                .size(request.getSize())
+                .totalItems(result.total())
+                .items(toProductResponses(page))
+                .categories(result.categoryCounts().entrySet().stream()
+                        .map(entry -> new FacetCount(entry.getKey().toString(),
+                                tree.get(entry.getKey()).map(CategoryNode::name).orElse(null), entry.getValue()))
+                        .toList())
+                .statuses(toFacetCounts(result.statusCounts()))
+                .tags(toFacetCounts(result.tagCounts()))
+                .priceBands(priceBandCounts)
+                .stock(List.of(
+                        new FacetCount("true", null, result.stockCounts().get(true)),
+                        new FacetCount("false", null, result.stockCounts().get(false))))
+                .build();
+    }
+
+    private static List<FacetCount> toFacetCounts(Map<? extends Enum<?>, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetCount(entry.getKey().name(), null, entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * "<100000", "100000-300000", ..., ">=1000000"
+     */
+    private static String priceBandLabel(List<BigDecimal> bounds, int band) {
+        if (bounds.isEmpty()) {
+            return null;
+        }
+        if (band == 0) {
+            return "<" + bounds.get(0).toPlainString();
+        }
+        if (band == bounds.size()) {
+            return ">=" + bounds.get(band - 1).toPlainString();
+        }
+        return bounds.get(band - 1).toPlainString() + "-" + bounds.get(band).toPlainString();
+    }
+
+    private PageResponse<List<ProductResponse>> loadProductPage(int page, int size) {
         Page<Product> productPage = productRepository.findAll(PageRequest.of(page, size));
-        List<ProductResponse> items = productPage.stream()
-                .map(this::toProductResponse)
-                .collect(Collectors.toList());
 
-        return PageResponse.builder()
+        return PageResponse.<List<ProductResponse>>builder()
                 .page(page)
                 .size(size)
                 .total(productPage.getTotalPages())
-                .items(items)
+                .totalItems(productPage.getTotalElements())
+                .items(toProductResponses(productPage.getContent()))
                 .build();
     }
 
+    private List<ProductResponse> toProductResponses(List<Product> products) {
+        // Ảnh của cả trang lấy bằng 1 query thay vì lazy load từng product
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        Map<Long, List<String>> imageUrls = productIds.isEmpty() ? Map.of()
+                : productImageRepository.findByProductIdIn(productIds).stream()
+                .collect(Collectors.groupingBy(image -> image.getProduct().getId(),
+                        Collectors.mapping(ProductImage::getImageUrl, Collectors.toList())));
+
+        return products.stream()
+                .map(product -> toProductResponse(product, imageUrls.getOrDefault(product.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
     private ProductResponse toProductResponse(Product product) {
+        return toProductResponse(product, product.getImages() != null
+                ? product.getImages().stream().map(ProductImage::getImageUrl).toList()
+                : List.of());
+    }
+
+    private ProductResponse toProductResponse(Product product, List<String> imageUrls) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -176,13 +357,12 @@ public class ProductServiceImpl implements ProductService {
                 .price(product.getPrice())
                 .salePrice(product.getSalePrice())
                 .sku(product.getSku())
+                .stockQuantity(product.getStockQuantity())
                 .thumbnail(product.getThumbnail())
                 .status(product.getStatus())
                 .tag(product.getTag())
                 .categoryId(product.getCategory().getId())
-                .imageUrls(product.getImages() != null
-                        ? product.getImages().stream().map(ProductImage::getImageUrl).toList()
-                        : List.of())
+                .imageUrls(imageUrls)
                 .build();
     }
 
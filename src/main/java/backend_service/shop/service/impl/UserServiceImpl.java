@@ -1,5 +1,6 @@
 package backend_service.shop.service.impl;
 
+import backend_service.shop.cache.UserAuthCache;
 import backend_service.shop.dto.request.AddressRequestDTO;
 import backend_service.shop.dto.request.UserRequestDTO;
 import backend_service.shop.dto.response.system.PageResponse;
@@ -7,8 +8,10 @@ import backend_service.shop.dto.response.UserDetailResponse;
 import backend_service.shop.entity.Address;
 import backend_service.shop.entity.User;
 import backend_service.shop.exception.ResourceNotFoundException;
+import backend_service.shop.repository.KeysetSlice;
 import backend_service.shop.repository.UserRepository;
 import backend_service.shop.service.UserService;
+import backend_service.shop.util.PageCursor;
 import backend_service.shop.util.UserStatus;
 import backend_service.shop.util.UserType;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +33,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserAuthCache userAuthCache;
 
 //    @Override
 //    public UserDetailsService userDetailsService() {
@@ -78,6 +82,7 @@ public class UserServiceImpl implements UserService {
     public void updateUser(long userId, UserRequestDTO request) {
 
         User user = getUserById(userId);
+        String oldUsername = user.getUsername();
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setDateOfBirth(request.getDateOfBirth());
@@ -93,6 +98,8 @@ public class UserServiceImpl implements UserService {
         user.setUserType(UserType.valueOf(request.getType().toUpperCase()));
         user.setAddresses(convertToAddress(request.getAddresses()));
         userRepository.save(user);
+        userAuthCache.invalidate(oldUsername);
+        userAuthCache.invalidate(user.getUsername());
 
         log.info("User has updated successfully, userId={}", userId);
 
@@ -109,6 +116,7 @@ public class UserServiceImpl implements UserService {
         User user = getUserById(userId);
         user.setUserStatus(status);
         userRepository.save(user);
+        userAuthCache.invalidate(user.getUsername());
         log.info("User status has changed successfully, userId={}", userId);
     }
 
@@ -121,6 +129,7 @@ public class UserServiceImpl implements UserService {
         User user = getUserById(userId);
         if(user != null) {
             userRepository.delete(user);
+            userAuthCache.invalidate(user.getUsername());
             log.info("User has deleted permanent successfully, userId={}", userId);
         }
     }
@@ -159,28 +168,55 @@ public class UserServiceImpl implements UserService {
     public PageResponse<?> getAllUsers(int pageNo, int pageSize) {
         Page<User> page = userRepository.findAll(PageRequest.of(pageNo, pageSize));
 
-        List<UserDetailResponse> responseList = page.stream().map(user -> UserDetailResponse.builder()
-                    .id(user.getId())
-                    .firstName(user.getFirstName())
-                    .lastName(user.getLastName())
-                    .dateOfBirth(user.getDateOfBirth())
-                    .gender(user.getGender())
-                    .phone(user.getPhoneNumber())
-                    .email(user.getEmail())
-                    .username(user.getUsername())
-                    .status(user.getUserStatus())
-                    .type(user.getUserType().name())
-                    .build())
-                .toList();
+        List<UserDetailResponse> responseList = page.stream().map(this::toUserDetailResponse).toList();
 
         return PageResponse.builder()
                 .page(pageNo)
                 .size(pageSize)
                 .total(page.getTotalPages())
+                .totalItems(page.getTotalElements())
                 .items(responseList)
                 .build();
     }
 
+    /**
+     * Get user list after the cursor (keyset), newest first
+     *
+     * @param after
+     * @param pageSize
+     * @param withTotal
+     * @return
+     */
+    @Override
+    public PageResponse<?> getAllUsersAfter(String after, int pageSize, boolean withTotal) {
+        KeysetSlice<User> slice = userRepository.findSliceAfter(null, PageCursor.decode(after), pageSize);
+
+        List<UserDetailResponse> responseList = slice.items().stream().map(this::toUserDetailResponse).toList();
+
+        return PageResponse.builder()
+                .size(pageSize)
+                .totalItems(withTotal ? userRepository.count() : null)
+                .items(responseList)
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    private UserDetailResponse toUserDetailResponse(User user) {
+        return UserDetailResponse.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .dateOfBirth(user.getDateOfBirth())
+                .gender(user.getGender())
+                .phone(user.getPhoneNumber())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .status(user.getUserStatus())
+                .type(user.getUserType().name())
+                .build();
+    }
+
     @Override
     public List<String> findAllRolesByUserId(long userId) {
         return userRepository.findAllRolesByUserId(userId);
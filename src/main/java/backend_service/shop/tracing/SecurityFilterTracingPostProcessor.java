@@ -0,0 +1,21 @@
+package backend_service.shop.tracing;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs {@link TracingFilterChainDecorator} on the Spring Security filter chain.
+ * It replaces the Micrometer observation decorator, whose per-filter observations are not used here.
+ */
+@Component
+public class SecurityFilterTracingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof FilterChainProxy filterChainProxy) {
+            filterChainProxy.setFilterChainDecorator(new TracingFilterChainDecorator());
+        }
+        return bean;
+    }
+}
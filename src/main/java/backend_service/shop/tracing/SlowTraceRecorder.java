@@ -0,0 +1,117 @@
+package backend_service.shop.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts sampled traces and keeps the slowest N finished ones of the retention window.
+ * Only traces slower than tracing.min-duration-ms are turned into views, so fast requests
+ * cost a few span allocations and nothing more.
+ */
+@Component
+public class SlowTraceRecorder {
+
+    private static final Comparator<TraceView> BY_DURATION = Comparator.comparingDouble(TraceView::durationMs);
+
+    private final double sampleRate;
+    private final long minDurationNanos;
+    private final int maxSpans;
+    private final int capacity;
+    private final Duration retention;
+
+    // Min-heap: phần tử đầu là trace nhanh nhất trong N trace chậm nhất, bị thay khi có trace chậm hơn
+    private final PriorityQueue<TraceView> slowest = new PriorityQueue<>(BY_DURATION);
+
+    public SlowTraceRecorder(@Value("${tracing.sample-rate:1.0}") double sampleRate,
+                             @Value("${tracing.min-duration-ms:200}") long minDurationMs,
+                             @Value("${tracing.max-spans:500}") int maxSpans,
+                             @Value("${tracing.slowest-size:50}") int capacity,
+                             @Value("${tracing.retention-minutes:60}") long retentionMinutes) {
+        this.sampleRate = sampleRate;
+        this.minDurationNanos = TimeUnit.MILLISECONDS.toNanos(minDurationMs);
+        this.maxSpans = maxSpans;
+        this.capacity = capacity;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Start a trace on the current thread if it is sampled and no trace is running yet
+     *
+     * @return the trace, null when not traced
+     */
+    Trace begin(SpanKind kind, String name) {
+        if (Tracing.isActive() || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return null;
+        }
+        return Tracing.begin(kind, name, maxSpans);
+    }
+
+    void finish(Trace trace) {
+        if (trace == null) {
+            return;
+        }
+        Tracing.end(trace);
+        if (trace.durationNanos() >= minDurationNanos) {
+            add(trace.toView());
+        }
+    }
+
+    /**
+     * Run a background task as its own trace, e.g. one invoice of the outbox worker
+     */
+    public void trace(SpanKind kind, String name, Runnable task) {
+        Trace trace = begin(kind, name);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            if (trace != null) {
+                trace.root().error(e);
+            }
+            throw e;
+        } finally {
+            finish(trace);
+        }
+    }
+
+    /**
+     * @return slowest traces of the retention window, slowest first
+     */
+    public synchronized List<TraceView> slowest() {
+        evictExpired();
+        List<TraceView> traces = new ArrayList<>(slowest);
+        traces.sort(BY_DURATION.reversed());
+        return traces;
+    }
+
+    public synchronized Optional<TraceView> find(String id) {
+        return slowest.stream().filter(trace -> trace.id().equals(id)).findFirst();
+    }
+
+    public synchronized void clear() {
+        slowest.clear();
+    }
+
+    private synchronized void add(TraceView trace) {
+        evictExpired();
+        if (slowest.size() < capacity) {
+            slowest.add(trace);
+        } else if (BY_DURATION.compare(slowest.peek(), trace) < 0) {
+            slowest.poll();
+            slowest.add(trace);
+        }
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        slowest.removeIf(trace -> trace.startedAt().isBefore(cutoff));
+    }
+}
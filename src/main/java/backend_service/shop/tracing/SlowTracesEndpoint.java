@@ -0,0 +1,37 @@
+package backend_service.shop.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * /actuator/slowtraces: slowest sampled requests and jobs with their span tree,
+ * /actuator/slowtraces/{id} for one trace (id from the X-Trace-Id response header)
+ */
+@Component
+@Endpoint(id = "slowtraces")
+@RequiredArgsConstructor
+public class SlowTracesEndpoint {
+
+    private final SlowTraceRecorder slowTraceRecorder;
+
+    @ReadOperation
+    public List<TraceView> slowest() {
+        return slowTraceRecorder.slowest();
+    }
+
+    @ReadOperation
+    public TraceView trace(@Selector String id) {
+        // null -> actuator trả về 404
+        return slowTraceRecorder.find(id).orElse(null);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowTraceRecorder.clear();
+    }
+}
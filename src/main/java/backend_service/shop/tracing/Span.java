@@ -0,0 +1,81 @@
+package backend_service.shop.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One timed step of a trace. Spans are confined to the thread running the trace,
+ * so nothing here is synchronized.
+ * <p>
+ * Use with try-with-resources: {@code try (Span span = Tracing.start(SpanKind.EXTERNAL, "smtp")) { ... }}
+ */
+public class Span implements AutoCloseable {
+
+    // Trả về khi không có trace đang chạy, mọi thao tác đều là no-op
+    static final Span NOOP = new Span(null, null, null, null) {
+        @Override
+        public void error(Throwable e) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final Trace trace;
+    private final Span parent;
+    private final SpanKind kind;
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private long endNanos;
+    private String error;
+    private List<Span> children;
+
+    Span(Trace trace, Span parent, SpanKind kind, String name) {
+        this.trace = trace;
+        this.parent = parent;
+        this.kind = kind;
+        this.name = name;
+    }
+
+    public void error(Throwable e) {
+        this.error = e.getClass().getSimpleName();
+    }
+
+    @Override
+    public void close() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+            trace.closed(this);
+        }
+    }
+
+    void addChild(Span child) {
+        if (children == null) {
+            children = new ArrayList<>();
+        }
+        children.add(child);
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    long durationNanos() {
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    SpanView toView(long traceStartNanos) {
+        List<SpanView> childViews = children == null ? List.of()
+                : children.stream().map(child -> child.toView(traceStartNanos)).toList();
+        return new SpanView(kind, name, toMillis(startNanos - traceStartNanos), toMillis(durationNanos()), error, childViews);
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
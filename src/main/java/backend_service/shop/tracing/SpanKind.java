@@ -0,0 +1,12 @@
+package backend_service.shop.tracing;
+
+public enum SpanKind {
+    REQUEST,
+    JOB,
+    FILTER,
+    SERVICE,
+    REPOSITORY,
+    QUERY,
+    EXTERNAL,
+    INTERNAL
+}
@@ -0,0 +1,9 @@
+package backend_service.shop.tracing;
+
+import java.util.List;
+
+/**
+ * @param startMs offset from the start of the trace
+ */
+public record SpanView(SpanKind kind, String name, double startMs, double durationMs, String error, List<SpanView> children) {
+}
@@ -0,0 +1,69 @@
+package backend_service.shop.tracing;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Span tree of one request or background job, built on the thread that runs it
+ */
+final class Trace {
+
+    private final String id = UUID.randomUUID().toString();
+    private final Instant startedAt = Instant.now();
+    private final int maxSpans;
+    private final Span root;
+    private Span current;
+    private int spans = 1;
+    private int dropped;
+    private String name;
+
+    Trace(SpanKind kind, String name, int maxSpans) {
+        this.name = name;
+        this.maxSpans = maxSpans;
+        this.root = new Span(this, null, kind, name);
+        this.current = root;
+    }
+
+    Span start(SpanKind kind, String name) {
+        // Giới hạn số span để 1 request N+1 không làm phình bộ nhớ
+        if (spans >= maxSpans) {
+            dropped++;
+            return Span.NOOP;
+        }
+        Span span = new Span(this, current, kind, name);
+        current.addChild(span);
+        current = span;
+        spans++;
+        return span;
+    }
+
+    void closed(Span span) {
+        if (span == current && span.parent() != null) {
+            current = span.parent();
+        }
+    }
+
+    String id() {
+        return id;
+    }
+
+    Span root() {
+        return root;
+    }
+
+    /**
+     * @param name final name, e.g. with the matched URI pattern once it is known
+     */
+    void rename(String name) {
+        this.name = name;
+    }
+
+    long durationNanos() {
+        return root.durationNanos();
+    }
+
+    TraceView toView() {
+        SpanView rootView = root.toView(root.startNanos());
+        return new TraceView(id, name, startedAt, rootView.durationMs(), spans, dropped, rootView);
+    }
+}
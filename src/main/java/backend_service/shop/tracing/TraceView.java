@@ -0,0 +1,11 @@
+package backend_service.shop.tracing;
+
+import java.time.Instant;
+
+/**
+ * Finished trace as served by the slowtraces actuator endpoint
+ *
+ * @param dropped spans not recorded because the trace hit tracing.max-spans
+ */
+public record TraceView(String id, String name, Instant startedAt, double durationMs, int spans, int dropped, SpanView root) {
+}
@@ -0,0 +1,33 @@
+package backend_service.shop.tracing;
+
+/**
+ * Entry point of the in-process tracer. The trace of the current thread is kept in a ThreadLocal,
+ * so instrumented code only calls {@link #start} and closes the span; outside a trace it gets a no-op span.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    public static Span start(SpanKind kind, String name) {
+        Trace trace = CURRENT.get();
+        return trace != null ? trace.start(kind, name) : Span.NOOP;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static Trace begin(SpanKind kind, String name, int maxSpans) {
+        Trace trace = new Trace(kind, name, maxSpans);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void end(Trace trace) {
+        trace.root().close();
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,48 @@
+package backend_service.shop.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Span per call to a service implementation or a Spring Data repository.
+ * Outside a sampled trace the advice only costs a ThreadLocal lookup.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Around("within(backend_service.shop.service.impl..*) && execution(public * *(..))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!Tracing.isActive()) {
+            return joinPoint.proceed();
+        }
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        return proceed(joinPoint, SpanKind.SERVICE, name);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!Tracing.isActive()) {
+            return joinPoint.proceed();
+        }
+        // Method kế thừa (findById, save...) khai báo ở CrudRepository, lấy tên interface của repository thật
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        String repository = interfaces.length > 0 ? interfaces[0].getSimpleName()
+                : joinPoint.getSignature().getDeclaringType().getSimpleName();
+        return proceed(joinPoint, SpanKind.REPOSITORY, repository + "." + joinPoint.getSignature().getName());
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, SpanKind kind, String name) throws Throwable {
+        try (Span span = Tracing.start(kind, name)) {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable e) {
+                span.error(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package backend_service.shop.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+
+/**
+ * Root span of each sampled HTTP request. The trace id is returned in X-Trace-Id
+ * so a slow call seen by the client can be looked up in /actuator/slowtraces/{id}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final SlowTraceRecorder slowTraceRecorder;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Trace trace = slowTraceRecorder.begin(SpanKind.REQUEST, request.getMethod() + " " + request.getRequestURI());
+        if (trace == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(TRACE_ID_HEADER, trace.id());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            trace.root().error(e);
+            throw e;
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+            trace.rename(request.getMethod() + " " + uri + " -> " + response.getStatus());
+            slowTraceRecorder.finish(trace);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package backend_service.shop.tracing;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Span per Spring Security filter. A filter span covers everything after it in the chain,
+ * the time of the filter itself is its duration minus the child filter span.
+ */
+class TracingFilterChainDecorator implements FilterChainProxy.FilterChainDecorator {
+
+    private final FilterChainProxy.FilterChainDecorator delegate = new FilterChainProxy.VirtualFilterChainDecorator();
+
+    @Override
+    public FilterChain decorate(FilterChain original) {
+        return delegate.decorate(original);
+    }
+
+    @Override
+    public FilterChain decorate(FilterChain original, List<Filter> filters) {
+        return delegate.decorate(original, filters.stream().<Filter>map(TracedFilter::new).toList());
+    }
+
+    private record TracedFilter(Filter filter) implements Filter {
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            if (!Tracing.isActive()) {
+                filter.doFilter(request, response, chain);
+                return;
+            }
+            try (Span span = Tracing.start(SpanKind.FILTER, filter.getClass().getSimpleName())) {
+                try {
+                    filter.doFilter(request, response, chain);
+                } catch (IOException | ServletException | RuntimeException e) {
+                    span.error(e);
+                    throw e;
+                }
+            }
+        }
+    }
+}
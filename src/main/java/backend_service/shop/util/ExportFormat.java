@@ -0,0 +1,6 @@
+package backend_service.shop.util;
+
+public enum ExportFormat {
+    CSV,    // 1 dòng / order line, có header
+    NDJSON  // 1 JSON object / order, order lines lồng bên trong
+}
@@ -0,0 +1,8 @@
+package backend_service.shop.util;
+
+public enum OutboxStatus {
+    PENDING,     // Chờ worker xử lý (hoặc chờ retry)
+    PROCESSING,  // Worker đã nhận, next_attempt_at là hạn lease
+    DONE,        // Đã tạo và gửi hóa đơn
+    FAILED       // Hết số lần retry
+}
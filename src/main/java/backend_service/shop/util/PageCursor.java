@@ -0,0 +1,48 @@
+package backend_service.shop.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned by a keyset page, ordered by (created_at desc, id desc).
+ * Sent to clients as an opaque url-safe string.
+ *
+ * @param createdAt null for rows without created_at, which come after every dated row
+ * @param id
+ */
+public record PageCursor(LocalDateTime createdAt, Long id) {
+
+    public String encode() {
+        // Dòng cũ / dòng chèn bằng JDBC có thể không có created_at: để trống phần thời gian
+        String raw = createdAt == null
+                ? ":" + id
+                : createdAt.toEpochSecond(ZoneOffset.UTC) + "." + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor value received from the client
+     * @return decoded cursor, null if the cursor is blank (first page)
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            long id = Long.parseLong(raw.substring(colon + 1));
+            if (colon == 0) {
+                return new PageCursor(null, id);
+            }
+            int dot = raw.indexOf('.');
+            long seconds = Long.parseLong(raw.substring(0, dot));
+            int nanos = Integer.parseInt(raw.substring(dot + 1, colon));
+            return new PageCursor(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
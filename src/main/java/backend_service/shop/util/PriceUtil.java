@@ -0,0 +1,24 @@
+package backend_service.shop.util;
+
+import backend_service.shop.entity.Product;
+import java.math.BigDecimal;
+
+public final class PriceUtil {
+
+    private PriceUtil() {
+    }
+
+    /**
+     * Price a product is sold at: the sale price when one is set and lower than the list price
+     *
+     * @param product
+     * @return
+     */
+    public static BigDecimal effectivePrice(Product product) {
+        BigDecimal salePrice = product.getSalePrice();
+        if (salePrice != null && salePrice.signum() > 0 && salePrice.compareTo(product.getPrice()) < 0) {
+            return salePrice;
+        }
+        return product.getPrice();
+    }
+}
@@ -0,0 +1,23 @@
+package backend_service.shop.util;
+
+import java.time.LocalDate;
+
+public enum SalesWindow {
+    TODAY(1),
+    LAST_7_DAYS(7),
+    LAST_30_DAYS(30),
+    ALL_TIME(0);
+
+    private final int days;
+
+    SalesWindow(int days) {
+        this.days = days;
+    }
+
+    /**
+     * @return first day counted in the window, null for ALL_TIME
+     */
+    public LocalDate since(LocalDate today) {
+        return days == 0 ? null : today.minusDays(days - 1L);
+    }
+}
@@ -0,0 +1,36 @@
+package backend_service.shop.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class TokenHashUtil {
+
+    private TokenHashUtil() {
+    }
+
+    /**
+     * SHA-256 of a token
+     *
+     * @param token
+     * @return 32 byte digest
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * First 64 bits of the SHA-256 of a token, used as a compact in-memory key
+     *
+     * @param token
+     * @return
+     */
+    public static long digest64(String token) {
+        return ByteBuffer.wrap(sha256(token)).getLong();
+    }
+}
@@ -0,0 +1,49 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.event.CategoryChangedEvent;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.util.CategoryStatus;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A category write committing while the tree is reloaded is not lost when the reload swaps in its snapshot.
+ */
+class CategoryTreeCacheTest {
+
+    private static final CategoryNode OLD = new CategoryNode(1L, "Giày dép", null, CategoryStatus.ACTIVE);
+    private static final CategoryNode RENAMED = new CategoryNode(1L, "Giày & dép", null, CategoryStatus.ACTIVE);
+
+    @Test
+    void changeCommittedDuringReloadIsReplayed() {
+        CategoryRepository repository = mock(CategoryRepository.class);
+        CategoryTreeCache cache = new CategoryTreeCache(repository);
+        when(repository.findAllNodes()).thenReturn(List.of(OLD));
+        assertEquals("Giày dép", cache.get().get(1L).orElseThrow().name());
+
+        // Đổi tên commit sau khi reload đã đọc bảng nhưng trước khi snapshot mới được thay vào
+        when(repository.findAllNodes()).thenAnswer(invocation -> {
+            cache.onCategoryChanged(new CategoryChangedEvent(1L, RENAMED));
+            return List.of(OLD);
+        });
+        cache.refresh();
+
+        assertEquals("Giày & dép", cache.get().get(1L).orElseThrow().name());
+    }
+
+    @Test
+    void deleteCommittedDuringFirstLoadIsReplayed() {
+        CategoryRepository repository = mock(CategoryRepository.class);
+        CategoryTreeCache cache = new CategoryTreeCache(repository);
+        when(repository.findAllNodes()).thenAnswer(invocation -> {
+            cache.onCategoryChanged(new CategoryChangedEvent(1L, null));
+            return List.of(OLD);
+        });
+
+        assertEquals(0, cache.get().size());
+    }
+}
@@ -0,0 +1,51 @@
+package backend_service.shop.cache;
+
+import backend_service.shop.entity.Discount;
+import backend_service.shop.event.DiscountChangedEvent;
+import backend_service.shop.repository.DiscountRepository;
+import backend_service.shop.util.DiscountStatus;
+import backend_service.shop.util.DiscountType;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A discount write committing while the catalog is reloaded is not reverted when the reload swaps in its catalog.
+ */
+class DiscountCatalogTest {
+
+    @Test
+    void disableCommittedDuringReloadIsReplayed() {
+        DiscountRepository repository = mock(DiscountRepository.class);
+        DiscountCatalog catalog = new DiscountCatalog(repository);
+        Discount active = discount(DiscountStatus.ACTIVE);
+        when(repository.findByEndDateIsNullOrEndDateGreaterThanEqual(any())).thenReturn(List.of(active));
+        assertTrue(catalog.find("sale10").orElseThrow().isValidAt(System.currentTimeMillis()));
+
+        // Admin tắt code sau khi reload đã đọc bảng nhưng trước khi catalog mới được thay vào
+        when(repository.findByEndDateIsNullOrEndDateGreaterThanEqual(any())).thenAnswer(invocation -> {
+            catalog.onDiscountChanged(new DiscountChangedEvent(1L, DiscountRule.of(discount(DiscountStatus.INACTIVE))));
+            return List.of(active);
+        });
+        catalog.refresh();
+
+        assertFalse(catalog.find("sale10").orElseThrow().isValidAt(System.currentTimeMillis()));
+    }
+
+    private static Discount discount(DiscountStatus status) {
+        Discount discount = Discount.builder()
+                .code("SALE10")
+                .discountType(DiscountType.PERCENTAGE)
+                .value(BigDecimal.TEN)
+                .status(status)
+                .build();
+        discount.setId(1L);
+        return discount;
+    }
+}
@@ -0,0 +1,120 @@
+package backend_service.shop.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica; each holds one row
+ * naming itself, so a query shows which one served it. Replication is simulated by copying the heartbeat.
+ */
+class ReplicaRoutingTest {
+
+    private static final String WHERE_AM_I = "SELECT name FROM db_name";
+
+    private JdbcTemplate primaryDb;
+    private JdbcTemplate replicaDb;
+    private ReplicaSet replicaSet;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        primaryDb = new JdbcTemplate(primary);
+        replicaDb = new JdbcTemplate(replica);
+
+        replicaSet = new ReplicaSet(primary, List.of(new ReplicaSet.Replica("replica-1", replica)));
+        lagMonitor = new ReplicaLagMonitor(replicaSet, 5000, new SimpleMeterRegistry());
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(replicaSet));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryDb.execute("SHUTDOWN");
+        replicaDb.execute("SHUTDOWN");
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE tbl_replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE db_name (name VARCHAR(20))");
+        jdbc.update("INSERT INTO db_name VALUES (?)", name);
+        return dataSource;
+    }
+
+    private void replicate() {
+        Long beat = primaryDb.queryForObject("SELECT beat_millis FROM tbl_replica_heartbeat WHERE id = 1", Long.class);
+        replicaDb.update("MERGE INTO tbl_replica_heartbeat KEY (id) VALUES (1, ?)", beat);
+    }
+
+    private String readOnlyServedBy() {
+        return readOnly.execute(status -> jdbcTemplate.queryForObject(WHERE_AM_I, String.class));
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaOnceItHasCaughtUp() {
+        // Chưa có heartbeat trên replica: lag chưa biết nên mọi thứ vẫn đọc primary
+        lagMonitor.check();
+        assertFalse(replicaSet.replicas().get(0).isHealthy());
+        assertEquals("primary", readOnlyServedBy());
+
+        replicate();
+        lagMonitor.check();
+        assertTrue(replicaSet.replicas().get(0).isHealthy());
+
+        assertEquals("replica", readOnlyServedBy());
+        assertEquals("primary", readWrite.execute(status -> jdbcTemplate.queryForObject(WHERE_AM_I, String.class)));
+        assertEquals("primary", jdbcTemplate.queryForObject(WHERE_AM_I, String.class));
+        assertEquals("primary", ReplicaRouting.onPrimary(this::readOnlyServedBy));
+    }
+
+    @Test
+    void laggingReplicaIsTakenOutOfRotation() {
+        replicaDb.update("INSERT INTO tbl_replica_heartbeat VALUES (1, ?)", System.currentTimeMillis() - 60_000);
+
+        lagMonitor.check();
+
+        ReplicaSet.Replica replica = replicaSet.replicas().get(0);
+        assertFalse(replica.isHealthy());
+        assertTrue(replica.lagMillis() >= 60_000);
+        assertEquals("primary", readOnlyServedBy());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        DataSource primary = replicaSet.primary();
+        DataSource unreachable = new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+        ReplicaSet.Replica replica = new ReplicaSet.Replica("replica-down", unreachable);
+        replica.update(true, 0);
+        JdbcTemplate routed = new JdbcTemplate(new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(new ReplicaSet(primary, List.of(replica)))));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routed.getDataSource()));
+        transaction.setReadOnly(true);
+
+        assertEquals("primary", transaction.execute(status -> routed.queryForObject(WHERE_AM_I, String.class)));
+        assertFalse(replica.isHealthy());
+    }
+}
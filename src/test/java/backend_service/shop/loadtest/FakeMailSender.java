@@ -0,0 +1,44 @@
+package backend_service.shop.loadtest;
+
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the SMTP server: messages are built as usual but only counted,
+ * after a configurable delay that mimics the round trip to the mail provider.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class FakeMailSender extends JavaMailSenderImpl {
+
+    private final long latencyMs;
+    private final AtomicLong sent = new AtomicLong();
+
+    public FakeMailSender(@Value("${loadtest.mail-latency-ms:0}") long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MailSendException("Interrupted while sending", e);
+            }
+        }
+        sent.addAndGet(mimeMessages.length);
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+}
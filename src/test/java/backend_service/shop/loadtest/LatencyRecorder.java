@@ -0,0 +1,84 @@
+package backend_service.shop.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-endpoint latency samples of one load-test run.
+ * Samples are kept raw (one long per call) so percentiles are exact, a run is short enough for that.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> byEndpoint = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        Samples samples = byEndpoint.computeIfAbsent(endpoint, e -> new Samples());
+        samples.add(nanos);
+        if (!success) {
+            samples.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param seconds length of the measured window
+     * @return summary per endpoint, ordered by name
+     */
+    Map<String, EndpointReport> report(double seconds) {
+        Map<String, EndpointReport> reports = new TreeMap<>();
+        byEndpoint.forEach((endpoint, samples) -> reports.put(endpoint, samples.report(seconds)));
+        return reports;
+    }
+
+    private static final class Samples {
+
+        private final List<Long> nanos = new ArrayList<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        synchronized void add(long value) {
+            nanos.add(value);
+        }
+
+        synchronized EndpointReport report(double seconds) {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            long total = Arrays.stream(sorted).sum();
+            return new EndpointReport(
+                    sorted.length,
+                    errors.get(),
+                    sorted.length / seconds,
+                    sorted.length == 0 ? 0 : toMillis(total / sorted.length),
+                    toMillis(percentile(sorted, 50)),
+                    toMillis(percentile(sorted, 95)),
+                    toMillis(percentile(sorted, 99)),
+                    sorted.length == 0 ? 0 : toMillis(sorted[sorted.length - 1]));
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(rank - 1, 0)];
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * @param throughput calls per second over the measured window
+     */
+    record EndpointReport(long count, long errors, double throughput,
+                          double meanMs, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package backend_service.shop.loadtest;
+
+import java.util.List;
+
+/**
+ * Data seeded into the embedded database before the run
+ *
+ * @param password plain password shared by all seeded users
+ */
+record LoadTestData(String password, List<Shopper> users, List<Long> productIds, List<String> discountCodes) {
+
+    record Shopper(Long userId, String username, Long cartId) {
+    }
+}
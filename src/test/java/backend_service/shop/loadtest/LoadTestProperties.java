@@ -0,0 +1,49 @@
+package backend_service.shop.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the load test (prefix "loadtest"), see application-loadtest.yml.
+ * Every value can be overridden from the command line, e.g. -Dloadtest.duration-seconds=120
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    private int users = 50;
+    private int products = 200;
+    private int discountCodes = 5;
+    private int concurrency = 16;
+    private int warmupSeconds = 5;
+    private int durationSeconds = 30;
+    private long thinkTimeMs = 0;
+    private String reportFile = "loadtest-report.json";
+
+    /**
+     * Relative weight of each scenario step, keyed by endpoint name
+     */
+    private Map<String, Integer> mix = new LinkedHashMap<>();
+
+    private Slo slo = new Slo();
+
+    @Getter
+    @Setter
+    public static class Slo {
+        private double maxErrorRate = 0.01;
+        private double minThroughput = 0;
+        private Map<String, EndpointSlo> endpoints = new LinkedHashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class EndpointSlo {
+        private Long p50Ms;
+        private Long p95Ms;
+        private Long p99Ms;
+    }
+}
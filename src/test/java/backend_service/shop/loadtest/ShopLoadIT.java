@@ -0,0 +1,289 @@
+package backend_service.shop.loadtest;
+
+import backend_service.shop.cache.DiscountCatalog;
+import backend_service.shop.entity.Cart;
+import backend_service.shop.entity.Category;
+import backend_service.shop.entity.Discount;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.User;
+import backend_service.shop.loadtest.LatencyRecorder.EndpointReport;
+import backend_service.shop.repository.CartRepository;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.DiscountRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.service.CartDetailService;
+import backend_service.shop.util.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test against the full application on an embedded H2 database (MySQL mode)
+ * with a fake mail sender. Reports throughput and latency percentiles per endpoint and fails
+ * when a configured SLO is missed.
+ * <p>
+ * Run with: mvn -Ploadtest verify [-Dloadtest.duration-seconds=120 -Dloadtest.concurrency=32]
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class ShopLoadIT {
+
+    private static final String PASSWORD = "LoadTest@123";
+
+    @TestConfiguration
+    @EnableConfigurationProperties(LoadTestProperties.class)
+    static class Config {
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadTestProperties properties;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DiscountRepository discountRepository;
+
+    @Autowired
+    private DiscountCatalog discountCatalog;
+
+    @Autowired
+    private CartDetailService cartDetailService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private FakeMailSender mailSender;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shopperMixMeetsSlo() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ShopScenario scenario = new ShopScenario("http://localhost:" + port, seed(), properties.getMix(),
+                cartDetailService, objectMapper, recorder);
+
+        long warmupEnd = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(properties.getWarmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toMillis(properties.getDurationSeconds());
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getConcurrency());
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            executor.execute(() -> {
+                while (System.currentTimeMillis() < end && !Thread.currentThread().isInterrupted()) {
+                    scenario.runOnce();
+                    pause(properties.getThinkTimeMs());
+                }
+            });
+        }
+
+        pause(Math.max(warmupEnd - System.currentTimeMillis(), 0));
+        scenario.startRecording();
+        long measureStart = System.nanoTime();
+
+        executor.shutdown();
+        if (!executor.awaitTermination(properties.getDurationSeconds() + 60L, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - measureStart) / 1_000_000_000.0;
+
+        Map<String, EndpointReport> reports = recorder.report(seconds);
+        List<String> violations = checkSlo(reports, seconds);
+        printReport(reports, seconds);
+        writeReport(reports, seconds, violations);
+
+        assertTrue(violations.isEmpty(), "SLO missed:\n" + String.join("\n", violations));
+    }
+
+    private LoadTestData seed() {
+        Category category = categoryRepository.save(Category.builder()
+                .name("Load test")
+                .status(CategoryStatus.ACTIVE)
+                .build());
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < properties.getProducts(); i++) {
+            BigDecimal price = BigDecimal.valueOf(100_000L + i * 1_000L);
+            Product product = productRepository.save(Product.builder()
+                    .name("Sản phẩm " + i)
+                    .description("Sản phẩm dùng cho load test")
+                    .price(price)
+                    .salePrice(i % 4 == 0 ? price.multiply(BigDecimal.valueOf(0.9)) : null)
+                    .stockQuantity(1_000_000)
+                    .status(ProductStatus.ACTIVE)
+                    .tag(ProductTag.NORMAL)
+                    .category(category)
+                    .build());
+            productIds.add(product.getId());
+        }
+
+        // BCrypt chậm có chủ đích, chỉ hash 1 lần rồi dùng chung
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        List<LoadTestData.Shopper> users = new ArrayList<>();
+        for (int i = 0; i < properties.getUsers(); i++) {
+            User user = userRepository.save(User.builder()
+                    .username("loadtest" + i)
+                    .email("loadtest" + i + "@example.com")
+                    .password(encodedPassword)
+                    .userType(UserType.USER)
+                    .userStatus(UserStatus.ACTIVE)
+                    .build());
+            Cart cart = cartRepository.save(Cart.builder()
+                    .user(user)
+                    .totalQuantity(0)
+                    .totalPrice(BigDecimal.ZERO)
+                    .build());
+            users.add(new LoadTestData.Shopper(user.getId(), user.getUsername(), cart.getId()));
+        }
+
+        List<String> discountCodes = new ArrayList<>();
+        for (int i = 0; i < properties.getDiscountCodes(); i++) {
+            boolean percentage = i % 2 == 0;
+            Discount discount = discountRepository.save(Discount.builder()
+                    .code("LOAD" + i)
+                    .discountType(percentage ? DiscountType.PERCENTAGE : DiscountType.FIXED)
+                    .value(percentage ? BigDecimal.valueOf(5 + i) : BigDecimal.valueOf(20_000))
+                    .startDate(LocalDateTime.now().minusDays(1))
+                    .endDate(LocalDateTime.now().plusDays(30))
+                    .status(DiscountStatus.ACTIVE)
+                    .build());
+            discountCodes.add(discount.getCode());
+        }
+        // Discount được lưu thẳng qua repository nên phải nạp lại catalog
+        discountCatalog.refresh();
+
+        return new LoadTestData(PASSWORD, users, productIds, discountCodes);
+    }
+
+    private List<String> checkSlo(Map<String, EndpointReport> reports, double seconds) {
+        List<String> violations = new ArrayList<>();
+        LoadTestProperties.Slo slo = properties.getSlo();
+
+        long count = reports.values().stream().mapToLong(EndpointReport::count).sum();
+        long errors = reports.values().stream().mapToLong(EndpointReport::errors).sum();
+        double throughput = count / seconds;
+        double errorRate = count == 0 ? 1 : (double) errors / count;
+
+        if (throughput < slo.getMinThroughput()) {
+            violations.add(String.format("throughput %.1f req/s < %.1f req/s", throughput, slo.getMinThroughput()));
+        }
+        if (errorRate > slo.getMaxErrorRate()) {
+            violations.add(String.format("error rate %.4f > %.4f", errorRate, slo.getMaxErrorRate()));
+        }
+
+        slo.getEndpoints().forEach((endpoint, target) -> {
+            EndpointReport report = reports.get(endpoint);
+            if (report == null || report.count() == 0) {
+                violations.add(endpoint + ": no samples");
+                return;
+            }
+            checkPercentile(violations, endpoint, "p50", report.p50Ms(), target.getP50Ms());
+            checkPercentile(violations, endpoint, "p95", report.p95Ms(), target.getP95Ms());
+            checkPercentile(violations, endpoint, "p99", report.p99Ms(), target.getP99Ms());
+        });
+        return violations;
+    }
+
+    private static void checkPercentile(List<String> violations, String endpoint, String name, double actualMs, Long limitMs) {
+        if (limitMs != null && actualMs > limitMs) {
+            violations.add(String.format("%s: %s %.1fms > %dms", endpoint, name, actualMs, limitMs));
+        }
+    }
+
+    private void printReport(Map<String, EndpointReport> reports, double seconds) {
+        StringBuilder table = new StringBuilder(String.format("%nLoad test: %d threads, %.1fs measured, %d mails sent%n",
+                properties.getConcurrency(), seconds, mailSender.getSentCount()));
+        table.append(String.format("%-16s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        reports.forEach((endpoint, r) -> table.append(String.format("%-16s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                endpoint, r.count(), r.errors(), r.throughput(), r.meanMs(), r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maxMs())));
+        log.warn(table.toString());
+    }
+
+    private void writeReport(Map<String, EndpointReport> reports, double seconds, List<String> violations) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", LocalDateTime.now().toString());
+        report.put("concurrency", properties.getConcurrency());
+        report.put("measuredSeconds", seconds);
+        report.put("mailsSent", mailSender.getSentCount());
+        report.put("endpoints", reports);
+        report.put("sloViolations", violations);
+        report.put("slowestTraces", actuator("slowtraces"));
+        report.put("transactions", actuator("transactions"));
+
+        File file = new File(properties.getReportFile());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        log.warn("Load test report written to {}", file.getAbsolutePath());
+    }
+
+    /**
+     * Span trees of the slowest requests (slowtraces) and transactions ranked by connection time (transactions),
+     * to see where the time went
+     */
+    private JsonNode actuator(String endpoint) throws IOException {
+        try {
+            HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/" + endpoint)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return objectMapper.readTree(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
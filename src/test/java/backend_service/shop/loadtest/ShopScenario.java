@@ -0,0 +1,228 @@
+package backend_service.shop.loadtest;
+
+import backend_service.shop.dto.request.CartDetailRequestDTO;
+import backend_service.shop.service.CartDetailService;
+import backend_service.shop.util.PaymentMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One step of a shopper session, picked at random according to the configured mix:
+ * login, browse the catalogue, add to cart, place an order (with a discount code most of the time).
+ * Steps go through the HTTP API; add-to-cart calls CartDetailService directly because no cart endpoint is exposed.
+ */
+class ShopScenario {
+
+    static final String LOGIN = "login";
+    static final String PRODUCT_LIST = "product-list";
+    static final String PRODUCT_DETAIL = "product-detail";
+    static final String ADD_TO_CART = "add-to-cart";
+    static final String CREATE_ORDER = "create-order";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 20;
+    private static final int DISTINCT_CART_PRODUCTS = 10;
+
+    private final String baseUrl;
+    private final LoadTestData data;
+    private final CartDetailService cartDetailService;
+    private final ObjectMapper objectMapper;
+    private final LatencyRecorder recorder;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+    private final String[] steps;
+    private final int[] cumulativeWeights;
+
+    // user index -> access token, login lại khi chưa có
+    private final Map<Integer, String> tokens = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+
+    ShopScenario(String baseUrl, LoadTestData data, Map<String, Integer> mix,
+                 CartDetailService cartDetailService, ObjectMapper objectMapper, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.cartDetailService = cartDetailService;
+        this.objectMapper = objectMapper;
+        this.recorder = recorder;
+
+        List<Map.Entry<String, Integer>> weighted = mix.entrySet().stream().filter(e -> e.getValue() > 0).toList();
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must have at least one step with a positive weight");
+        }
+        steps = new String[weighted.size()];
+        cumulativeWeights = new int[weighted.size()];
+        int total = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            total += weighted.get(i).getValue();
+            steps[i] = weighted.get(i).getKey();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Samples taken before this are warm-up and are not recorded
+     */
+    void startRecording() {
+        recording = true;
+    }
+
+    void runOnce() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(data.users().size());
+
+        String token = tokens.get(user);
+        if (token == null) {
+            login(user);
+            return;
+        }
+
+        switch (pickStep(random)) {
+            case LOGIN -> login(user);
+            case PRODUCT_LIST -> productList(token, random);
+            case PRODUCT_DETAIL -> productDetail(token, random);
+            case ADD_TO_CART -> addToCart(user, random);
+            case CREATE_ORDER -> createOrder(user, token, random);
+            default -> throw new IllegalStateException("Unknown step in loadtest.mix");
+        }
+    }
+
+    private String pickStep(ThreadLocalRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return steps[i];
+            }
+        }
+        return steps[steps.length - 1];
+    }
+
+    private void login(int user) {
+        Map<String, Object> body = Map.of(
+                "username", data.users().get(user).username(),
+                "password", data.password(),
+                "platform", "web");
+        JsonNode response = call(LOGIN, post("/auth/access", body, null));
+        if (response != null && response.hasNonNull("accessToken")) {
+            tokens.put(user, response.get("accessToken").asText());
+        }
+    }
+
+    private void productList(String token, ThreadLocalRandom random) {
+        int pages = Math.max(data.productIds().size() / PAGE_SIZE, 1);
+        call(PRODUCT_LIST, get("/product/list?page=" + random.nextInt(pages) + "&size=" + PAGE_SIZE, token));
+    }
+
+    private void productDetail(String token, ThreadLocalRandom random) {
+        call(PRODUCT_DETAIL, get("/product/" + randomProduct(random), token));
+    }
+
+    private void addToCart(int user, ThreadLocalRandom random) {
+        // Mỗi user chỉ chọn trong một nhóm nhỏ sản phẩm để giỏ không phình mãi
+        List<Long> productIds = data.productIds();
+        Long productId = productIds.get((user * DISTINCT_CART_PRODUCTS + random.nextInt(DISTINCT_CART_PRODUCTS)) % productIds.size());
+        CartDetailRequestDTO request = CartDetailRequestDTO.builder()
+                .productId(productId)
+                .quantity(1 + random.nextInt(2))
+                .build();
+
+        long start = System.nanoTime();
+        boolean success = true;
+        try {
+            cartDetailService.addToCart(data.users().get(user).cartId(), request);
+        } catch (RuntimeException e) {
+            success = false;
+        }
+        record(ADD_TO_CART, System.nanoTime() - start, success);
+    }
+
+    private void createOrder(int user, String token, ThreadLocalRandom random) {
+        List<Map<String, Object>> details = new ArrayList<>();
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            details.add(Map.of("productId", randomProduct(random), "quantity", 1 + random.nextInt(2)));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("userId", data.users().get(user).userId());
+        body.put("shippingAddress", "12 Nguyễn Trãi, Quận 1, TP.HCM");
+        body.put("paymentMethod", PaymentMethod.COD.name());
+        body.put("orderDetails", details);
+        // ~70% đơn hàng có mã giảm giá
+        if (!data.discountCodes().isEmpty() && random.nextInt(10) < 7) {
+            body.put("discountCode", data.discountCodes().get(random.nextInt(data.discountCodes().size())));
+        }
+        call(CREATE_ORDER, post("/order/create", body, token));
+    }
+
+    private Long randomProduct(ThreadLocalRandom random) {
+        return data.productIds().get(random.nextInt(data.productIds().size()));
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) {
+        try {
+            return request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * Send the request and record its latency. ResponseData carries the real status in the body,
+     * so a 200 with a 4xx/5xx "status" field counts as an error too.
+     *
+     * @return parsed body, null on failure
+     */
+    private JsonNode call(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        JsonNode body = null;
+        boolean success = false;
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() / 100 == 2) {
+                body = objectMapper.readTree(response.body());
+                success = !body.has("status") || body.get("status").asInt() / 100 == 2;
+            }
+            record(endpoint, elapsed, success);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            record(endpoint, System.nanoTime() - start, false);
+        }
+        return success ? body : null;
+    }
+
+    private void record(String endpoint, long nanos, boolean success) {
+        if (recording) {
+            recorder.record(endpoint, nanos, success);
+        }
+    }
+}
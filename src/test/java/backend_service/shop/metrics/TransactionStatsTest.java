@@ -0,0 +1,116 @@
+package backend_service.shop.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionStatsTest {
+
+    /**
+     * REQUIRED only: the first call opens the transaction, nested calls join it
+     */
+    private static class StubTransactionManager implements PlatformTransactionManager {
+
+        private int depth;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus(depth++ == 0);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            depth--;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            depth--;
+        }
+    }
+
+    private static DefaultTransactionDefinition definition(String name, boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setName(name);
+        definition.setReadOnly(readOnly);
+        return definition;
+    }
+
+    @Test
+    void chargesConnectionsToTheOutermostTransaction() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TransactionStats stats = new TransactionStats(registry, 60_000, 60_000, new String[0]);
+        MonitoredTransactionManager transactionManager = new MonitoredTransactionManager(new StubTransactionManager(), stats);
+
+        TransactionStatus outer = transactionManager.getTransaction(
+                definition("backend_service.shop.service.impl.OrderServiceImpl.createOrder", false));
+        TransactionStatus inner = transactionManager.getTransaction(
+                definition("backend_service.shop.service.impl.InventoryServiceImpl.reserve", false));
+        stats.connectionAcquired("1", TransactionScope.currentOperation(), 0);
+        transactionManager.commit(inner);
+        stats.connectionReleased("1");
+        transactionManager.commit(outer);
+
+        stats.connectionAcquired("2", TransactionScope.currentOperation(), 0);
+        stats.connectionReleased("2");
+        stats.connectionReleased("2");
+
+        TransactionReport report = stats.report(10, null);
+        TransactionReport.Operation createOrder = report.topOffenders().stream()
+                .filter(o -> o.name().equals("OrderServiceImpl.createOrder")).findFirst().orElseThrow();
+        assertEquals(1, createOrder.transactions());
+        assertEquals(1, createOrder.connections());
+        assertEquals(0, createOrder.rollbacks());
+        assertEquals(2, report.topOffenders().size());
+        assertTrue(report.topOffenders().stream().anyMatch(o -> o.name().equals(TransactionStats.NO_TRANSACTION)));
+        assertTrue(report.topOffenders().stream().noneMatch(o -> o.name().equals("InventoryServiceImpl.reserve")));
+        assertEquals(1, report.peakConnectionsInUse());
+        assertEquals(1, registry.get("shop.tx.duration").tag("operation", "OrderServiceImpl.createOrder")
+                .tag("outcome", "commit").timer().count());
+        assertNull(TransactionScope.currentOperation());
+    }
+
+    @Test
+    void flagsSlowAndRolledBackTransactions() {
+        TransactionStats stats = new TransactionStats(new SimpleMeterRegistry(), 0, 60_000, new String[0]);
+        MonitoredTransactionManager transactionManager = new MonitoredTransactionManager(new StubTransactionManager(), stats);
+
+        TransactionStatus status = transactionManager.getTransaction(definition(null, true));
+        status.setRollbackOnly();
+        transactionManager.commit(status);
+
+        TransactionReport.Operation operation = stats.report(10, null).topOffenders().get(0);
+        assertEquals(MonitoredTransactionManager.UNNAMED, operation.name());
+        assertTrue(operation.readOnly());
+        assertEquals(1, operation.rollbacks());
+        assertEquals(1, operation.slow());
+    }
+
+    @Test
+    void reportsConnectionsHeldPastTheLeakThreshold() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TransactionStats stats = new TransactionStats(registry, 60_000, 0, new String[]{"OrderExportServiceImpl.exportOrders"});
+
+        stats.connectionAcquired("7", "CartStore.flush", 0);
+        // Export giữ connection suốt lúc stream, không phải leak
+        stats.connectionAcquired("8", "OrderExportServiceImpl.exportOrders", 0);
+        stats.checkLeaks();
+        stats.checkLeaks();
+
+        TransactionReport report = stats.report(10, null);
+        assertEquals(1, report.suspectedLeaks().size());
+        assertEquals("CartStore.flush", report.suspectedLeaks().get(0).operation());
+        assertEquals(1, report.topOffenders().stream()
+                .filter(o -> o.name().equals("CartStore.flush")).findFirst().orElseThrow().leaks());
+        assertEquals(1, registry.get("shop.db.connection.leaks").tag("operation", "CartStore.flush").counter().count());
+
+        stats.connectionReleased("7");
+        assertTrue(stats.report(10, null).suspectedLeaks().isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package backend_service.shop.repository;
+
+import backend_service.shop.entity.Category;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.PageCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walking the keyset pages returns every row once, in (created_at desc, id desc) order, including
+ * rows sharing one created_at and rows without created_at.
+ */
+@ShopJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class KeysetPagingTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void walksPagesWithoutSkippingOrRepeatingRows() {
+        Timestamp sameTime = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 10, 0));
+        // 3 dòng cùng created_at, 2 dòng không có created_at (chèn bằng JDBC)
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inserted.add(insertCategory("Same " + i, sameTime));
+        }
+        for (int i = 0; i < 2; i++) {
+            inserted.add(insertCategory("Null " + i, null));
+        }
+        // Thứ tự mong đợi: created_at giảm dần (null sau cùng), cùng created_at thì id giảm dần
+        List<Long> ordered = List.of(inserted.get(2), inserted.get(1), inserted.get(0), inserted.get(4), inserted.get(3));
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            // Cursor đi qua dạng chuỗi như phía client
+            KeysetSlice<Category> slice = categoryRepository.findSliceAfter(null, PageCursor.decode(cursor), 2);
+            slice.items().forEach(category -> walked.add(category.getId()));
+            cursor = slice.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(ordered, walked);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void cursorWithoutCreatedAtRoundTrips() {
+        PageCursor cursor = new PageCursor(null, 42L);
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+
+        PageCursor dated = new PageCursor(LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_000), 7L);
+        assertEquals(dated, PageCursor.decode(dated.encode()));
+    }
+
+    private Long insertCategory(String name, Timestamp createdAt) {
+        jdbcTemplate.update("INSERT INTO tbl_category (name, status, is_hot, is_new, created_at, updated_at) " +
+                "VALUES (?, 'ACTIVE', FALSE, FALSE, ?, ?)", name + " " + System.nanoTime(), createdAt, createdAt);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM tbl_category", Long.class);
+    }
+}
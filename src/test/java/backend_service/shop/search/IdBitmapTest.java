@@ -0,0 +1,81 @@
+package backend_service.shop.search;
+
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The compressed bitmap behaves like a sorted set of ints, across chunks and container kinds.
+ */
+class IdBitmapTest {
+
+    @Test
+    void matchesASortedSetThroughArrayAndBitmapContainers() {
+        Random random = new Random(7);
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        // Chunk 0 dày (vượt 4096 id → bitmap rồi xóa bớt → lại thành mảng), chunk 1 và 5 thưa
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(10) < 8 ? random.nextInt(65_536) : 65_536 + random.nextInt(6 * 65_536);
+            bitmap.add(id);
+            expected.add(id);
+        }
+        for (int i = 0; i < 30_000; i++) {
+            int id = random.nextInt(65_536);
+            bitmap.remove(id);
+            expected.remove(id);
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertEquals(ids(expected.descendingSet()), bitmap.descending(0, Integer.MAX_VALUE));
+        expected.stream().limit(100).forEach(id -> assertTrue(bitmap.contains(id)));
+        assertFalse(bitmap.contains(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void combinesBitmaps() {
+        Random random = new Random(11);
+        IdBitmap a = new IdBitmap();
+        IdBitmap b = new IdBitmap();
+        Set<Integer> inA = new TreeSet<>();
+        Set<Integer> inB = new TreeSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            int id = random.nextInt(3 * 65_536);
+            if (random.nextBoolean()) {
+                a.add(id);
+                inA.add(id);
+            } else if (id % 7 == 0 || id < 65_536) {
+                b.add(id);
+                inB.add(id);
+            }
+        }
+
+        TreeSet<Integer> both = new TreeSet<>(inA);
+        both.retainAll(inB);
+        TreeSet<Integer> either = new TreeSet<>(inA);
+        either.addAll(inB);
+        assertEquals(ids(both.descendingSet()), IdBitmap.and(a, b).descending(0, Integer.MAX_VALUE));
+        assertEquals(both.size(), IdBitmap.andCardinality(a, b));
+        assertEquals(ids(either.descendingSet()), IdBitmap.or(List.of(a, b)).descending(0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void pagesFromTheLargestId() {
+        IdBitmap bitmap = new IdBitmap();
+        for (int id = 1; id <= 200_000; id += 3) {
+            bitmap.add(id);
+        }
+        List<Integer> all = bitmap.descending(0, Integer.MAX_VALUE);
+
+        assertEquals(all.subList(0, 5), bitmap.descending(0, 5));
+        // Trang bắt đầu ở chunk sau, bỏ qua trọn các chunk phía trên
+        assertEquals(all.subList(30_000, 30_010), bitmap.descending(30_000, 10));
+        assertTrue(bitmap.descending(all.size(), 10).isEmpty());
+    }
+
+    private static List<Integer> ids(Collection<Integer> ids) {
+        return ids.stream().collect(Collectors.toList());
+    }
+}
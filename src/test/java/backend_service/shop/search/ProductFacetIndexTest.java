@@ -0,0 +1,114 @@
+package backend_service.shop.search;
+
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+
+    private static final long MEN = 10L;
+    private static final long SHIRTS = 11L;
+    private static final long WOMEN = 20L;
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(new BigDecimal[]{new BigDecimal("300000"), new BigDecimal("100000")});
+        index.put(facets(1L, SHIRTS, ProductTag.HOT, "120000", null, 5));
+        index.put(facets(2L, SHIRTS, ProductTag.NEW, "350000", "290000", 0));
+        index.put(facets(3L, MEN, ProductTag.NORMAL, "80000", null, 3));
+        index.put(facets(4L, WOMEN, ProductTag.HOT, "500000", null, 1));
+        index.put(new ProductFacets(5L, WOMEN, ProductStatus.INACTIVE, ProductTag.NEW, new BigDecimal("90000"), null, 2));
+    }
+
+    @Test
+    void bandsFollowTheSortedBoundsOnTheSalePrice() {
+        assertEquals(List.of(new BigDecimal("100000"), new BigDecimal("300000")), index.priceBands());
+        assertEquals(0, index.priceBand(new BigDecimal("99999")));
+        assertEquals(1, index.priceBand(new BigDecimal("100000")));
+        assertEquals(2, index.priceBand(new BigDecimal("300000")));
+
+        // Sản phẩm 2 giá 350000 nhưng giá bán 290000
+        ProductFacetResult result = index.search(query(null, Set.of(), Set.of(), Set.of(1), null));
+        assertEquals(List.of(2L, 1L), result.productIds());
+    }
+
+    @Test
+    void intersectsFacetsAndCountsEachAgainstTheOthers() {
+        // Áo nam (cả cây con MEN), còn hàng, tag HOT hoặc NEW
+        ProductFacetResult result = index.search(query(Set.of(MEN, SHIRTS), Set.of(), Set.of(ProductTag.HOT, ProductTag.NEW), Set.of(), true));
+
+        assertEquals(1, result.total());
+        assertEquals(List.of(1L), result.productIds());
+        // Tag đếm theo category + tồn kho, không theo chính tag đang chọn
+        assertEquals(Map.of(ProductTag.HOT, 1L, ProductTag.NEW, 0L, ProductTag.NORMAL, 1L), result.tagCounts());
+        // Tồn kho đếm theo category + tag
+        assertEquals(Map.of(true, 1L, false, 1L), result.stockCounts());
+        assertEquals(List.of(0L, 1L, 0L), result.priceBandCounts());
+        assertEquals(Map.of(ProductStatus.ACTIVE, 1L, ProductStatus.INACTIVE, 0L), result.statusCounts());
+        // Category đếm theo tag + tồn kho: sản phẩm 5 INACTIVE vẫn tính vì không lọc status
+        assertEquals(Map.of(MEN, 1L, WOMEN, 2L), result.categoryCounts());
+    }
+
+    @Test
+    void noFilterReturnsEverythingNewestFirst() {
+        ProductFacetQuery all = new ProductFacetQuery(null, null, null, null, null, null, 1, 2);
+        ProductFacetResult result = index.search(all);
+
+        assertEquals(5, result.total());
+        assertEquals(List.of(4L, 3L), result.productIds());
+        assertEquals(Map.of(ProductStatus.ACTIVE, 4L, ProductStatus.INACTIVE, 1L), result.statusCounts());
+        assertTrue(result.categoryCounts().isEmpty());
+    }
+
+    @Test
+    void pageBeyondTheMatchesIsEmpty() {
+        // page * size vượt int: offset là long, trang rỗng nhưng vẫn đếm đủ facet
+        ProductFacetResult result = index.search(new ProductFacetQuery(null, null, null, null, null, null,
+                30_000_000L * 100, 100));
+
+        assertEquals(5, result.total());
+        assertTrue(result.productIds().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProductFacetQuery(null, null, null, null, null, null, -100, 100));
+    }
+
+    @Test
+    void updatesMoveTheProductBetweenValues() {
+        index.put(facets(1L, WOMEN, ProductTag.NORMAL, "600000", null, 0));
+        index.remove(4L);
+        index.remove(99L);
+
+        assertEquals(4, index.size());
+        assertEquals(List.of(2L), index.search(query(Set.of(SHIRTS), Set.of(), Set.of(), Set.of(), null)).productIds());
+        assertEquals(List.of(5L, 1L), index.search(query(Set.of(WOMEN), Set.of(), Set.of(), Set.of(), null)).productIds());
+        ProductFacetResult soldOut = index.search(query(null, Set.of(), Set.of(), Set.of(), false));
+        assertEquals(List.of(2L, 1L), soldOut.productIds());
+        assertEquals(Map.of(ProductTag.HOT, 0L, ProductTag.NEW, 1L, ProductTag.NORMAL, 1L), soldOut.tagCounts());
+    }
+
+    @Test
+    void unknownValuesMatchNothing() {
+        assertEquals(0, index.search(query(Set.of(404L), Set.of(), Set.of(), Set.of(), null)).total());
+        assertEquals(0, index.search(query(null, Set.of(), Set.of(), Set.of(7), null)).total());
+    }
+
+    private static ProductFacetQuery query(Set<Long> categoryIds, Set<ProductStatus> statuses, Set<ProductTag> tags,
+                                           Set<Integer> priceBands, Boolean inStock) {
+        Map<Long, Set<Long>> buckets = Map.of(MEN, Set.of(MEN, SHIRTS), WOMEN, Set.of(WOMEN));
+        return new ProductFacetQuery(categoryIds, buckets, statuses, tags, priceBands, inStock, 0, 10);
+    }
+
+    private static ProductFacets facets(Long id, Long categoryId, ProductTag tag, String price, String salePrice, int stock) {
+        return new ProductFacets(id, categoryId, ProductStatus.ACTIVE, tag, new BigDecimal(price),
+                salePrice != null ? new BigDecimal(salePrice) : null, stock);
+    }
+}
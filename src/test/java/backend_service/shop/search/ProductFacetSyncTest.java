@@ -0,0 +1,144 @@
+package backend_service.shop.search;
+
+import backend_service.shop.cache.CategoryTreeCache;
+import backend_service.shop.dto.request.ProductFilterRequest;
+import backend_service.shop.dto.request.ProductRequestDTO;
+import backend_service.shop.dto.response.FacetCount;
+import backend_service.shop.dto.response.ProductFacetResponse;
+import backend_service.shop.dto.response.ProductResponse;
+import backend_service.shop.entity.Category;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.service.InventoryService;
+import backend_service.shop.service.ProductService;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.CategoryStatus;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The facet index follows product writes once they commit, and stock changes from orders once
+ * the pending ones are refreshed.
+ */
+@ShopJpaTest(properties = "facet.index.batch-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductFacetSyncTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductFacetIndexer productFacetIndexer;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category parent;
+    private Category child;
+
+    @BeforeEach
+    void setUp() {
+        parent = categoryRepository.save(Category.builder()
+                .name("Giày dép " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .build());
+        child = categoryRepository.save(Category.builder()
+                .name("Sandal " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .parent(parent)
+                .build());
+        categoryTreeCache.refresh();
+    }
+
+    @Test
+    void filtersCategorySubtreeAndFollowsProductWrites() {
+        ProductResponse created = productService.createProduct(request("Sandal quai hậu", 1, ProductTag.NEW), null, null);
+        productService.createProduct(request("Sandal đế bệt", 3, ProductTag.HOT), null, null);
+
+        // Lọc category cha trả cả sản phẩm của category con, đếm theo các category con
+        ProductFacetResponse response = filter(Set.of(ProductTag.NEW), null);
+        assertEquals(List.of(created.getId()), ids(response));
+        assertEquals(1, count(response.getCategories(), child.getId().toString()));
+        // Tag đếm bỏ qua chính lọc tag để khách chọn thêm tag khác
+        assertEquals(1, count(response.getTags(), ProductTag.HOT.name()));
+
+        productService.updateProduct(created.getId(), request("Sandal quai hậu", 1, ProductTag.HOT), null, null);
+        assertEquals(0, filter(Set.of(ProductTag.NEW), null).getTotalItems());
+        assertEquals(2, filter(Set.of(ProductTag.HOT), null).getTotalItems());
+
+        productService.deleteProduct(created.getId());
+        assertEquals(1, filter(Set.of(ProductTag.HOT), null).getTotalItems());
+    }
+
+    @Test
+    void stockChangesApplyOnRefresh() {
+        ProductResponse created = productService.createProduct(request("Dép tổ ong", 1, ProductTag.NORMAL), null, null);
+        assertEquals(List.of(created.getId()), ids(filter(null, true)));
+        assertEquals(1, productService.getProductById(created.getId()).getStockQuantity());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                inventoryService.reserve(Map.of(created.getId(), 1)));
+        // Trang chi tiết (cache) thấy ngay tồn kho mới, index facet thì chờ refresh
+        assertEquals(0, productService.getProductById(created.getId()).getStockQuantity());
+        assertEquals(1, filter(null, true).getTotalItems());
+
+        productFacetIndexer.refreshStock();
+        assertEquals(0, filter(null, true).getTotalItems());
+        assertEquals(List.of(created.getId()), ids(filter(null, false)));
+
+        inventoryService.release(Map.of(created.getId(), 1));
+        productFacetIndexer.refreshStock();
+        assertEquals(1, filter(null, true).getTotalItems());
+    }
+
+    private ProductFacetResponse filter(Set<ProductTag> tags, Boolean inStock) {
+        return productService.filterProducts(ProductFilterRequest.builder()
+                .categoryId(parent.getId())
+                .tags(tags)
+                .inStock(inStock)
+                .page(0)
+                .size(20)
+                .build());
+    }
+
+    private static List<Long> ids(ProductFacetResponse response) {
+        return response.getItems().stream().map(ProductResponse::getId).toList();
+    }
+
+    private static long count(List<FacetCount> counts, String value) {
+        return counts.stream().filter(c -> c.getValue().equals(value)).findFirst().orElseThrow().getCount();
+    }
+
+    private ProductRequestDTO request(String name, int stockQuantity, ProductTag tag) {
+        return ProductRequestDTO.builder()
+                .name(name + " " + System.nanoTime())
+                .sku("SD-" + System.nanoTime())
+                .price(BigDecimal.valueOf(250000))
+                .stockQuantity(stockQuantity)
+                .status(ProductStatus.ACTIVE)
+                .tag(tag)
+                .categoryId(child.getId())
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package backend_service.shop.search;
+
+import backend_service.shop.dto.response.ProductSearchHit;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(64, 1000);
+        index.put(document(1L, "Áo thun nam cổ tròn", "AT-001", "Thời trang nam", "Chất liệu cotton", "120000", null, ProductTag.HOT));
+        index.put(document(2L, "Quần jean nữ", "QJ-002", "Thời trang nữ", "Jean co giãn, phối cùng áo thun", "350000", "299000", ProductTag.NEW));
+        index.put(document(3L, "Đồng hồ thông minh", "DH-003", "Điện tử", "Theo dõi sức khỏe", "1500000", null, ProductTag.NORMAL));
+        index.put(document(4L, "Áo sơ mi trắng", "SM-004", "Thời trang nam", "Vải thô", "250000", null, ProductTag.NEW));
+    }
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertEquals(List.of("ao", "thun", "dong", "ho"), TextFolding.tokens("ÁO  Thun, Đồng-hồ"));
+        assertEquals(ids(index.search(query("ao thun"))), ids(index.search(query("áo THUN"))));
+        assertEquals(List.of(3L), ids(index.search(query("dong ho"))));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        // "áo thun" nằm trong tên sản phẩm 1 và trong mô tả sản phẩm 2
+        ProductSearchResult result = index.search(query("ao thun"));
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertEquals(2, result.total());
+        assertTrue(result.hits().get(0).getScore() > result.hits().get(1).getScore());
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertEquals(List.of(4L), ids(index.search(query("ao so mi"))));
+        assertTrue(index.search(query("ao dong")).hits().isEmpty());
+    }
+
+    @Test
+    void lastWordMatchesAsPrefixForTypeahead() {
+        assertTrue(index.search(query("ao thu")).hits().isEmpty());
+
+        assertEquals(List.of(1L, 2L), ids(index.search(new ProductSearchQuery("ao thu", true, null, null, null, null, 0, 10))));
+        // "th" còn khớp "thời trang" trong danh mục của sản phẩm 4, xếp sau "thun" trong tên
+        assertEquals(List.of(1L, 4L, 2L), ids(index.search(new ProductSearchQuery("ao th", true, null, null, null, null, 0, 10))));
+        assertEquals(List.of(3L), ids(index.search(new ProductSearchQuery("đồng h", true, null, null, null, null, 0, 10))));
+    }
+
+    @Test
+    void matchesSkuAndCategory() {
+        assertEquals(List.of(3L), ids(index.search(query("dh-003"))));
+        assertEquals(List.of(3L), ids(index.search(query("dh003"))));
+        assertEquals(List.of(3L), ids(index.search(query("dien tu"))));
+    }
+
+    @Test
+    void filtersOnStatusTagAndSalePrice() {
+        index.put(document(5L, "Áo khoác", "AK-005", "Thời trang nam", null, "500000", null, ProductTag.HOT, ProductStatus.INACTIVE));
+
+        assertEquals(List.of(4L, 2L), ids(index.search(filtered("ao", null, ProductTag.NEW, null, null))));
+        assertFalse(ids(index.search(filtered("ao", ProductStatus.ACTIVE, null, null, null))).contains(5L));
+        assertEquals(List.of(5L), ids(index.search(filtered("ao", ProductStatus.INACTIVE, null, null, null))));
+        // Giá lọc theo giá sale khi có: 299000 chứ không phải 350000
+        assertEquals(List.of(2L), ids(index.search(filtered("jean", null, null, new BigDecimal("200000"), new BigDecimal("300000")))));
+        assertTrue(index.search(filtered("jean", null, null, new BigDecimal("300000.01"), null)).hits().isEmpty());
+    }
+
+    @Test
+    void updatesAndDeletesAreVisibleImmediately() {
+        index.put(document(3L, "Đồng hồ cơ", "DH-003", "Điện tử", null, "1500000", null, ProductTag.NORMAL));
+        assertTrue(index.search(query("thong minh")).hits().isEmpty());
+        assertEquals(List.of(3L), ids(index.search(query("dong ho co"))));
+        assertEquals(4, index.size());
+        assertEquals(0.2, index.deletedRatio(), 1e-9);
+
+        index.remove(3L);
+        assertTrue(index.search(query("dong ho")).hits().isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void pagesThroughRankedHits() {
+        ProductSearchResult firstPage = index.search(new ProductSearchQuery("thoi trang", false, null, null, null, null, 0, 2));
+        ProductSearchResult secondPage = index.search(new ProductSearchQuery("thoi trang", false, null, null, null, null, 2, 2));
+
+        assertEquals(3, firstPage.total());
+        assertEquals(2, firstPage.hits().size());
+        assertEquals(1, secondPage.hits().size());
+        assertFalse(ids(firstPage).contains(secondPage.hits().get(0).getId()));
+    }
+
+    @Test
+    void rejectsPagesBeyondTheResultWindow() {
+        int lastOffset = ProductSearchQuery.MAX_RESULT_WINDOW - 100;
+        assertTrue(index.search(new ProductSearchQuery("thoi trang", false, null, null, null, null, lastOffset, 100)).hits().isEmpty());
+        // page * size tràn int ra số âm cũng bị chặn
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProductSearchQuery("thoi trang", false, null, null, null, null, 30_000_000 * 100, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProductSearchQuery("thoi trang", false, null, null, null, null, lastOffset + 1, 100));
+    }
+
+    @Test
+    void rareWordLeadsTheCommonOnes() {
+        ProductSearchIndex large = new ProductSearchIndex(64, 1000);
+        for (long id = 1; id <= 2000; id++) {
+            large.put(document(id, "Áo thun cotton", "AT-" + id, "Thời trang", "Mặc hằng ngày", "100000", null, ProductTag.NORMAL));
+        }
+        // "len" chỉ có ở 3 sản phẩm: từ hiếm dẫn, "ao" phổ biến chỉ được dò tới doc của nó
+        large.put(document(2001L, "Áo len cổ lọ", "AL-2001", "Thời trang", "Giữ ấm", "300000", null, ProductTag.NORMAL));
+        large.put(document(2002L, "Áo khoác", "AK-2002", "Thời trang", "Lót len bên trong", "500000", null, ProductTag.NORMAL));
+        large.put(document(2003L, "Khăn len", "KL-2003", "Phụ kiện", "Đan tay", "90000", null, ProductTag.NORMAL));
+
+        assertEquals(List.of(2001L, 2002L), ids(large.search(query("ao len"))));
+        assertEquals(List.of(2001L, 2002L), ids(large.search(new ProductSearchQuery("len a", true, null, null, null, null, 0, 10))));
+        assertEquals(List.of(2003L), ids(large.search(query("khan len"))));
+        assertEquals(List.of(17L), ids(large.search(query("thun at17"))));
+    }
+
+    @Test
+    void stopsCountingPastThresholdWithoutChangingThePage() {
+        ProductSearchIndex exhaustive = new ProductSearchIndex(64, Integer.MAX_VALUE);
+        ProductSearchIndex bounded = new ProductSearchIndex(64, 5);
+        String[] colors = {"đen", "trắng", "đỏ"};
+        for (long id = 1; id <= 300; id++) {
+            // Vài sản phẩm có "thun" cả trong tên lẫn mô tả nên điểm cao hơn phần còn lại
+            String description = id % 20 == 0 ? "áo thun mềm" : "cotton";
+            ProductDocument document = document(id, "Áo thun " + colors[(int) (id % 3)], "AT-" + id, "Thời trang",
+                    description, "100000", null, ProductTag.NORMAL);
+            exhaustive.put(document);
+            bounded.put(document);
+        }
+
+        for (ProductSearchQuery query : List.of(query("ao thun"), new ProductSearchQuery("ao thun d", true, null, null, null, null, 0, 5))) {
+            ProductSearchResult full = exhaustive.search(query);
+            ProductSearchResult early = bounded.search(query);
+            assertEquals(ids(full), ids(early));
+            assertTrue(full.totalExact());
+            assertFalse(early.totalExact());
+            assertTrue(early.total() >= 5 && early.total() < full.total());
+        }
+    }
+
+    private static ProductSearchQuery query(String text) {
+        return new ProductSearchQuery(text, false, null, null, null, null, 0, 10);
+    }
+
+    private static ProductSearchQuery filtered(String text, ProductStatus status, ProductTag tag, BigDecimal min, BigDecimal max) {
+        return new ProductSearchQuery(text, false, status, tag, min, max, 0, 10);
+    }
+
+    private static List<Long> ids(ProductSearchResult result) {
+        return result.hits().stream().map(ProductSearchHit::getId).toList();
+    }
+
+    private static ProductDocument document(Long id, String name, String sku, String category, String description,
+                                            String price, String salePrice, ProductTag tag) {
+        return document(id, name, sku, category, description, price, salePrice, tag, ProductStatus.ACTIVE);
+    }
+
+    private static ProductDocument document(Long id, String name, String sku, String category, String description,
+                                            String price, String salePrice, ProductTag tag, ProductStatus status) {
+        return new ProductDocument(id, name, null, description, sku, new BigDecimal(price),
+                salePrice != null ? new BigDecimal(salePrice) : null, null, status, tag, id, category);
+    }
+}
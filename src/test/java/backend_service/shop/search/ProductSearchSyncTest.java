@@ -0,0 +1,124 @@
+package backend_service.shop.search;
+
+import backend_service.shop.cache.CategoryNode;
+import backend_service.shop.dto.request.ProductRequestDTO;
+import backend_service.shop.dto.response.ProductResponse;
+import backend_service.shop.dto.response.ProductSearchHit;
+import backend_service.shop.entity.Category;
+import backend_service.shop.entity.Product;
+import backend_service.shop.event.CategoryChangedEvent;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.service.ProductService;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.CategoryStatus;
+import backend_service.shop.util.ProductStatus;
+import backend_service.shop.util.ProductTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The search index is built from tbl_product and follows product and category writes once they commit.
+ */
+@ShopJpaTest(properties = "search.index.batch-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchSyncTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndexer productSearchIndexer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Phụ kiện " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .build());
+    }
+
+    @Test
+    void rebuildIndexesEveryProductInBatches() {
+        for (int i = 0; i < 5; i++) {
+            productRepository.save(Product.builder()
+                    .name("Ví da bò " + i + " " + System.nanoTime())
+                    .price(BigDecimal.valueOf(100))
+                    .stockQuantity(1)
+                    .status(ProductStatus.ACTIVE)
+                    .tag(ProductTag.NORMAL)
+                    .category(category)
+                    .build());
+        }
+
+        productSearchIndexer.rebuild();
+
+        assertEquals(5, search("vi da bo").total());
+    }
+
+    @Test
+    void followsProductWritesAfterCommit() {
+        ProductResponse created = productService.createProduct(request("Balo chống nước", "BL-" + System.nanoTime()), null, null);
+        assertEquals(List.of(created.getId()), ids(search("balo chong nuoc")));
+
+        productService.updateProduct(created.getId(), request("Túi đeo chéo", created.getSku()), null, null);
+        assertTrue(search("balo").hits().isEmpty());
+        assertEquals(List.of(created.getId()), ids(search("tui deo cheo")));
+
+        productService.deleteProduct(created.getId());
+        assertTrue(search("tui deo cheo").hits().isEmpty());
+    }
+
+    @Test
+    void categoryRenameReindexesItsProducts() {
+        ProductResponse created = productService.createProduct(request("Móc khóa", "MK-" + System.nanoTime()), null, null);
+
+        Category renamed = categoryRepository.findById(category.getId()).orElseThrow();
+        renamed.setName("Quà lưu niệm " + System.nanoTime());
+        categoryRepository.save(renamed);
+        eventPublisher.publishEvent(new CategoryChangedEvent(renamed.getId(),
+                new CategoryNode(renamed.getId(), renamed.getName(), null, CategoryStatus.ACTIVE)));
+
+        assertEquals(List.of(created.getId()), ids(search("qua luu niem moc")));
+    }
+
+    private ProductSearchResult search(String text) {
+        return productSearchIndexer.search(new ProductSearchQuery(text, false, null, null, null, null, 0, 20));
+    }
+
+    private static List<Long> ids(ProductSearchResult result) {
+        return result.hits().stream().map(ProductSearchHit::getId).toList();
+    }
+
+    private ProductRequestDTO request(String name, String sku) {
+        return ProductRequestDTO.builder()
+                .name(name + " " + System.nanoTime())
+                .sku(sku)
+                .price(BigDecimal.valueOf(250000))
+                .stockQuantity(10)
+                .status(ProductStatus.ACTIVE)
+                .tag(ProductTag.NEW)
+                .categoryId(category.getId())
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package backend_service.shop.service;
+
+import backend_service.shop.cache.CartStore;
+import backend_service.shop.dto.request.OrderRequestDTO;
+import backend_service.shop.dto.response.OrderDetailResponse;
+import backend_service.shop.dto.response.OrderResponse;
+import backend_service.shop.entity.*;
+import backend_service.shop.exception.InvalidDataException;
+import backend_service.shop.repository.*;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checkout turns the cart into an order in one transaction, with a number of statements
+ * that does not depend on the number of lines.
+ */
+@ShopJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartCheckoutTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartDetailRepository cartDetailRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Checkout " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .build());
+    }
+
+    @Test
+    void checkoutRepricesAndEmptiesTheCart() {
+        Cart cart = createCart();
+        Product onSale = createProduct(BigDecimal.valueOf(100), BigDecimal.valueOf(80), 10);
+        Product regular = createProduct(BigDecimal.valueOf(50), null, 10);
+        cartStore.add(cart.getId(), onSale, 2);
+        cartStore.add(cart.getId(), regular, 3);
+        cartStore.flush();
+
+        // Giá đổi sau khi thêm vào giỏ: checkout phải lấy giá mới
+        Product repriced = productRepository.findById(regular.getId()).orElseThrow();
+        repriced.setPrice(BigDecimal.valueOf(60));
+        productRepository.save(repriced);
+
+        OrderResponse order = cartService.checkoutCart(cart.getUser().getId(), checkoutRequest());
+
+        assertEquals(0, BigDecimal.valueOf(2 * 80 + 3 * 60).compareTo(order.getTotalPrice()));
+        for (OrderDetailResponse line : order.getOrderDetails()) {
+            BigDecimal expected = line.getProductId().equals(onSale.getId()) ? BigDecimal.valueOf(80) : BigDecimal.valueOf(60);
+            assertEquals(0, expected.compareTo(line.getUnitPrice()));
+        }
+        assertEquals(8, stockOf(onSale));
+        assertEquals(7, stockOf(regular));
+
+        assertTrue(cartStore.get(cart.getId()).lines().isEmpty());
+        assertTrue(cartDetailRepository.findByCartId(cart.getId()).isEmpty());
+        cartStore.flush();
+        assertTrue(cartDetailRepository.findByCartId(cart.getId()).isEmpty());
+        assertEquals(0, cartRepository.findById(cart.getId()).orElseThrow().getTotalQuantity());
+    }
+
+    @Test
+    void failedCheckoutKeepsTheCart() {
+        Cart cart = createCart();
+        Product product = createProduct(BigDecimal.valueOf(100), null, 1);
+        cartStore.add(cart.getId(), product, 2);
+
+        assertThrows(InvalidDataException.class, () -> cartService.checkoutCart(cart.getUser().getId(), checkoutRequest()));
+
+        assertEquals(2, cartStore.get(cart.getId()).totalQuantity());
+        cartStore.flush();
+        assertEquals(1, cartDetailRepository.findByCartId(cart.getId()).size());
+        assertEquals(1, stockOf(product));
+    }
+
+    @Test
+    void statementCountDoesNotDependOnCartSize() {
+        assertEquals(checkoutStatements(3), checkoutStatements(30));
+    }
+
+    private long checkoutStatements(int lines) {
+        Cart cart = createCart();
+        for (int i = 0; i < lines; i++) {
+            cartStore.add(cart.getId(), createProduct(BigDecimal.valueOf(10), null, 5), 1);
+        }
+        cartStore.flush();
+        cartStore.evict(cart.getId());
+        cartStore.get(cart.getId());
+
+        // Đếm ở tầng JDBC (datasource-proxy) để tính cả các batch JdbcTemplate, không chỉ câu lệnh Hibernate
+        long before = jdbcStatements();
+        OrderResponse order = cartService.checkoutCart(cart.getUser().getId(), checkoutRequest());
+        assertEquals(lines, order.getOrderDetails().size());
+        return jdbcStatements() - before;
+    }
+
+    private long jdbcStatements() {
+        return meterRegistry.find("shop.jdbc.statements").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private Cart createCart() {
+        User user = userRepository.save(User.builder()
+                .username("checkout" + System.nanoTime())
+                .userStatus(UserStatus.ACTIVE)
+                .build());
+        return cartRepository.save(Cart.builder()
+                .user(user)
+                .totalQuantity(0)
+                .totalPrice(BigDecimal.ZERO)
+                .build());
+    }
+
+    private Product createProduct(BigDecimal price, BigDecimal salePrice, int stock) {
+        return productRepository.save(Product.builder()
+                .name("Product " + System.nanoTime())
+                .price(price)
+                .salePrice(salePrice)
+                .stockQuantity(stock)
+                .status(ProductStatus.ACTIVE)
+                .tag(ProductTag.NORMAL)
+                .category(category)
+                .build());
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+
+    private OrderRequestDTO checkoutRequest() {
+        return OrderRequestDTO.builder()
+                .shippingAddress("HN")
+                .paymentMethod(PaymentMethod.COD)
+                .build();
+    }
+}
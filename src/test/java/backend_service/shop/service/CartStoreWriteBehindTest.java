@@ -0,0 +1,236 @@
+package backend_service.shop.service;
+
+import backend_service.shop.cache.CartLine;
+import backend_service.shop.cache.CartStore;
+import backend_service.shop.cache.CartView;
+import backend_service.shop.dto.request.CartDetailRequestDTO;
+import backend_service.shop.entity.*;
+import backend_service.shop.exception.InvalidDataException;
+import backend_service.shop.job.CartTotalsConsistencyJob;
+import backend_service.shop.repository.CartDetailRepository;
+import backend_service.shop.repository.CartRepository;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cart mutations are served from memory and written back in batches; after a flush the
+ * tables must hold exactly the state seen in memory.
+ */
+@ShopJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartStoreWriteBehindTest {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartDetailService cartDetailService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartDetailRepository cartDetailRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long cartId;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        long suffix = System.nanoTime();
+        Category category = categoryRepository.save(Category.builder()
+                .name("Cart " + suffix)
+                .status(CategoryStatus.ACTIVE)
+                .build());
+        products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Product " + i + "-" + suffix)
+                    .price(BigDecimal.valueOf(10 * (i + 1)))
+                    .stockQuantity(100)
+                    .status(ProductStatus.ACTIVE)
+                    .tag(ProductTag.NORMAL)
+                    .category(category)
+                    .build()));
+        }
+        User user = userRepository.save(User.builder().username("cart" + suffix).userStatus(UserStatus.ACTIVE).build());
+        cartId = cartRepository.save(Cart.builder()
+                .user(user)
+                .totalQuantity(0)
+                .totalPrice(BigDecimal.ZERO)
+                .build()).getId();
+    }
+
+    @Test
+    void flushWritesTheCoalescedState() {
+        Product p1 = products.get(0);
+        Product p2 = products.get(1);
+        Product p3 = products.get(2);
+
+        cartStore.add(cartId, p1, 2);
+        cartStore.add(cartId, p2, 1);
+        cartStore.add(cartId, p1, 1);
+        assertTrue(cartDetailRepository.findByCartId(cartId).isEmpty());
+
+        cartStore.flush();
+        assertPersisted(Map.of(p1.getId(), 3, p2.getId(), 1));
+        assertTrue(cartStore.get(cartId).lines().stream().allMatch(line -> line.id() != null));
+
+        cartStore.setQuantity(cartId, p2.getId(), 5);
+        cartStore.remove(cartId, p1.getId());
+        cartStore.add(cartId, p3, 1);
+        // Xóa rồi thêm lại trước khi flush chỉ để lại 1 dòng
+        cartStore.remove(cartId, p3.getId());
+        cartStore.add(cartId, p3, 2);
+        cartStore.flush();
+        assertPersisted(Map.of(p2.getId(), 5, p3.getId(), 2));
+
+        cartStore.clear(cartId);
+        cartStore.flush();
+        assertPersisted(Map.of());
+    }
+
+    @Test
+    void concurrentMutationsAreNotLost() throws Exception {
+        Product product = products.get(0);
+        int threads = 16;
+        int addsPerThread = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    cartStore.add(cartId, product, 1);
+                }
+                return null;
+            }));
+        }
+        // Flush liên tục trong lúc các thread đang ghi
+        Future<?> flusher = executor.submit(() -> {
+            start.await();
+            while (!futures.stream().allMatch(Future::isDone)) {
+                cartStore.flush();
+            }
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        flusher.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+        cartStore.flush();
+
+        int expected = threads * addsPerThread;
+        assertPersisted(Map.of(product.getId(), expected));
+
+        // Nạp lại từ DB phải ra đúng trạng thái trong bộ nhớ
+        cartStore.evict(cartId);
+        CartView reloaded = cartStore.get(cartId);
+        assertEquals(expected, reloaded.totalQuantity());
+        assertEquals(0, product.getPrice().multiply(BigDecimal.valueOf(expected)).compareTo(reloaded.totalPrice()));
+    }
+
+    @Test
+    void consistencyJobRepairsDriftedTotals() {
+        cartStore.add(cartId, products.get(0), 4);
+        cartStore.add(cartId, products.get(1), 1);
+        cartStore.flush();
+        cartStore.evict(cartId);
+
+        // Làm lệch tổng trong DB của giỏ không nằm trong bộ nhớ
+        jdbcTemplate.update("UPDATE tbl_cart SET total_quantity = 99, total_price = 1 WHERE id = ?", cartId);
+
+        new CartTotalsConsistencyJob(cartStore, cartRepository, transactionManager, new SimpleMeterRegistry(), 100).check();
+
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+        assertEquals(5, cart.getTotalQuantity());
+        assertEquals(0, BigDecimal.valueOf(4 * 10 + 20).compareTo(cart.getTotalPrice()));
+    }
+
+    @Test
+    void misroutedRequestDoesNotDuplicateLines() {
+        // Instance thứ hai cùng DB, giỏ được nạp ở cả hai (mất sticky session)
+        CartStore other = new CartStore(cartRepository, cartDetailRepository, transactionManager, 64, 1_800_000);
+        cartStore.get(cartId);
+        other.get(cartId);
+
+        cartStore.add(cartId, products.get(0), 2);
+        other.add(cartId, products.get(0), 1);
+        other.add(cartId, products.get(1), 1);
+        cartStore.flush();
+        other.flush();
+
+        Map<Long, Integer> persisted = cartDetailRepository.findByCartId(cartId).stream()
+                .collect(Collectors.toMap(detail -> detail.getProduct().getId(), CartDetail::getQuantity));
+        assertEquals(Map.of(products.get(0).getId(), 1, products.get(1).getId(), 1), persisted);
+
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+        assertEquals(2, cart.getTotalQuantity());
+        assertEquals(0, BigDecimal.valueOf(10 + 20).compareTo(cart.getTotalPrice()));
+    }
+
+    @Test
+    void nonPositiveQuantityIsRejected() {
+        Product product = products.get(0);
+        assertThrows(InvalidDataException.class, () -> cartStore.add(cartId, product, 0));
+        assertThrows(InvalidDataException.class, () -> cartStore.add(cartId, product, -5));
+        assertThrows(InvalidDataException.class,
+                () -> cartDetailService.addToCart(cartId, new CartDetailRequestDTO(product.getId(), null)));
+
+        cartStore.flush();
+        assertPersisted(Map.of());
+    }
+
+    private void assertPersisted(Map<Long, Integer> expected) {
+        Map<Long, Integer> persisted = cartDetailRepository.findByCartId(cartId).stream()
+                .collect(Collectors.toMap(detail -> detail.getProduct().getId(), CartDetail::getQuantity));
+        assertEquals(expected, persisted);
+
+        CartView view = cartStore.get(cartId);
+        assertEquals(expected, view.lines().stream().collect(Collectors.toMap(CartLine::productId, CartLine::quantity)));
+        assertEquals(view.lines().stream().mapToInt(CartLine::quantity).sum(), view.totalQuantity());
+
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+        assertEquals(view.totalQuantity(), cart.getTotalQuantity());
+        assertEquals(0, view.totalPrice().compareTo(cart.getTotalPrice()));
+    }
+}
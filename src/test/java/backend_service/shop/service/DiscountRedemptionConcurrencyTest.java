@@ -0,0 +1,125 @@
+package backend_service.shop.service;
+
+import backend_service.shop.cache.DiscountCatalog;
+import backend_service.shop.dto.request.OrderDetailRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
+import backend_service.shop.entity.*;
+import backend_service.shop.repository.*;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 500 checkouts race for a code limited to 100 uses and 1 use per user:
+ * exactly 100 must win, and no user may win twice.
+ */
+@ShopJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=32")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DiscountRedemptionConcurrencyTest {
+
+    private static final int CHECKOUTS = 500;
+    private static final int USERS = 250;
+    private static final int MAX_USES = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiscountRepository discountRepository;
+
+    @Autowired
+    private DiscountCatalog discountCatalog;
+
+    @Autowired
+    private DiscountUsageRepository discountUsageRepository;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Category category = categoryRepository.save(Category.builder().name("Flash sale").status(CategoryStatus.ACTIVE).build());
+        Product product = productRepository.save(Product.builder()
+                .name("Flash product")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(CHECKOUTS)
+                .status(ProductStatus.ACTIVE)
+                .tag(ProductTag.NORMAL)
+                .category(category)
+                .build());
+        Discount discount = discountRepository.save(Discount.builder()
+                .code("FLASH")
+                .discountType(DiscountType.PERCENTAGE)
+                .value(BigDecimal.TEN)
+                .maxUses(MAX_USES)
+                .maxUsesPerUser(1)
+                .status(DiscountStatus.ACTIVE)
+                .build());
+        // Discount được lưu thẳng qua repository nên phải nạp lại catalog
+        discountCatalog.refresh();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().username("buyer" + i).userStatus(UserStatus.ACTIVE).build());
+        }
+        users = userRepository.saveAll(users);
+
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < CHECKOUTS; i++) {
+            Long userId = users.get(i % USERS).getId();
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(OrderRequestDTO.builder()
+                            .userId(userId)
+                            .shippingAddress("HN")
+                            .paymentMethod(PaymentMethod.COD)
+                            .discountCode("FLASH")
+                            .orderDetails(List.of(new OrderDetailRequestDTO(product.getId(), 1)))
+                            .build());
+                    succeeded.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(MAX_USES, succeeded.get());
+        assertEquals(CHECKOUTS - MAX_USES, rejected.get());
+        assertEquals(0, discountRepository.findById(discount.getId()).orElseThrow().getMaxUses());
+
+        List<DiscountUsage> usages = discountUsageRepository.findAll();
+        assertEquals(MAX_USES, usages.size());
+        long distinctUsers = usages.stream().map(usage -> usage.getUser().getId()).distinct().count();
+        assertTrue(distinctUsers == usages.size(), "a user redeemed the code twice");
+    }
+}
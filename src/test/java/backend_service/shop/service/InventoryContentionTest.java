@@ -0,0 +1,210 @@
+package backend_service.shop.service;
+
+import backend_service.shop.dto.request.OrderDetailRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
+import backend_service.shop.dto.response.OrderResponse;
+import backend_service.shop.entity.Category;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.User;
+import backend_service.shop.exception.InvalidDataException;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Contention benchmark of stock reservation: many threads check out the same hot product.
+ * Asserts there is no overselling and no deadlock, and logs the throughput.
+ */
+@Slf4j
+@ShopJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=32")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryContentionTest {
+
+    private static final int THREADS = 64;
+    private static final int CHECKOUTS = 400;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Category category;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Hot " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .build());
+        user = userRepository.save(User.builder().username("buyer").userStatus(UserStatus.ACTIVE).build());
+    }
+
+    @Test
+    void hotProductIsNeverOversold() throws Exception {
+        int stock = 150;
+        Product hot = createProduct("hot", stock);
+        double createdBefore = meterRegistry.counter("shop.orders.created").count();
+        double cancelledBefore = meterRegistry.counter("shop.orders.cancelled").count();
+
+        Queue<OrderResponse> orders = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        long elapsed = runConcurrently(CHECKOUTS, i -> {
+            try {
+                orders.add(orderService.createOrder(order(line(hot, 1))));
+            } catch (InvalidDataException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        log.info("Hot product: {} checkouts on {} threads in {} ms ({} orders/s), sold={}, rejected={}",
+                CHECKOUTS, THREADS, elapsed, CHECKOUTS * 1000L / Math.max(elapsed, 1), orders.size(), rejected.get());
+
+        assertEquals(stock, orders.size());
+        assertEquals(CHECKOUTS - stock, rejected.get());
+        assertEquals(0, stockOf(hot));
+        // Đơn bị rollback không được đếm
+        assertEquals(stock, meterRegistry.counter("shop.orders.created").count() - createdBefore);
+
+        // Hủy đơn trả lại đúng số lượng, kể cả khi hủy đồng thời 2 lần
+        OrderResponse first = orders.poll();
+        runConcurrently(2, i -> {
+            try {
+                orderService.cancelOrder(first.getId());
+            } catch (IllegalStateException ignored) {
+                // lần hủy thứ 2 bị từ chối
+            }
+        });
+        assertEquals(1, stockOf(hot));
+        assertEquals(1, meterRegistry.counter("shop.orders.cancelled").count() - cancelledBefore);
+    }
+
+    @Test
+    void cancelledOrderCannotBeReopenedAndCancelledAgain() {
+        Product product = createProduct("reopen", 5);
+        OrderResponse order = orderService.createOrder(order(line(product, 2)));
+        orderService.cancelOrder(order.getId());
+        assertEquals(5, stockOf(product));
+
+        // Mở lại đơn đã hủy bị từ chối nên lần hủy sau không hoàn kho thêm
+        assertThrows(IllegalStateException.class, () -> orderService.changeStatus(order.getId(), OrderStatus.PENDING));
+        assertThrows(IllegalStateException.class, () -> orderService.changeStatus(order.getId(), OrderStatus.CANCELLED));
+        assertEquals(OrderStatus.CANCELLED, orderService.getOrderById(order.getId()).getStatus());
+        assertEquals(5, stockOf(product));
+    }
+
+    @Test
+    void nonPositiveQuantityIsRejected() {
+        Product product = createProduct("negative", 5);
+
+        // Số lượng âm không được cộng vào tồn kho
+        assertThrows(InvalidDataException.class, () -> orderService.createOrder(order(line(product, -50))));
+        assertThrows(InvalidDataException.class, () -> orderService.createOrder(order(line(product, 0))));
+        assertEquals(5, stockOf(product));
+    }
+
+    @Test
+    void ordersSharingProductsInAnyOrderDoNotDeadlock() throws Exception {
+        Product a = createProduct("a", CHECKOUTS);
+        Product b = createProduct("b", CHECKOUTS);
+
+        AtomicInteger created = new AtomicInteger();
+        long elapsed = runConcurrently(CHECKOUTS, i -> {
+            // Nửa số đơn liệt kê a trước b, nửa còn lại b trước a
+            OrderRequestDTO request = i % 2 == 0 ? order(line(a, 1), line(b, 1)) : order(line(b, 1), line(a, 1));
+            orderService.createOrder(request);
+            created.incrementAndGet();
+        });
+
+        log.info("Two shared products: {} checkouts on {} threads in {} ms ({} orders/s)",
+                CHECKOUTS, THREADS, elapsed, CHECKOUTS * 1000L / Math.max(elapsed, 1));
+
+        assertEquals(CHECKOUTS, created.get());
+        assertEquals(0, stockOf(a));
+        assertEquals(0, stockOf(b));
+    }
+
+    private long runConcurrently(int tasks, IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+
+        long begin = System.currentTimeMillis();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.currentTimeMillis() - begin;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private Product createProduct(String name, int stock) {
+        return productRepository.save(Product.builder()
+                .name(name + "-" + System.nanoTime())
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(stock)
+                .status(ProductStatus.ACTIVE)
+                .tag(ProductTag.NORMAL)
+                .category(category)
+                .build());
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+
+    private OrderDetailRequestDTO line(Product product, int quantity) {
+        return new OrderDetailRequestDTO(product.getId(), quantity);
+    }
+
+    private OrderRequestDTO order(OrderDetailRequestDTO... lines) {
+        return OrderRequestDTO.builder()
+                .userId(user.getId())
+                .shippingAddress("HN")
+                .paymentMethod(PaymentMethod.COD)
+                .orderDetails(List.of(lines))
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index) throws Exception;
+    }
+}
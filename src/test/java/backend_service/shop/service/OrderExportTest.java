@@ -0,0 +1,114 @@
+package backend_service.shop.service;
+
+import backend_service.shop.dto.request.OrderDetailRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
+import backend_service.shop.entity.Category;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.User;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.service.impl.OrderExportServiceImpl;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The export streams every order line even when there are more rows than one fetch batch.
+ */
+@ShopJpaTest(properties = {"order.export.fetch-size=3", "order.export.flush-every=2"})
+@Import(OrderExportServiceImpl.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderExportTest {
+
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void streamsMoreRowsThanOneFetchBatch() throws Exception {
+        Category category = categoryRepository.save(Category.builder()
+                .name("Export " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .build());
+        User user = userRepository.save(User.builder().username("export").userStatus(UserStatus.ACTIVE).build());
+        Product a = createProduct(category, "a");
+        Product b = createProduct(category, "b");
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(orderService.createOrder(OrderRequestDTO.builder()
+                    .userId(user.getId())
+                    .shippingAddress("HN")
+                    .paymentMethod(PaymentMethod.COD)
+                    .orderDetails(List.of(new OrderDetailRequestDTO(a.getId(), 1), new OrderDetailRequestDTO(b.getId(), 2)))
+                    .build()).getId());
+        }
+
+        // 10 dòng với fetch-size 3: cursor phải đọc qua nhiều batch
+        List<String> csv = export(ExportFormat.CSV);
+        assertEquals(1 + ORDERS * 2, csv.size());
+        Set<String> detailIds = csv.stream().skip(1).map(line -> line.split(",")[10]).collect(Collectors.toSet());
+        assertEquals(ORDERS * 2, detailIds.size());
+
+        List<String> ndjson = export(ExportFormat.NDJSON);
+        assertEquals(ORDERS, ndjson.size());
+        List<Long> exportedIds = new ArrayList<>();
+        for (String line : ndjson) {
+            JsonNode order = objectMapper.readTree(line);
+            exportedIds.add(order.get("id").asLong());
+            assertEquals(2, order.get("orderDetails").size());
+        }
+        assertEquals(orderIds, exportedIds);
+    }
+
+    private List<String> export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.exportOrders(format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private Product createProduct(Category category, String name) {
+        return productRepository.save(Product.builder()
+                .name(name + "-" + System.nanoTime())
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(100)
+                .status(ProductStatus.ACTIVE)
+                .tag(ProductTag.NORMAL)
+                .category(category)
+                .build());
+    }
+}
@@ -0,0 +1,126 @@
+package backend_service.shop.service;
+
+import backend_service.shop.dto.response.OrderResponse;
+import backend_service.shop.dto.response.system.PageResponse;
+import backend_service.shop.entity.*;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Order read paths must assemble a page with a constant number of statements,
+ * whatever the number of orders, lines and products.
+ */
+@ShopJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderReadQueryCountTest {
+
+    private static final int ORDERS = 20;
+    private static final int LINES_PER_ORDER = 5;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Category category = Category.builder().name("Phone").status(CategoryStatus.ACTIVE).build();
+        entityManager.persist(category);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES_PER_ORDER * 2; i++) {
+            Product product = Product.builder()
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(100))
+                    .stockQuantity(10)
+                    .status(ProductStatus.ACTIVE)
+                    .tag(ProductTag.NORMAL)
+                    .category(category)
+                    .build();
+            entityManager.persist(product);
+            products.add(product);
+        }
+
+        Discount discount = Discount.builder()
+                .code("SALE10")
+                .discountType(DiscountType.PERCENTAGE)
+                .value(BigDecimal.TEN)
+                .status(DiscountStatus.ACTIVE)
+                .build();
+        entityManager.persist(discount);
+
+        user = User.builder().username("buyer").email("buyer@shop.local").userStatus(UserStatus.ACTIVE).build();
+        entityManager.persist(user);
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .user(user)
+                    .discount(i % 2 == 0 ? discount : null)
+                    .status(OrderStatus.PENDING)
+                    .totalPrice(BigDecimal.valueOf(500))
+                    .build();
+            entityManager.persist(order);
+
+            for (int j = 0; j < LINES_PER_ORDER; j++) {
+                entityManager.persist(OrderDetail.builder()
+                        .order(order)
+                        .product(products.get((i + j) % products.size()))
+                        .quantity(1)
+                        .unitPrice(BigDecimal.valueOf(100))
+                        .totalPrice(BigDecimal.valueOf(100))
+                        .build());
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllOrdersUsesConstantQueries() {
+        PageResponse<?> page = orderService.getAllOrders(0, ORDERS);
+
+        assertEquals(ORDERS, ((List<?>) page.getItems()).size());
+        // id page + count + orders with lines/products/discount
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllOrdersAfterUsesConstantQueries() {
+        PageResponse<?> page = orderService.getAllOrdersAfter(null, ORDERS, false);
+
+        assertEquals(ORDERS, ((List<?>) page.getItems()).size());
+        // keyset slice + orders with lines/products/discount
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByUserUsesOneQuery() {
+        List<OrderResponse> orders = orderService.getOrdersByUser(user.getId());
+
+        assertEquals(ORDERS, orders.size());
+        assertEquals(LINES_PER_ORDER, orders.get(0).getOrderDetails().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,202 @@
+package backend_service.shop.service;
+
+import backend_service.shop.dto.request.OrderDetailRequestDTO;
+import backend_service.shop.dto.request.OrderRequestDTO;
+import backend_service.shop.dto.response.OrderResponse;
+import backend_service.shop.dto.response.ProductSalesReport;
+import backend_service.shop.entity.Category;
+import backend_service.shop.entity.Product;
+import backend_service.shop.entity.User;
+import backend_service.shop.repository.CategoryRepository;
+import backend_service.shop.repository.JobLockRepository;
+import backend_service.shop.repository.ProductRepository;
+import backend_service.shop.repository.UserRepository;
+import backend_service.shop.service.impl.ProductSalesServiceImpl;
+import backend_service.shop.support.ShopJpaTest;
+import backend_service.shop.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The sales counters follow order creation and cancellation, and a rebuild from the
+ * order history lands on the same numbers.
+ */
+@ShopJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSalesCounterTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductSalesServiceImpl productSalesService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    private Category category;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Sales " + System.nanoTime())
+                .status(CategoryStatus.ACTIVE)
+                .build());
+        user = userRepository.save(User.builder().username("buyer-" + System.nanoTime()).userStatus(UserStatus.ACTIVE).build());
+    }
+
+    @Test
+    void countersFollowOrdersAndMatchARebuild() {
+        Product a = createProduct("a");
+        Product b = createProduct("b");
+        Product c = createProduct("c");
+
+        orderService.createOrder(order(line(a, 2), line(b, 1)));
+        OrderResponse cancelled = orderService.createOrder(order(line(a, 3)));
+        orderService.createOrder(order(line(b, 4), line(c, 1)));
+        // Hủy qua PUT /order/{id}/status trả về status mới và trừ đơn khỏi bộ đếm
+        assertEquals(OrderStatus.CANCELLED, orderService.changeStatus(cancelled.getId(), OrderStatus.CANCELLED).getStatus());
+
+        Map<Long, Long> expected = Map.of(b.getId(), 5L, a.getId(), 2L, c.getId(), 1L);
+        productSalesService.flush();
+        productSalesService.refresh();
+        Map<Long, Long> allTime = sold(productSalesService.getTopSelling(SalesWindow.ALL_TIME, 10), a, b, c);
+        assertEquals(expected, allTime);
+        assertEquals(List.of(b.getId(), a.getId(), c.getId()), List.copyOf(allTime.keySet()));
+        assertEquals(expected, sold(productSalesService.getTopSelling(SalesWindow.TODAY, 10), a, b, c));
+        assertEquals(BigDecimal.valueOf(500), revenue(SalesWindow.ALL_TIME, b));
+
+        productSalesService.rebuild();
+        productSalesService.refresh();
+        assertEquals(expected, sold(productSalesService.getTopSelling(SalesWindow.ALL_TIME, 10), a, b, c));
+    }
+
+    @Test
+    void windowsOnlyCountOrdersPlacedInside() {
+        Product old = createProduct("old");
+        Product recent = createProduct("recent");
+
+        OrderResponse oldOrder = orderService.createOrder(order(line(old, 7)));
+        orderService.createOrder(order(line(recent, 1)));
+        jdbcTemplate.update("UPDATE tbl_order SET created_at = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(10), oldOrder.getId());
+        productSalesService.rebuild();
+        productSalesService.refresh();
+
+        assertEquals(Map.of(recent.getId(), 1L), sold(productSalesService.getTopSelling(SalesWindow.TODAY, 10), old, recent));
+        assertEquals(Map.of(recent.getId(), 1L), sold(productSalesService.getTopSelling(SalesWindow.LAST_7_DAYS, 10), old, recent));
+        assertEquals(Map.of(old.getId(), 7L, recent.getId(), 1L),
+                sold(productSalesService.getTopSelling(SalesWindow.LAST_30_DAYS, 10), old, recent));
+
+        // Hủy đơn cũ trừ vào đúng ngày đặt đơn, không phải hôm nay
+        orderService.cancelOrder(oldOrder.getId());
+        productSalesService.flush();
+        productSalesService.refresh();
+        assertEquals(Map.of(recent.getId(), 1L), sold(productSalesService.getTopSelling(SalesWindow.LAST_30_DAYS, 10), old, recent));
+        assertEquals(Map.of(recent.getId(), 1L), sold(productSalesService.getTopSelling(SalesWindow.TODAY, 10), old, recent));
+    }
+
+    @Test
+    void rebuildBeforeAFlushDoesNotCountOrdersTwice() {
+        Product placed = createProduct("placed");
+        Product cancelled = createProduct("cancelled");
+
+        OrderResponse toCancel = orderService.createOrder(order(line(cancelled, 3)));
+        productSalesService.flush();
+        // Rebuild chạy giữa lúc đơn commit và lúc delta của đơn được flush
+        orderService.createOrder(order(line(placed, 2)));
+        orderService.cancelOrder(toCancel.getId());
+        productSalesService.rebuild();
+        productSalesService.flush();
+        productSalesService.refresh();
+
+        assertEquals(Map.of(placed.getId(), 2L), sold(productSalesService.getTopSelling(SalesWindow.ALL_TIME, 10), placed, cancelled));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tbl_product_sales_total WHERE product_id = ? AND quantity <> 0", Integer.class, cancelled.getId()));
+    }
+
+    @Test
+    void nightlyRebuildLeaseIsTakenByOneInstance() {
+        String name = "lease-" + System.nanoTime();
+        assertTrue(jobLockRepository.tryAcquire(name, Duration.ofHours(1), "instance-a"));
+        assertFalse(jobLockRepository.tryAcquire(name, Duration.ofHours(1), "instance-b"));
+
+        // Lease hết hạn thì instance khác nhận được
+        String expired = "lease-" + System.nanoTime();
+        assertTrue(jobLockRepository.tryAcquire(expired, Duration.ZERO, "instance-a"));
+        assertTrue(jobLockRepository.tryAcquire(expired, Duration.ofHours(1), "instance-b"));
+    }
+
+    private BigDecimal revenue(SalesWindow window, Product product) {
+        return productSalesService.getTopSelling(window, 10).stream()
+                .filter(report -> report.getProductId().equals(product.getId()))
+                .findFirst().orElseThrow()
+                .getTotalRevenue().stripTrailingZeros().setScale(0);
+    }
+
+    /**
+     * Quantity sold per product of this test, in ranking order
+     */
+    private static Map<Long, Long> sold(List<ProductSalesReport> reports, Product... products) {
+        Set<Long> ids = Arrays.stream(products).map(Product::getId).collect(Collectors.toSet());
+        Map<Long, Long> sold = new LinkedHashMap<>();
+        reports.stream()
+                .filter(report -> ids.contains(report.getProductId()))
+                .forEach(report -> sold.put(report.getProductId(), report.getTotalQuantitySold()));
+        return sold;
+    }
+
+    private Product createProduct(String name) {
+        return productRepository.save(Product.builder()
+                .name(name + "-" + System.nanoTime())
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(100)
+                .status(ProductStatus.ACTIVE)
+                .tag(ProductTag.NORMAL)
+                .category(category)
+                .build());
+    }
+
+    private OrderDetailRequestDTO line(Product product, int quantity) {
+        return new OrderDetailRequestDTO(product.getId(), quantity);
+    }
+
+    private OrderRequestDTO order(OrderDetailRequestDTO... lines) {
+        return OrderRequestDTO.builder()
+                .userId(user.getId())
+                .shippingAddress("HN")
+                .paymentMethod(PaymentMethod.COD)
+                .orderDetails(List.of(lines))
+                .build();
+    }
+}
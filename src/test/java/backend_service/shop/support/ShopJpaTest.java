@@ -0,0 +1,29 @@
+package backend_service.shop.support;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.ActiveProfiles;
+import java.lang.annotation.*;
+
+/**
+ * JPA slice on an in-memory H2 in MySQL mode (profile jpatest) with the beans of
+ * {@link ShopJpaTestConfiguration}. Scheduled jobs are pushed out, tests call them explicitly.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("jpatest")
+@Import(ShopJpaTestConfiguration.class)
+public @interface ShopJpaTest {
+
+    /**
+     * Properties specific to the test class, e.g. a larger pool for contention tests
+     */
+    @AliasFor(annotation = DataJpaTest.class)
+    String[] properties() default {};
+}
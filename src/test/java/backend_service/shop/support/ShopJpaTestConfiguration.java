@@ -0,0 +1,38 @@
+package backend_service.shop.support;
+
+import backend_service.shop.cache.CartStore;
+import backend_service.shop.cache.CategoryTreeCache;
+import backend_service.shop.cache.DiscountCatalog;
+import backend_service.shop.cache.ProductCatalogCache;
+import backend_service.shop.metrics.DataSourceMetricsPostProcessor;
+import backend_service.shop.metrics.ShopMetrics;
+import backend_service.shop.search.ProductFacetIndexer;
+import backend_service.shop.search.ProductSearchIndexer;
+import backend_service.shop.service.InvoiceService;
+import backend_service.shop.service.impl.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.engine.Mode;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Services, caches and indexes exercised by the {@link ShopJpaTest} slices, on top of the
+ * repositories. Invoices (PDF + mail) are mocked.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@Import({OrderServiceImpl.class, InventoryServiceImpl.class, ProductSalesServiceImpl.class,
+        DiscountServiceImpl.class, DiscountCatalog.class,
+        CartServiceImpl.class, CartDetailServiceImpl.class, CartStore.class,
+        ProductServiceImpl.class, ProductCatalogCache.class, ProductSearchIndexer.class, ProductFacetIndexer.class,
+        CategoryTreeCache.class,
+        ShopMetrics.class, SimpleMeterRegistry.class, DataSourceMetricsPostProcessor.class})
+@MockBean(InvoiceService.class)
+public class ShopJpaTestConfiguration {
+
+    static {
+        // H2 2.1 ở MODE=MySQL chỉnh lại sequence identity sau mỗi insert mà không lock: nhiều connection
+        // insert đồng thời có thể nhận trùng id. App không tự chèn id nên tắt cờ này cho DB test
+        Mode.getInstance("MySQL").updateSequenceOnManualIdentityInsertion = false;
+    }
+}
@@ -0,0 +1,71 @@
+package backend_service.shop.tracing;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowTraceRecorderTest {
+
+    @Test
+    void buildsSpanTreeOfTheCurrentThread() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(1.0, 0, 500, 10, 60);
+
+        recorder.trace(SpanKind.JOB, "job", () -> {
+            try (Span service = Tracing.start(SpanKind.SERVICE, "OrderServiceImpl.createOrder")) {
+                try (Span query = Tracing.start(SpanKind.QUERY, "select 1")) {
+                    assertNotSame(Span.NOOP, query);
+                }
+                try (Span mail = Tracing.start(SpanKind.EXTERNAL, "smtp send")) {
+                    mail.error(new IllegalStateException());
+                }
+            }
+        });
+
+        assertFalse(Tracing.isActive());
+        assertSame(Span.NOOP, Tracing.start(SpanKind.SERVICE, "outside a trace"));
+
+        TraceView trace = recorder.slowest().get(0);
+        assertEquals(4, trace.spans());
+        SpanView service = trace.root().children().get(0);
+        assertEquals("OrderServiceImpl.createOrder", service.name());
+        assertEquals(List.of("select 1", "smtp send"), service.children().stream().map(SpanView::name).toList());
+        assertEquals("IllegalStateException", service.children().get(1).error());
+        assertTrue(recorder.find(trace.id()).isPresent());
+    }
+
+    @Test
+    void keepsOnlyTheSlowestTraces() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(1.0, 0, 500, 2, 60);
+
+        for (long sleep : new long[]{5, 30, 1, 20}) {
+            recorder.trace(SpanKind.JOB, "sleep " + sleep, () -> sleep(sleep));
+        }
+
+        assertEquals(List.of("sleep 30", "sleep 20"), recorder.slowest().stream().map(TraceView::name).toList());
+    }
+
+    @Test
+    void capsSpansPerTrace() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(1.0, 0, 10, 10, 60);
+
+        recorder.trace(SpanKind.REQUEST, "n+1", () -> {
+            for (int i = 0; i < 100; i++) {
+                Tracing.start(SpanKind.QUERY, "select " + i).close();
+            }
+        });
+
+        TraceView trace = recorder.slowest().get(0);
+        assertEquals(10, trace.spans());
+        assertEquals(91, trace.dropped());
+        assertEquals(9, trace.root().children().size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}